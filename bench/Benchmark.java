@@ -0,0 +1,984 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Class that runs micro benchmarks of the linked list, stack, picking and coupling operations
+ * over scenes of different sizes, and prints the average time of each operation.
+ * Drawing the vehicles and blocks from their shapes must not allocate once the JVM has warmed up,
+ * so the run exits with a status of 1 if every measured iteration of that benchmark allocates anything.
+ * This is a quick check that builds with javac alone; the times of record are measured with JMH by the classes in bench/jmh,
+ * which build the same operations with prepare and run each in a JVM of its own
+ *
+ * Usage: java -cp bin Benchmark [-sizes 10,1000,...] [-filter text] [-warmup n] [-iterations n]
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class Benchmark
+{
+	private static final int[] DEFAULT_SIZES = {10, 1000, 100000, 1000000};
+	private static final int BRUTE_FORCE_LIMIT = 10000;	// the largest scene that the brute-force scans are measured on
+	private static final long TARGET_NANOS = 200000000L;	// the approximate length of one measured iteration
+
+	private static final String ZERO_ALLOCATION = "draw vehicles+blocks";	// the benchmark that fails if it allocates
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();	// the counts of the bytes allocated
+
+	private static long sink;							// results of the measured operations, so they are not optimized away
+
+	/**
+	 * Interface that represents one benchmarked operation on a scene of a given size
+	 */
+	interface Case
+	{
+		/**
+		 * A method that builds the scene that the operation runs on
+		 * @param n the integer size of the scene
+		 */
+		void setUp(int n);
+
+		/**
+		 * A method that runs the operation a number of times
+		 * @param ops the integer number of times to run the operation
+		 * @return a long result of the operations, which the caller keeps so that the JIT can not drop the work
+		 */
+		long run(int ops);
+	}
+
+	/**
+	 * Runs the benchmarks and prints one line per benchmark and scene size
+	 * @param args the command line options
+	 */
+	public static void main(String[] args)
+	{
+		int[] sizes = DEFAULT_SIZES;
+		String filter = "";
+		int warmup = 3;
+		int iterations = 5;
+		for(int i = 0; i + 1 < args.length; i += 2)
+		{
+			if(args[i].equals("-sizes"))
+			{
+				String[] parts = args[i + 1].split(",");
+				sizes = new int[parts.length];
+				for(int j = 0; j < parts.length; j++)
+				{
+					sizes[j] = Integer.parseInt(parts[j].trim());
+				}
+			}
+			else if(args[i].equals("-filter"))
+			{
+				filter = args[i + 1];
+			}
+			else if(args[i].equals("-warmup"))
+			{
+				warmup = Integer.parseInt(args[i + 1]);
+			}
+			else if(args[i].equals("-iterations"))
+			{
+				iterations = Integer.parseInt(args[i + 1]);
+			}
+		}
+		System.setProperty("java.awt.headless", "true");
+		System.out.println(String.format(Locale.ROOT, "%-32s %10s %14s %14s %12s", "benchmark", "size", "ns/op (avg)", "ns/op (best)", "B/op"));
+		String[] names = caseNames();
+		int failures = 0;
+		for(int c = 0; c < names.length; c++)
+		{
+			if(!names[c].contains(filter))
+			{
+				continue;
+			}
+			for(int s = 0; s < sizes.length; s++)
+			{
+				if(names[c].endsWith("(brute force)") && sizes[s] > BRUTE_FORCE_LIMIT)
+				{
+					continue;
+				}
+				Case bench = createCase(names[c]);
+				bench.setUp(sizes[s]);
+				double allocated = measure(names[c], sizes[s], bench, warmup, iterations);
+				if(names[c].equals(ZERO_ALLOCATION) && allocated > 0)
+				{
+					System.out.println(String.format(Locale.ROOT, "FAILED %s allocates at least %.1f B/op at size %d, instead of none",
+							names[c], allocated, sizes[s]));
+					failures++;
+				}
+			}
+		}
+		if(sink == 42)
+		{
+			System.out.println();
+		}
+		if(failures > 0)
+		{
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * A method that times a benchmark, first letting the JVM warm up, and prints the result
+	 * @param name the name of the benchmark
+	 * @param n the integer size of the scene
+	 * @param bench the Case to be measured
+	 * @param warmup the number of iterations that are run but not measured
+	 * @param iterations the number of measured iterations
+	 * @return the number of bytes per operation that the measured iteration that allocated the least allocated, 
+	 * which is 0 once an operation that does not allocate is compiled, even if the JIT was still at work in other iterations
+	 */
+	private static double measure(String name, int n, Case bench, int warmup, int iterations)
+	{
+		// finds a number of operations per iteration that takes roughly the target time
+		int ops = 1;
+		while(true)
+		{
+			long start = System.nanoTime();
+			sink += bench.run(ops);
+			long elapsed = System.nanoTime() - start;
+			if(elapsed > TARGET_NANOS / 10 || ops >= (1 << 26))
+			{
+				ops = (int) Math.max(1, Math.min(1L << 28, ops * (TARGET_NANOS / Math.max(elapsed, 1))));
+				break;
+			}
+			ops *= 2;
+		}
+		for(int i = 0; i < warmup; i++)
+		{
+			sink += bench.run(ops);
+		}
+		double total = 0;
+		double best = Double.MAX_VALUE;
+		long allocatedBefore = allocatedBytes();
+		long fewestAllocated = Long.MAX_VALUE;
+		for(int i = 0; i < iterations; i++)
+		{
+			long iterationAllocated = allocatedBytes();
+			long start = System.nanoTime();
+			sink += bench.run(ops);
+			double perOp = (double) (System.nanoTime() - start) / ops;
+			fewestAllocated = Math.min(fewestAllocated, allocatedBytes() - iterationAllocated);
+			total += perOp;
+			best = Math.min(best, perOp);
+		}
+		double allocated = (double) (allocatedBytes() - allocatedBefore) / ((long) ops * iterations);
+		System.out.println(String.format(Locale.ROOT, "%-32s %10d %14.1f %14.1f %12.1f", name, n, total / iterations, best, allocated));
+		return (double) fewestAllocated / ops;
+	}
+
+	/**
+	 * A method that returns the number of bytes that the current thread has allocated so far
+	 * @return the number of bytes allocated, or 0 if the JVM can not measure it
+	 */
+	private static long allocatedBytes()
+	{
+		// the bean is looked up once, since looking it up allocates, which would be counted against the benchmark
+		if(THREADS instanceof com.sun.management.ThreadMXBean)
+		{
+			return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/**
+	 * A method that returns the names of all of the benchmarks, in the order they are run
+	 * @return the array of benchmark names
+	 */
+	private static String[] caseNames()
+	{
+		String[] names = {
+			"addLast+removeLast",
+			"addFirst+removeFirst",
+			"split+addLast (middle)",
+			"remove+addFirst (middle)",
+			"load+unload",
+			"getLoad",
+			"hasEmptyTrailer",
+			"pick",
+			"pick (brute force)",
+			"coupling",
+			"coupling (brute force)",
+			"drag",
+			"stack push+pop",
+			"pop+push",
+			"load all+unload all",
+			"snapshot save",
+			"snapshot open",
+			ZERO_ALLOCATION,
+			"paint",
+			"paint (sprites)",
+			"paint stack",
+			"paint stack (sprites)",
+			"paint yard",
+			"paint yard (zoomed out)",
+			"paint yard (far out)"
+		};
+		ArrayList<String> all = new ArrayList<String>();
+		for(int i = 0; i < names.length; i++)
+		{
+			all.add(names[i]);
+		}
+		// the animation is measured on 1, 2, 4, ... threads up to the number of processors, to show how it scales
+		int processors = Runtime.getRuntime().availableProcessors();
+		for(int threads = 1; threads < processors; threads *= 2)
+		{
+			all.add("animate (" + threads + (threads == 1 ? " thread)" : " threads)"));
+		}
+		all.add("animate (" + processors + (processors == 1 ? " thread)" : " threads)"));
+		return all.toArray(new String[all.size()]);
+	}
+
+	/**
+	 * A method that creates the benchmark with the specified name
+	 * @param name the name of the benchmark
+	 * @return the Case that measures it
+	 */
+	private static Case createCase(String name)
+	{
+		if(name.equals("addLast+removeLast"))
+		{
+			return new ListCase(true);
+		}
+		if(name.equals("addFirst+removeFirst"))
+		{
+			return new ListCase(false);
+		}
+		if(name.endsWith("(middle)"))
+		{
+			return new MiddleCase(name.startsWith("split"));
+		}
+		if(name.equals("load+unload") || name.equals("getLoad") || name.equals("hasEmptyTrailer"))
+		{
+			return new LoadCase(name);
+		}
+		if(name.startsWith("pick") || name.startsWith("coupling"))
+		{
+			return new SceneCase(name.startsWith("pick"), !name.endsWith("(brute force)"));
+		}
+		if(name.equals(ZERO_ALLOCATION))
+		{
+			return new DrawCase();
+		}
+		if(name.startsWith("paint yard"))
+		{
+			return new YardPaintCase(name.endsWith("(far out)") ? 1 / 16.0 : name.endsWith("(zoomed out)") ? 0.25 : 1);
+		}
+		if(name.startsWith("paint"))
+		{
+			return new PaintCase(name.endsWith("(sprites)"), name.startsWith("paint stack"));
+		}
+		if(name.equals("pop+push"))
+		{
+			return new YardCase();
+		}
+		if(name.equals("load all+unload all"))
+		{
+			return new LoadAllCase();
+		}
+		if(name.equals("drag"))
+		{
+			return new DragCase();
+		}
+		if(name.startsWith("animate"))
+		{
+			return new AnimateCase(Integer.parseInt(name.substring(name.indexOf('(') + 1, name.indexOf(' ', name.indexOf('(')))));
+		}
+		if(name.startsWith("snapshot"))
+		{
+			return new SnapshotCase(name.endsWith("open"));
+		}
+		return new StackCase();
+	}
+
+	/**
+	 * A method that builds the named benchmark on a scene of a given size, for the JMH benchmarks in bench/jmh, 
+	 * which are in a package of their own and so can only reach the game's classes through this method
+	 * @param name the name of the benchmark, as printed by this harness
+	 * @param n the integer size of the scene
+	 * @return the IntToLongFunction that runs the operation a number of times and returns a result of it
+	 */
+	public static IntToLongFunction prepare(String name, int n)
+	{
+		Case bench = createCase(name);
+		bench.setUp(n);
+		return bench::run;
+	}
+
+	/**
+	 * A method that builds a train engine pulling a number of rail cars in a store of their own
+	 * @param cars the number of rail cars
+	 * @return the TrainEngine at the front of the train
+	 */
+	static TrainEngine buildTrain(int cars)
+	{
+		return buildTrain(new VehicleStore(cars + 1), cars);
+	}
+
+	/**
+	 * A method that builds a train engine pulling a number of rail cars, linking them without moving the whole train per car
+	 * @param store the VehicleStore that holds the train
+	 * @param cars the number of rail cars
+	 * @return the TrainEngine at the front of the train
+	 */
+	static TrainEngine buildTrain(VehicleStore store, int cars)
+	{
+		TrainEngine engine = new TrainEngine(store, 0, 0);
+		if(cars == 0)
+		{
+			return engine;
+		}
+		RailCar first = new RailCar(store, 0, 0, 1);
+		RailCar last = first;
+		for(int i = 2; i <= cars; i++)
+		{
+			RailCar next = new RailCar(store, 0, 0, i);
+			last.addLast(next);
+			last = next;
+		}
+		engine.addLast(first);
+		return engine;
+	}
+
+	/**
+	 * Class that benchmarks attaching a rail car to one end of a train and removing it again
+	 */
+	static class ListCase implements Case
+	{
+		private boolean atEnd;			// true for addLast and removeLast, false for addFirst and removeFirst
+		private TrainEngine engine;		// the train that the rail car is attached to
+		private RailCar car;			// the rail car that is attached and removed
+
+		ListCase(boolean atEnd)
+		{
+			this.atEnd = atEnd;
+		}
+
+		public void setUp(int n)
+		{
+			engine = buildTrain(n);
+			car = new RailCar(engine.getStore(), 0, 0, n + 1);
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				if(atEnd)
+				{
+					engine.addLast(car);
+					engine.removeLast();
+				}
+				else
+				{
+					engine.addFirst(car);
+					engine.removeFirst();
+				}
+			}
+			return car.getX();
+		}
+	}
+
+	/**
+	 * Class that benchmarks Split Here or Remove Selected on the middle rail car of a train, and putting it back;
+	 * the rail cars behind the middle one are left to find their chain or be placed later, so neither grows with the train
+	 */
+	static class MiddleCase implements Case
+	{
+		private boolean split;			// true to split the train at the rail car, false to remove the rail car
+		private TrainEngine engine;		// the train that the rail car is split from or removed from
+		private Vehicle car;			// the rail car in the middle of the train
+
+		MiddleCase(boolean split)
+		{
+			this.split = split;
+		}
+
+		public void setUp(int n)
+		{
+			engine = buildTrain(n);
+			car = engine;
+			for(int i = 0; i < (n + 1) / 2; i++)
+			{
+				car = car.getTrailer();
+			}
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				if(split)
+				{
+					car.split();
+					engine.addLast(car);
+				}
+				else
+				{
+					Vehicle front = car.getPuller();
+					car.removeFromTrain();
+					front.addFirst(car);
+				}
+			}
+			return car.getX();
+		}
+	}
+
+	/**
+	 * Class that benchmarks loading and finding blocks on a train whose rail cars are all loaded but the last
+	 */
+	static class LoadCase implements Case
+	{
+		private String name;			// the name of the measured operation
+		private TrainEngine engine;		// the train that blocks are loaded on
+		private Block block;			// the block that is loaded and unloaded
+
+		LoadCase(String name)
+		{
+			this.name = name;
+		}
+
+		public void setUp(int n)
+		{
+			engine = buildTrain(n);
+			Vehicle v = engine.getTrailer();
+			while(v != null && v.hasTrailer())
+			{
+				v.load(new Block(0, 0, "A"));
+				v = v.getTrailer();
+			}
+			block = new Block(0, 0, "Z");
+		}
+
+		public long run(int ops)
+		{
+			Vehicle first = engine.getTrailer();
+			long result = 0;
+			for(int i = 0; i < ops; i++)
+			{
+				if(name.equals("load+unload"))
+				{
+					first.load(block);
+					first.getTrain().getTail().unload(block);
+				}
+				else if(name.equals("getLoad"))
+				{
+					result += first.getLoad().hashCode();
+				}
+				else if(first.hasEmptyTrailer())
+				{
+					result++;
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Class that benchmarks selecting a vehicle and coupling the selected link in a yard of single rail cars
+	 */
+	static class SceneCase implements Case
+	{
+		private boolean pick;				// true to measure presses, false to measure releases
+		private boolean useSpatialIndex;	// true to use the spatial index, false to scan every vehicle
+		private Simulation simulation;		// the scene
+		private int[] points;				// the x and y coordinates that are pressed, one pair after another
+		private int width;					// the width of the yard in pixels
+		private int next;					// the index of the next point, so that a run of one operation goes on from the last
+
+		SceneCase(boolean pick, boolean useSpatialIndex)
+		{
+			this.pick = pick;
+			this.useSpatialIndex = useSpatialIndex;
+		}
+
+		public void setUp(int n)
+		{
+			simulation = new Simulation();
+			simulation.setUseSpatialIndex(useSpatialIndex);
+			// the first presses create the engine, the rail cars and the block stack
+			for(int i = 0; i < 7; i++)
+			{
+				simulation.press(i * 200, 0);
+			}
+			// the rest of the yard is a grid of rail cars with gaps between them, so nothing couples
+			int columns = (int) Math.ceil(Math.sqrt(n));
+			width = columns * 2 * RailCar.TOTAL_WIDTH;
+			for(int i = 0; i < n; i++)
+			{
+				int x = (i % columns) * 2 * RailCar.TOTAL_WIDTH;
+				int y = 100 + (i / columns) * 2 * RailCar.TOTAL_HEIGHT;
+				simulation.addVehicle(new RailCar(simulation.getStore(), x, y, i + 6));
+			}
+			Random random = new Random(1);
+			points = new int[2048];
+			for(int i = 0; i < points.length; i += 2)
+			{
+				points[i] = random.nextInt(width);
+				points[i + 1] = 100 + random.nextInt(Math.max(1, (n / columns + 1) * 2 * RailCar.TOTAL_HEIGHT));
+			}
+			// releases are measured with one rail car selected, away from everything it could couple to
+			if(!pick)
+			{
+				simulation.press(6 + 5, 100 + 5);
+			}
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				int p = next & (points.length - 1);
+				next += 2;
+				if(pick)
+				{
+					simulation.press(points[p], points[p + 1]);
+				}
+				else
+				{
+					simulation.release(points[p], points[p + 1]);
+				}
+			}
+			return simulation.getSelectedVehicle() == null ? -1 : simulation.getSelectedVehicle().getIndex();
+		}
+	}
+
+	/**
+	 * Class that benchmarks pushing a block onto a tall block stack and popping it off again
+	 */
+	static class StackCase implements Case
+	{
+		private BlockStack blocks;		// the stack of blocks
+		private Block block;			// the block that is pushed and popped
+
+		public void setUp(int n)
+		{
+			blocks = new BlockStack(0, 0);
+			for(int i = 0; i < n; i++)
+			{
+				blocks.push(new Block(0, 0, "A"));
+			}
+			block = new Block(0, 0, "Z");
+		}
+
+		public long run(int ops)
+		{
+			long result = 0;
+			for(int i = 0; i < ops; i++)
+			{
+				blocks.push(block);
+				result += blocks.pop().hashCode();
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Class that benchmarks popping a block onto a long train and pushing the first loaded block back, 
+	 * with as many blocks loaded on the train as there are rail cars, less one
+	 */
+	static class YardCase implements Case
+	{
+		private Simulation simulation;	// the game whose selected train is loaded and unloaded
+
+		public void setUp(int n)
+		{
+			simulation = new Simulation();
+			for(int i = 0; i < 7; i++)
+			{
+				simulation.press(i * 100, 700);
+			}
+			TrainEngine engine = buildTrain(simulation.getStore(), n);
+			engine.setLocation(0, 100);
+			for(Vehicle v = engine; v != null; v = v.getTrailer())
+			{
+				simulation.addVehicle(v);
+			}
+			simulation.press(10, 110);
+			simulation.release(10, 110);
+			for(int i = 1; i < n; i++)
+			{
+				Block block = new Block(0, 0, "A");
+				engine.getTrailer().load(block);
+				simulation.getLoadedBlocks().add(block);
+			}
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				simulation.pop();
+				simulation.push();
+			}
+			// the changes are not kept for undoing, so that a long run measures them rather than a growing history
+			simulation.getHistory().clear();
+			return simulation.getBlocks().size();
+		}
+	}
+
+	/**
+	 * Class that benchmarks loading a block on every rail car of a long train from a stack, and unloading them all back
+	 * onto it, with one Load All and one Unload All
+	 */
+	static class LoadAllCase implements Case
+	{
+		private Simulation simulation;	// the game whose selected train is loaded and unloaded
+
+		public void setUp(int n)
+		{
+			simulation = new Simulation();
+			for(int i = 0; i < 7; i++)
+			{
+				simulation.press(i * 100, 700);
+			}
+			TrainEngine engine = buildTrain(simulation.getStore(), n);
+			engine.setLocation(0, 100);
+			for(Vehicle v = engine; v != null; v = v.getTrailer())
+			{
+				simulation.addVehicle(v);
+			}
+			simulation.press(10, 110);
+			simulation.release(10, 110);
+			BlockStack stack = simulation.getBlocks();
+			for(int i = stack.size(); i < n; i++)
+			{
+				Block block = new Block(stack.getX(), stack.getNextY(), "A");
+				block.setDirtyRegion(simulation.getDirtyRegion());
+				stack.push(block);
+			}
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				simulation.popMany(Integer.MAX_VALUE);
+				simulation.pushMany(Integer.MAX_VALUE);
+			}
+			simulation.getHistory().clear();
+			return simulation.getBlocks().size();
+		}
+	}
+
+	/**
+	 * Class that benchmarks dragging a selected train engine that pulls every rail car of the game
+	 */
+	static class DragCase implements Case
+	{
+		private Simulation simulation;	// the game whose selected train is dragged
+		private int step;				// the number of drags so far, so that a run of one drag goes on from the last
+
+		public void setUp(int n)
+		{
+			simulation = new Simulation();
+			for(int i = 0; i < 7; i++)
+			{
+				simulation.press(i * 100, 700);
+			}
+			TrainEngine engine = buildTrain(simulation.getStore(), n);
+			engine.setLocation(0, 100);
+			for(Vehicle v = engine; v != null; v = v.getTrailer())
+			{
+				simulation.addVehicle(v);
+			}
+			simulation.press(10, 110);
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				simulation.drag(step & 63, 100 + (step & 31));
+				step++;
+				simulation.getDirtyRegion().clear();
+			}
+			return simulation.getVehicles().get(0).getX();
+		}
+	}
+
+	/**
+	 * Class that benchmarks saving a game with one long train, half of it loaded, to a snapshot, or opening it again
+	 */
+	static class SnapshotCase implements Case
+	{
+		private boolean open;			// true to open the snapshot, false to save it
+		private Simulation simulation;	// the game that is saved
+		private File file;				// the snapshot
+
+		SnapshotCase(boolean open)
+		{
+			this.open = open;
+		}
+
+		public void setUp(int n)
+		{
+			simulation = new Simulation();
+			for(int i = 0; i < 7; i++)
+			{
+				simulation.press(i * 100, 700);
+			}
+			TrainEngine engine = buildTrain(simulation.getStore(), n);
+			engine.setLocation(0, 100);
+			for(Vehicle v = engine; v != null; v = v.getTrailer())
+			{
+				simulation.addVehicle(v);
+			}
+			for(int i = 0; i < n / 2; i++)
+			{
+				Block block = new Block(0, 0, "A");
+				engine.load(block);
+				simulation.getLoadedBlocks().add(block);
+			}
+			try
+			{
+				file = File.createTempFile("benchmark", ".dss");
+				file.deleteOnExit();
+				SceneSnapshot.save(simulation, file.toPath());
+			}
+			catch(IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+
+		public long run(int ops)
+		{
+			long result = 0;
+			try
+			{
+				for(int i = 0; i < ops; i++)
+				{
+					if(open)
+					{
+						result += SceneSnapshot.load(file.toPath()).getVehicles().size();
+					}
+					else
+					{
+						SceneSnapshot.save(simulation, file.toPath());
+					}
+				}
+			}
+			catch(IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Class that benchmarks drawing the vehicles of a long train, half of them loaded, and a tall block stack
+	 * from their shapes, straight onto an image, without the panel's own drawing around them
+	 */
+	static class DrawCase implements Case
+	{
+		private TrainEngine engine;		// the train that is drawn
+		private BlockStack blocks;		// the stack that is drawn
+		private Graphics2D g2;			// the graphics context of the image that is drawn on
+
+		public void setUp(int n)
+		{
+			engine = buildTrain(n);
+			engine.setLocation(0, 100);
+			int i = 0;
+			for(Vehicle v = engine.getTrailer(); v != null; v = v.getTrailer())
+			{
+				if(i++ % 2 == 0)
+				{
+					v.load(new Block(0, 0, "" + (char) ('A' + i % 26)));
+				}
+			}
+			blocks = new BlockStack(GameFrame.FRAME_WIDTH - 100, GameFrame.FRAME_HEIGHT - 50);
+			for(i = 0; i < n; i++)
+			{
+				blocks.push(new Block(blocks.getX(), blocks.getNextY(), "" + (char) ('A' + i % 26)));
+			}
+			BufferedImage image = new BufferedImage(GameFrame.FRAME_WIDTH, GameFrame.FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+			g2 = image.createGraphics();
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				engine.draw(g2);
+				for(int j = 0; j < blocks.size(); j++)
+				{
+					blocks.get(j).draw(g2);
+				}
+			}
+			return engine.getX();
+		}
+	}
+
+	/**
+	 * Class that benchmarks drawing a whole frame of the panel with one long train, or with one tall block stack;
+	 * the panel's own drawing allocates a little for each frame, however many vehicles and blocks there are
+	 */
+	static class PaintCase implements Case
+	{
+		private boolean useSprites;		// true to copy pre-drawn images, false to draw shapes
+		private boolean tallStack;		// true to pile the blocks on the stack, false to add the vehicles to a train
+		private GamePanel panel;		// the panel that is drawn
+		private BufferedImage image;	// the image that the panel is drawn on
+		private Graphics2D g2;			// the graphics context of the image
+
+		PaintCase(boolean useSprites, boolean tallStack)
+		{
+			this.useSprites = useSprites;
+			this.tallStack = tallStack;
+		}
+
+		public void setUp(int n)
+		{
+			panel = new GamePanel();
+			panel.setUseSprites(useSprites);
+			Simulation simulation = panel.getSimulation();
+			for(int i = 0; i < 7; i++)
+			{
+				simulation.press(i * 100, 700);
+			}
+			if(tallStack)
+			{
+				BlockStack blocks = simulation.getBlocks();
+				for(int i = blocks.size(); i < n; i++)
+				{
+					blocks.push(new Block(blocks.getX(), blocks.getNextY(), "A"));
+				}
+			}
+			else
+			{
+				TrainEngine engine = buildTrain(simulation.getStore(), n);
+				engine.setLocation(0, 100);
+				for(Vehicle v = engine; v != null; v = v.getTrailer())
+				{
+					simulation.addVehicle(v);
+				}
+				simulation.press(10, 110);
+				simulation.pop();
+			}
+			image = new BufferedImage(GameFrame.FRAME_WIDTH, GameFrame.FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+			g2 = image.createGraphics();
+			panel.setSize(GameFrame.FRAME_WIDTH, GameFrame.FRAME_HEIGHT);
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				panel.paintComponent(g2);
+			}
+			return image.getRGB(5, 105);
+		}
+	}
+
+	/**
+	 * Class that benchmarks drawing a whole frame of the panel over a yard of short trains laid out in rows, 
+	 * with the view zoomed in to show a few of them or out to show thousands
+	 */
+	static class YardPaintCase implements Case
+	{
+		private static final int TRAIN_CARS = 19;	// the number of rail cars that each train engine pulls
+		private static final int SPACING = 60;		// the distance between the tops of two rows of trains
+
+		private double zoom;			// the zoom of the panel's view
+		private GamePanel panel;		// the panel that is drawn
+		private BufferedImage image;	// the image that the panel is drawn on
+		private Graphics2D g2;			// the graphics context of the image
+
+		YardPaintCase(double zoom)
+		{
+			this.zoom = zoom;
+		}
+
+		public void setUp(int n)
+		{
+			panel = new GamePanel();
+			Simulation simulation = panel.getSimulation();
+			int trains = Math.max(1, n / (TRAIN_CARS + 1));
+			int length = TrainEngine.TOTAL_WIDTH + TRAIN_CARS * RailCar.TOTAL_WIDTH + SPACING;
+			// the rows are as wide as the yard is deep
+			int columns = Math.max(1, (int) Math.sqrt((double) trains * SPACING / length));
+			for(int i = 0; i < trains; i++)
+			{
+				TrainEngine engine = buildTrain(simulation.getStore(), TRAIN_CARS);
+				engine.setLocation((i % columns) * length, (i / columns) * SPACING);
+				for(Vehicle v = engine; v != null; v = v.getTrailer())
+				{
+					simulation.addVehicle(v);
+				}
+			}
+			image = new BufferedImage(GameFrame.FRAME_WIDTH, GameFrame.FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+			g2 = image.createGraphics();
+			panel.setSize(GameFrame.FRAME_WIDTH, GameFrame.FRAME_HEIGHT);
+			panel.zoomAbout(0, 0, zoom);
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				panel.paintComponent(g2);
+			}
+			return image.getRGB(5, 5);
+		}
+	}
+
+	/**
+	 * Class that benchmarks one tick of the trains' animation on a pool of a given number of threads, over a yard of
+	 * up to 10000 trains whose lengths are uneven, with every 16th train 16 times as long as the others
+	 */
+	static class AnimateCase implements Case
+	{
+		private static final int MAX_TRAINS = 10000;	// the most train engines in the yard
+		private static final int SPACING = 60;			// the distance between the tops of two trains
+
+		private int threads;				// the number of threads that drive the trains
+		private Simulation simulation;		// the simulation whose trains are driven
+
+		AnimateCase(int threads)
+		{
+			this.threads = threads;
+		}
+
+		public void setUp(int n)
+		{
+			simulation = new Simulation(1);
+			int trains = Math.max(1, Math.min(MAX_TRAINS, n / 2));
+			long weights = trains + 15L * ((trains + 15) / 16);
+			long cars = Math.max(0, n - trains);
+			long given = 0;
+			long weightSoFar = 0;
+			for(int i = 0; i < trains; i++)
+			{
+				weightSoFar += i % 16 == 0 ? 16 : 1;
+				int length = (int) (cars * weightSoFar / weights - given);
+				given += length;
+				TrainEngine engine = buildTrain(simulation.getStore(), length);
+				engine.setLocation(0, i * SPACING);
+				for(Vehicle v = engine; v != null; v = v.getTrailer())
+				{
+					simulation.addVehicle(v);
+				}
+			}
+			simulation.setAnimator(new TrainAnimator(new ForkJoinPool(threads)));
+			simulation.tick();
+		}
+
+		public long run(int ops)
+		{
+			for(int i = 0; i < ops; i++)
+			{
+				simulation.tick();
+			}
+			return simulation.getStore().getX(0);
+		}
+	}
+}
@@ -0,0 +1,240 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+
+/**
+ * Class that builds a train of 1,000,000 rail cars one car at a time and runs every operation that walks the chain
+ * over it, on a thread with a small stack, so that any operation that recursed once per trailer would overflow it.
+ * The results of the operations are checked against the chain, and it exits with a status of 1 if any check fails
+ *
+ * Usage: java -Xmx2g -cp bin StressTest [-cars n]
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class StressTest implements Runnable
+{
+	private static final long STACK_SIZE = 256 * 1024;	// the bytes of stack that the test runs with, far less than a recursion needs
+
+	private int cars;					// the number of rail cars in the train
+	private int failures;				// the number of checks that have failed
+	private Throwable error;			// the error that stopped the test, or null
+
+	/**
+	 * Constructs a StressTest object for a train of a number of rail cars
+	 * @param cars the integer number of rail cars
+	 */
+	public StressTest(int cars)
+	{
+		this.cars = cars;
+	}
+
+	/**
+	 * Runs the test on a thread with a small stack and prints the number of checks that failed
+	 * @param args the command line options
+	 * @throws InterruptedException if the test is interrupted while it runs
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		int cars = 1000000;
+		for(int i = 0; i + 1 < args.length; i += 2)
+		{
+			if(args[i].equals("-cars"))
+			{
+				cars = Integer.parseInt(args[i + 1]);
+			}
+		}
+		System.setProperty("java.awt.headless", "true");
+		StressTest test = new StressTest(cars);
+		Thread thread = new Thread(null, test, "stress", STACK_SIZE);
+		thread.start();
+		thread.join();
+		if(test.error != null)
+		{
+			test.error.printStackTrace();
+			test.failures++;
+		}
+		System.out.println(test.failures == 0 ? "StressTest passed with " + cars + " rail cars" :
+												"StressTest failed " + test.failures + " checks");
+		if(test.failures > 0)
+		{
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Builds the train and runs the operations over it, remembering an error that stops them
+	 */
+	public void run()
+	{
+		try
+		{
+			stress();
+		}
+		catch(Throwable e)
+		{
+			error = e;
+		}
+	}
+
+	/**
+	 * A method that builds the train with addLast, then moves, selects, loads, draws, shortens and splits it,
+	 * removes a rail car from its middle and inserts it behind the train engine, checking the chain after each step
+	 */
+	private void stress()
+	{
+		long start = System.nanoTime();
+		VehicleStore store = new VehicleStore(cars + 2);
+		TrainEngine engine = new TrainEngine(store, 0, 0);
+		for(int i = 1; i <= cars; i++)
+		{
+			engine.addLast(new RailCar(store, 0, 0, i));
+		}
+		Train train = engine.getTrain();
+		check(train.getLength() == cars + 1, "the train has every rail car");
+		check(engine.findLast(engine) == store.getView(cars), "the last rail car is found");
+		checkChain(engine, cars + 1);
+		time("build", start);
+
+		start = System.nanoTime();
+		engine.setLocation(500, 300);
+		checkChain(engine, cars + 1);
+		time("move", start);
+
+		start = System.nanoTime();
+		engine.select();
+		check(countSelected(store) == cars + 1, "selecting the train engine selects every rail car");
+		engine.deselect();
+		check(countSelected(store) == 0, "deselecting the train engine deselects every rail car");
+		time("select+deselect", start);
+
+		// every rail car but the last is loaded, so the only empty one is at the far end
+		start = System.nanoTime();
+		Vehicle v = engine.getTrailer();
+		for(int i = 1; i < cars; i++)
+		{
+			v.load(new Block(0, 0, "" + (char) ('A' + i % 26)));
+			v = v.getTrailer();
+		}
+		check(train.getLoadedCount() == cars - 1, "every rail car but the last is loaded");
+		// from the second rail car, the empty one is found by walking the whole train
+		Vehicle second = engine.getTrailer().getTrailer();
+		check(second.hasEmptyTrailer(), "the last rail car is found empty");
+		Block block = new Block(0, 0, "Z");
+		second.load(block);
+		Vehicle last = store.getView(cars);
+		check(last.getLoad() == block && !second.hasEmptyTrailer(), "the block is loaded on the last rail car");
+		last.unload(block);
+		check(!last.isLoaded() && second.hasEmptyTrailer(), "the block is unloaded from the last rail car");
+		check(engine.getLoad() != null && engine.getLoad() == engine.getTrailer().getLoad(),
+				"the first rail car's block is found from the train engine");
+		time("load+unload", start);
+
+		start = System.nanoTime();
+		BufferedImage image = new BufferedImage(GameFrame.FRAME_WIDTH, GameFrame.FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2 = image.createGraphics();
+		engine.draw(g2);
+		g2.dispose();
+		time("draw", start);
+
+		start = System.nanoTime();
+		engine.removeLast();
+		engine.removeFirst();
+		check(train.getLength() == cars - 1, "removing the first and last rail cars shortens the train by two");
+		check(train.getTail() == store.getView(cars - 1) && engine.getTrailer() == store.getView(2),
+				"the ends of the train move in");
+		checkChain(engine, cars - 1);
+		time("removeLast+removeFirst", start);
+
+		start = System.nanoTime();
+		Vehicle middle = store.getView(cars / 2);
+		middle.split();
+		check(train.getLength() + middle.getTrain().getLength() == cars - 1, "splitting the train keeps every rail car");
+		checkChain(engine, cars / 2 - 1);
+		checkChain(middle, cars / 2);
+		engine.addLast(middle);
+		check(train.getLength() == cars - 1, "attaching the split rail cars again restores the train");
+		checkChain(engine, cars - 1);
+		time("split+addLast", start);
+
+		start = System.nanoTime();
+		Vehicle quarter = store.getView(cars / 4);
+		quarter.removeFromTrain();
+		check(!quarter.isTrailer() && train.getLength() == cars - 2, "removing a rail car from the middle shortens the train");
+		checkChain(engine, cars - 2);
+		time("removeFromTrain", start);
+
+		start = System.nanoTime();
+		engine.addFirst(quarter);
+		check(engine.getTrailer() == quarter && train.getLength() == cars - 1, "inserting the rail car behind the train engine lengthens the train");
+		checkChain(engine, cars - 1);
+		time("addFirst", start);
+	}
+
+	/**
+	 * A method that checks that the chain's links point both ways, that each trailer is placed behind its puller and
+	 * belongs to the same chain, and that the chain has the expected length
+	 * @param head the Vehicle at the front of the chain
+	 * @param expected the integer number of vehicles that the chain should have
+	 */
+	private void checkChain(Vehicle head, int expected)
+	{
+		int length = 1;
+		Vehicle v = head;
+		while(v.hasTrailer())
+		{
+			Vehicle trailer = v.getTrailer();
+			if(trailer.getPuller() != v || trailer.getTrain() != head.getTrain() ||
+				trailer.getX() != v.getTrailerX() || trailer.getY() != v.getTrailerY())
+			{
+				check(false, "rail car " + length + " is linked and placed behind the vehicle in front of it");
+				return;
+			}
+			v = trailer;
+			length++;
+		}
+		check(length == expected && length == head.getTrain().getLength() && v == head.getTrain().getTail(),
+				"the chain of " + expected + " vehicles ends at its tail");
+	}
+
+	/**
+	 * A method that counts the selected vehicles of a store
+	 * @param store the VehicleStore of the vehicles
+	 * @return the integer number of selected vehicles
+	 */
+	private int countSelected(VehicleStore store)
+	{
+		int count = 0;
+		for(int id = 0; id < store.size(); id++)
+		{
+			if(store.hasFlag(id, VehicleStore.SELECTED))
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * A method that prints how long a step took
+	 * @param step the String name of the step
+	 * @param start the time that the step started, in nanoseconds from System.nanoTime
+	 */
+	private void time(String step, long start)
+	{
+		System.out.println(String.format(Locale.ROOT, "%-24s %10.1f ms", step, (System.nanoTime() - start) / 1e6));
+	}
+
+	/**
+	 * A method that counts and prints a failed check
+	 * @param passed true if the check passed, false otherwise
+	 * @param name the String name of the check
+	 */
+	private void check(boolean passed, String name)
+	{
+		if(!passed)
+		{
+			failures++;
+			System.out.println("FAILED " + name);
+		}
+	}
+}
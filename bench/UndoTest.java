@@ -0,0 +1,310 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Class that checks that undoing and redoing the changes to the trains leaves exactly the recorded link selected,
+ * and every trailer in its puller's chain and placed behind it:
+ * first after a vehicle is pressed between a change and its undo, then over random presses, drags, changes, undos and redos,
+ * after which undoing every change must put every vehicle back where it started, and redoing them where it ended.
+ * It exits with a status of 1 if any check fails
+ *
+ * Usage: java -cp bin UndoTest [-seeds n] [-steps n]
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class UndoTest
+{
+	private static int failures;		// the number of checks that have failed
+
+	/**
+	 * Runs the checks and prints the number that failed
+	 * @param args the command line options
+	 */
+	public static void main(String[] args)
+	{
+		int seeds = 200;
+		int steps = 300;
+		for(int i = 0; i + 1 < args.length; i += 2)
+		{
+			if(args[i].equals("-seeds"))
+			{
+				seeds = Integer.parseInt(args[i + 1]);
+			}
+			else if(args[i].equals("-steps"))
+			{
+				steps = Integer.parseInt(args[i + 1]);
+			}
+		}
+		System.setProperty("java.awt.headless", "true");
+		undoAfterPress();
+		for(long seed = 1; seed <= seeds; seed++)
+		{
+			randomEdits(seed, steps);
+		}
+		System.out.println(failures == 0 ? "UndoTest passed" : "UndoTest failed " + failures + " checks");
+		if(failures > 0)
+		{
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * A method that selects a rail car, attaches it to the train, presses the train engine and undoes the attach,
+	 * which must leave only the rail car selected, and then presses the train engine again
+	 */
+	private static void undoAfterPress()
+	{
+		Simulation simulation = buildScene(1);
+		Vehicle engine = simulation.getVehicles().get(0);
+		Vehicle car = simulation.getVehicles().get(1);
+		press(simulation, car);
+		simulation.addLast();
+		press(simulation, engine);
+		simulation.undo();
+		check(simulation, "undo after a press");
+		check(simulation.getSelectedVehicle() == car, "undo after a press selects the rail car");
+		check(!engine.isSelected(), "undo after a press deselects the train engine");
+		press(simulation, engine);
+		check(simulation, "press after an undo");
+		check(!car.isSelected(), "press after an undo deselects the rail car");
+		simulation.redo();
+		check(simulation, "redo after a press");
+		checkChains(simulation, "redo after a press");
+	}
+
+	/**
+	 * A method that makes random presses, changes, undos and redos, checking the selection after each one
+	 * @param seed the long seed of the scene and of the edits
+	 * @param steps the integer number of edits
+	 */
+	private static void randomEdits(long seed, int steps)
+	{
+		Simulation simulation = buildScene(seed);
+		Random random = new Random(seed);
+		for(int i = 0; i < steps; i++)
+		{
+			int edit = random.nextInt(13);
+			if(edit < 3)
+			{
+				press(simulation, simulation.getVehicles().get(random.nextInt(simulation.getVehicles().size())));
+			}
+			else if(edit == 3)
+			{
+				simulation.addLast();
+			}
+			else if(edit == 4)
+			{
+				simulation.addFirst();
+			}
+			else if(edit == 5)
+			{
+				simulation.removeSelected();
+			}
+			else if(edit == 6)
+			{
+				simulation.removeLast();
+			}
+			else if(edit == 7)
+			{
+				simulation.split();
+			}
+			else if(edit == 8)
+			{
+				simulation.pop();
+			}
+			else if(edit == 9)
+			{
+				simulation.push();
+			}
+			else if(edit == 10)
+			{
+				simulation.undo();
+			}
+			else if(edit == 11)
+			{
+				simulation.redo();
+			}
+			else
+			{
+				drag(simulation, simulation.getVehicles().get(random.nextInt(simulation.getVehicles().size())),
+						random.nextInt(GameFrame.FRAME_WIDTH), random.nextInt(GameFrame.FRAME_HEIGHT));
+			}
+			check(simulation, "seed " + seed + " step " + i + " edit " + edit);
+			if(i % 5 == 4)
+			{
+				checkChains(simulation, "seed " + seed + " step " + i + " edit " + edit);
+			}
+		}
+		// the changes that are undone at the end are redone first, so that redoing every change must end in the same place
+		while(simulation.getHistory().canRedo())
+		{
+			simulation.redo();
+		}
+		int[] end = locations(simulation);
+		while(simulation.getHistory().canUndo())
+		{
+			simulation.undo();
+		}
+		checkLocations(simulation, buildScene(seed), "seed " + seed + " undo all");
+		while(simulation.getHistory().canRedo())
+		{
+			simulation.redo();
+		}
+		checkChains(simulation, "seed " + seed + " redo all");
+		check(Arrays.equals(locations(simulation), end), "seed " + seed + " redo all puts every vehicle back where it ended");
+	}
+
+	/**
+	 * A method that builds a scene of a train engine, five rail cars and a stack of blocks, with more rail cars
+	 * @param seed the long seed of the scene
+	 * @return the Simulation of the scene
+	 */
+	private static Simulation buildScene(long seed)
+	{
+		Simulation simulation = new Simulation(seed);
+		for(int i = 0; i < 7; i++)
+		{
+			simulation.press(100 + i * 120, 100);
+		}
+		for(int i = 0; i < 6; i++)
+		{
+			simulation.addRailCar(100 + i * 120, 300);
+		}
+		BlockStack stack = simulation.getBlocks();
+		for(int i = 0; i < 8; i++)
+		{
+			Block block = new Block(stack.getX(), stack.getNextY(), "" + (char)('A' + i));
+			block.setDirtyRegion(simulation.getDirtyRegion());
+			stack.push(block);
+		}
+		return simulation;
+	}
+
+	/**
+	 * A method that presses and releases the middle of a vehicle
+	 * @param simulation the Simulation of the scene
+	 * @param v the Vehicle to be pressed
+	 */
+	private static void press(Simulation simulation, Vehicle v)
+	{
+		int x = v.getX() + v.getWidth() / 2;
+		int y = v.getY() + v.getHeight() / 2;
+		simulation.press(x, y);
+		simulation.release(x, y);
+	}
+
+	/**
+	 * A method that presses a vehicle and drags it by its middle to a location, dropping it there
+	 * @param simulation the Simulation of the scene
+	 * @param v the Vehicle to be pressed
+	 * @param x the integer x coordinate to drop the vehicle's middle at
+	 * @param y the integer y coordinate to drop the vehicle's middle at
+	 */
+	private static void drag(Simulation simulation, Vehicle v, int x, int y)
+	{
+		int dx = v.getWidth() / 2;
+		int dy = v.getHeight() / 2;
+		simulation.press(v.getX() + dx, v.getY() + dy);
+		simulation.drag((v.getX() + x - dx) / 2, (v.getY() + y - dy) / 2);
+		simulation.drag(x - dx, y - dy);
+		simulation.release(x, y);
+	}
+
+	/**
+	 * A method that returns the location of every vehicle and the id of every vehicle's puller, three ints per vehicle
+	 * @param simulation the Simulation of the scene
+	 * @return the int array of the x and y coordinates and the puller's id of each vehicle in turn
+	 */
+	private static int[] locations(Simulation simulation)
+	{
+		VehicleStore store = simulation.getStore();
+		int[] locations = new int[3 * store.size()];
+		for(int id = 0; id < store.size(); id++)
+		{
+			Vehicle v = store.getView(id);
+			locations[3 * id] = v.getX();
+			locations[3 * id + 1] = v.getY();
+			locations[3 * id + 2] = store.getPuller(id);
+		}
+		return locations;
+	}
+
+	/**
+	 * A method that checks that the vehicles of a scene are where the vehicles of another scene are, and linked the same way
+	 * @param simulation the Simulation of the scene to be checked
+	 * @param expected the Simulation of the scene that it should match
+	 * @param name the String name of the check
+	 */
+	private static void checkLocations(Simulation simulation, Simulation expected, String name)
+	{
+		int[] locations = locations(simulation);
+		int[] expectedLocations = locations(expected);
+		for(int i = 0; i < locations.length; i++)
+		{
+			if(locations[i] != expectedLocations[i])
+			{
+				check(false, name + ": vehicle " + i / 3 + " is not where it started");
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A method that checks that each trailer belongs to its puller's chain and is placed behind it; reading the positions
+	 * places any trailers that were left to be placed, so it is not done after every edit
+	 * @param simulation the Simulation of the scene
+	 * @param name the String name of the check
+	 */
+	private static void checkChains(Simulation simulation, String name)
+	{
+		VehicleStore store = simulation.getStore();
+		for(int id = 0; id < store.size(); id++)
+		{
+			Vehicle v = store.getView(id);
+			Vehicle puller = v.getPuller();
+			if(puller != null && (v.getTrain() != puller.getTrain() || 
+				v.getX() != puller.getTrailerX() || v.getY() != puller.getTrailerY()))
+			{
+				check(false, name + ": vehicle " + id + " is not in its puller's chain behind it");
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A method that checks that the selected vehicles are exactly the selected vehicle and its trailers
+	 * @param simulation the Simulation of the scene
+	 * @param name the String name of the check
+	 */
+	private static void check(Simulation simulation, String name)
+	{
+		VehicleStore store = simulation.getStore();
+		boolean[] link = new boolean[store.size()];
+		for(Vehicle v = simulation.getSelectedVehicle(); v != null; v = v.getTrailer())
+		{
+			link[v.getId()] = true;
+		}
+		for(int id = 0; id < store.size(); id++)
+		{
+			if(store.getView(id).isSelected() != link[id])
+			{
+				check(false, name + ": vehicle " + id + (link[id] ? " is not selected" : " is selected outside the selected link"));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A method that counts and prints a failed check
+	 * @param passed true if the check passed, false otherwise
+	 * @param name the String name of the check
+	 */
+	private static void check(boolean passed, String name)
+	{
+		if(!passed)
+		{
+			failures++;
+			System.out.println("FAILED " + name);
+		}
+	}
+}
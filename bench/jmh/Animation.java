@@ -0,0 +1,46 @@
+package jmh;
+
+import java.util.function.IntToLongFunction;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Class that holds a yard of trains of uneven length for JMH, animated on a pool of a given number of threads
+ *
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+@State(Scope.Thread)
+public class Animation
+{
+	@Param({"10", "1000", "100000", "1000000"})
+	public int size;						// the number of vehicles in the yard
+
+	@Param({"1", "2", "4"})
+	public int threads;						// the number of threads that drive the trains
+
+	private IntToLongFunction operation;	// the tick that is measured, once per call
+
+	/**
+	 * A method that builds the yard and its pool of threads
+	 * @throws ReflectiveOperationException if the game's benchmarks can not be found
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws ReflectiveOperationException
+	{
+		operation = Scene.prepare("animate (" + threads + (threads == 1 ? " thread)" : " threads)"), size);
+	}
+
+	/**
+	 * A method that runs one tick of the animation
+	 * @return a long result of the tick, which JMH consumes so that the JIT can not drop the work
+	 */
+	public long run()
+	{
+		return operation.applyAsLong(1);
+	}
+}
@@ -0,0 +1,114 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class that benchmarks drawing trains, stacks and yards of 10 to 1,000,000 vehicles or blocks.
+ * Each is measured in a JVM of its own, after the JVM has warmed up, with its result consumed by JMH
+ *
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DrawBenchmark
+{
+	/**
+	 * A method that measures drawing a long train and a tall stack from their shapes, without the panel around them
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long drawVehiclesBlocks(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures drawing a frame of the panel with one long train
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long paint(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures drawing a frame of the panel with one long train from pre-drawn images
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long paintSprites(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures drawing a frame of the panel with one tall stack
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long paintStack(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures drawing a frame of the panel with one tall stack from pre-drawn images
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long paintStackSprites(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures drawing a frame of a yard of short trains at its actual size
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long paintYard(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures drawing a frame of a yard of short trains zoomed out to a quarter of its size
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long paintYardZoomedOut(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures drawing a frame of a yard of short trains zoomed out to a sixteenth of its size
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long paintYardFarOut(Scene scene)
+	{
+		return scene.run();
+	}
+}
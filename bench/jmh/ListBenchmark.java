@@ -0,0 +1,136 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class that benchmarks the linked list and stack operations on trains and stacks of 10 to 1,000,000 vehicles or blocks.
+ * Each is measured in a JVM of its own, after the JVM has warmed up, with its result consumed by JMH
+ *
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ListBenchmark
+{
+	/**
+	 * A method that measures attaching a rail car to the end of a train and removing it again
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long addLastRemoveLast(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures attaching a rail car behind the train engine and removing it again
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long addFirstRemoveFirst(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures splitting a train at its middle rail car and attaching the split rail cars again
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long splitAddLastMiddle(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures removing the middle rail car of a train and putting it back
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long removeAddFirstMiddle(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures loading a block on the first rail car of a full train, which loads the last one, and unloading it
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long loadUnload(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures finding the first block of a train
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long getLoad(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures finding the only empty rail car of a train, at its far end
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long hasEmptyTrailer(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures pushing a block onto a tall stack and popping it off again
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long stackPushPop(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures popping a block onto a long train and pushing the first loaded block back
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long popPush(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures loading a block on every rail car of a long train and unloading them all again
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long loadAllUnloadAll(Scene scene)
+	{
+		return scene.run();
+	}
+}
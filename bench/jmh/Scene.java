@@ -0,0 +1,107 @@
+package jmh;
+
+import java.util.function.IntToLongFunction;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Class that holds the scene of one of the game's benchmarks for JMH, with 10 to 1,000,000 vehicles or blocks.
+ * The scene and its operation are built by Benchmark.prepare, the same as for the small harness in bench, 
+ * and are looked up by the name of the benchmark method that is run, since the game's classes are in the default package
+ * and can not be named from this one
+ *
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+@State(Scope.Thread)
+public class Scene
+{
+	// the name of each benchmark method, and the name of the operation that Benchmark.prepare builds for it
+	private static final String[][] NAMES = {
+		{"addLastRemoveLast", "addLast+removeLast"},
+		{"addFirstRemoveFirst", "addFirst+removeFirst"},
+		{"splitAddLastMiddle", "split+addLast (middle)"},
+		{"removeAddFirstMiddle", "remove+addFirst (middle)"},
+		{"loadUnload", "load+unload"},
+		{"getLoad", "getLoad"},
+		{"hasEmptyTrailer", "hasEmptyTrailer"},
+		{"stackPushPop", "stack push+pop"},
+		{"popPush", "pop+push"},
+		{"loadAllUnloadAll", "load all+unload all"},
+		{"pick", "pick"},
+		{"pickBruteForce", "pick (brute force)"},
+		{"coupling", "coupling"},
+		{"couplingBruteForce", "coupling (brute force)"},
+		{"drag", "drag"},
+		{"snapshotSave", "snapshot save"},
+		{"snapshotOpen", "snapshot open"},
+		{"drawVehiclesBlocks", "draw vehicles+blocks"},
+		{"paint", "paint"},
+		{"paintSprites", "paint (sprites)"},
+		{"paintStack", "paint stack"},
+		{"paintStackSprites", "paint stack (sprites)"},
+		{"paintYard", "paint yard"},
+		{"paintYardZoomedOut", "paint yard (zoomed out)"},
+		{"paintYardFarOut", "paint yard (far out)"}
+	};
+
+	@Param({"10", "1000", "100000", "1000000"})
+	public int size;						// the number of vehicles or blocks in the scene
+
+	private IntToLongFunction operation;	// the operation that is measured, once per call
+
+	/**
+	 * A method that builds the scene for the benchmark method that is about to be run
+	 * @param params the BenchmarkParams that name the benchmark method
+	 * @throws ReflectiveOperationException if the game's benchmarks can not be found
+	 */
+	@Setup(Level.Trial)
+	public void setUp(BenchmarkParams params) throws ReflectiveOperationException
+	{
+		operation = prepare(name(params), size);
+	}
+
+	/**
+	 * A method that runs the operation once
+	 * @return a long result of the operation, which JMH consumes so that the JIT can not drop the work
+	 */
+	public long run()
+	{
+		return operation.applyAsLong(1);
+	}
+
+	/**
+	 * A method that returns the name of the operation that Benchmark.prepare builds for the benchmark method being run
+	 * @param params the BenchmarkParams that name the benchmark method
+	 * @return the String name of the operation
+	 */
+	static String name(BenchmarkParams params)
+	{
+		String method = params.getBenchmark().substring(params.getBenchmark().lastIndexOf('.') + 1);
+		for(int i = 0; i < NAMES.length; i++)
+		{
+			if(NAMES[i][0].equals(method))
+			{
+				return NAMES[i][1];
+			}
+		}
+		throw new IllegalArgumentException("No operation is named for the benchmark " + method);
+	}
+
+	/**
+	 * A method that builds an operation and its scene with Benchmark.prepare
+	 * @param name the String name of the operation
+	 * @param size the integer size of the scene
+	 * @return the IntToLongFunction that runs the operation a number of times
+	 * @throws ReflectiveOperationException if the game's benchmarks can not be found
+	 */
+	static IntToLongFunction prepare(String name, int size) throws ReflectiveOperationException
+	{
+		return (IntToLongFunction) Class.forName("Benchmark").getMethod("prepare", String.class, int.class).invoke(null, name, size);
+	}
+}
@@ -0,0 +1,46 @@
+package jmh;
+
+import java.util.function.IntToLongFunction;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Class that holds the scene of one of the brute-force benchmarks for JMH, which scan every vehicle for each operation
+ * and so are only measured on scenes of up to 1000 vehicles
+ *
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+@State(Scope.Thread)
+public class SmallScene
+{
+	@Param({"10", "1000"})
+	public int size;						// the number of vehicles in the scene
+
+	private IntToLongFunction operation;	// the operation that is measured, once per call
+
+	/**
+	 * A method that builds the scene for the benchmark method that is about to be run
+	 * @param params the BenchmarkParams that name the benchmark method
+	 * @throws ReflectiveOperationException if the game's benchmarks can not be found
+	 */
+	@Setup(Level.Trial)
+	public void setUp(BenchmarkParams params) throws ReflectiveOperationException
+	{
+		operation = Scene.prepare(Scene.name(params), size);
+	}
+
+	/**
+	 * A method that runs the operation once
+	 * @return a long result of the operation, which JMH consumes so that the JIT can not drop the work
+	 */
+	public long run()
+	{
+		return operation.applyAsLong(1);
+	}
+}
@@ -0,0 +1,114 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class that benchmarks picking, coupling, dragging, animating, saving and opening yards of 10 to 1,000,000 vehicles.
+ * Each is measured in a JVM of its own, after the JVM has warmed up, with its result consumed by JMH
+ *
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class YardBenchmark
+{
+	/**
+	 * A method that measures pressing random points of a yard of single rail cars, with the spatial index
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long pick(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures pressing random points of a yard of single rail cars, scanning every vehicle
+	 * @param scene the SmallScene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long pickBruteForce(SmallScene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures releasing a selected rail car at random points of a yard, with the spatial index
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long coupling(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures releasing a selected rail car at random points of a yard, scanning every vehicle
+	 * @param scene the SmallScene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long couplingBruteForce(SmallScene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures dragging a train engine that pulls every rail car of the yard
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long drag(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures saving a yard with one long train, half of it loaded, to a snapshot
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long snapshotSave(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures opening the snapshot of a yard with one long train, half of it loaded
+	 * @param scene the Scene that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long snapshotOpen(Scene scene)
+	{
+		return scene.run();
+	}
+
+	/**
+	 * A method that measures one tick of the animation of a yard of trains of uneven length
+	 * @param scene the Animation that holds the operation
+	 * @return a long result of the operation
+	 */
+	@Benchmark
+	public long animate(Animation scene)
+	{
+		return scene.run();
+	}
+}
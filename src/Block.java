@@ -17,6 +17,8 @@ public class Block
 	private Vehicle carrier;						// the vehicle object that the block is loaded on
 	private Rectangle box;							// the box shape of the block
 	private String letter;							// the letter inside the block
+	private DirtyRegion dirtyRegion;				// the area of the game that needs to be redrawn when the block moves
+	private int registryIndex;						// the position of the block in the registry of loaded blocks, or -1
 	
     /**
      * Constructs a Block object with a letter on it
@@ -28,6 +30,7 @@ public class Block
 	{
 		box = new Rectangle(x, y, WIDTH, HEIGHT);
 		this.letter = letter;
+		registryIndex = -1;
 	}
 	
     /**
@@ -36,6 +39,11 @@ public class Block
      */
 	public int getX()
 	{
+		// a loaded block sits on its carrier, which may have moved along with its train without it being told
+		if(carrier != null)
+		{
+			return carrier.getX() + WIDTH/2;
+		}
 		return (int) box.getX();
 	}
 	
@@ -45,9 +53,40 @@ public class Block
      */
 	public int getY()
 	{
+		if(carrier != null)
+		{
+			return carrier.getY() - HEIGHT;
+		}
 		return (int) box.getY();
 	}
 	
+    /**
+     * A method that returns the position of the block in the registry of loaded blocks
+     * @return the integer position of the block, or -1 if it is not in a registry
+     */
+	public int getRegistryIndex()
+	{
+		return registryIndex;
+	}
+	
+    /**
+     * A method that sets the position of the block in the registry of loaded blocks
+     * @param registryIndex the integer position of the block, or -1 if it is not in a registry
+     */
+	public void setRegistryIndex(int registryIndex)
+	{
+		this.registryIndex = registryIndex;
+	}
+	
+    /**
+     * A method that returns the letter on the block
+     * @return the String representation of the letter on the block
+     */
+	public String getLetter()
+	{
+		return letter;
+	}
+	
     /**
      * A method that sets the location of the block to the specified x and y positions
      * @param x the integer value of the new x coordinate location of the block
@@ -55,7 +94,33 @@ public class Block
      */
 	public void setLocation(int x, int y)
 	{
+		if(box.x == x && box.y == y)
+		{
+			return;
+		}
+		markDirty();
 		box.setLocation(x, y);
+		markDirty();
+	}
+	
+    /**
+     * A method that adds the area where the block is drawn to the area that needs to be redrawn
+     */
+	public void markDirty()
+	{
+		if(dirtyRegion != null)
+		{
+			dirtyRegion.add(getX(), getY(), WIDTH, HEIGHT);
+		}
+	}
+	
+    /**
+     * A method that sets the area of the game that is marked for redrawing whenever the block moves
+     * @param dirtyRegion the DirtyRegion of the game, or null if the block is not drawn
+     */
+	public void setDirtyRegion(DirtyRegion dirtyRegion)
+	{
+		this.dirtyRegion = dirtyRegion;
 	}
 	
     /**
@@ -64,7 +129,33 @@ public class Block
      */
 	public void setCarrier(Vehicle vehicle)
 	{
+		// an unloaded block stays where it was on its carrier until it is placed somewhere else
+		if(carrier != null)
+		{
+			box.setLocation(getX(), getY());
+		}
 		carrier = vehicle;
+		if(carrier != null)
+		{
+			followCarrier();
+		}
+	}
+	
+    /**
+     * A method that returns the vehicle carrier of the block
+     * @return the Vehicle that the block is loaded on, or null
+     */
+	public Vehicle getCarrier()
+	{
+		return carrier;
+	}
+	
+    /**
+     * A method that moves the block on top of its carrier
+     */
+	public void followCarrier()
+	{
+		setLocation((int)(carrier.getX() + Block.WIDTH/2), (int)(carrier.getY() - Block.HEIGHT));
 	}
 	
     /**
@@ -73,13 +164,29 @@ public class Block
      */
 	public void draw(Graphics2D g2)
 	{
-		// if the block has a carrier, it will be drawn on top of its carrier, not the stack
-		if(carrier != null)
-		{
-			setLocation((int)(carrier.getX() + Block.WIDTH/2), (int)(carrier.getY() - Block.HEIGHT));
-		}
+		drawBlock(g2);
+	}
+	
+    /**
+     * Draws the block as a filled box without its letter, for a view too far out to read it
+     * @param g2 the graphics context
+     */
+	public void drawBox(Graphics2D g2)
+	{
+		g2.setColor(BOX_COLOR);
+		g2.fillRect(getX(), getY(), WIDTH, HEIGHT);
+		g2.setColor(LETTER_COLOR);
+	}
+	
+    /**
+     * Draws the block where it currently is, with its letter in the current color
+     * @param g2 the graphics context
+     */
+	public void drawBlock(Graphics2D g2)
+	{
 		int x1 = getX() ;
 		int y1 = getY() ; 
+		box.setLocation(x1, y1);
 		g2.drawString(letter, x1 + WIDTH/2, y1 + HEIGHT/2);
 		g2.setColor(BOX_COLOR);
 		g2.draw(box);
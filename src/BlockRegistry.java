@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/**
+ * Class that represents the set of blocks that are loaded on vehicles, kept in an array where each block
+ * remembers its own position, so that a block is added or removed in constant time however many are loaded.
+ * Removing a block moves the last block into its place, so the order of the blocks is not kept
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class BlockRegistry
+{
+	private static final int INITIAL_CAPACITY = 16;	// the number of blocks that an empty registry has room for
+
+	private Block[] blocks;		// the loaded blocks, in no particular order
+	private int size;			// the number of loaded blocks
+
+	/**
+	 * Constructs an empty BlockRegistry object
+	 */
+	public BlockRegistry()
+	{
+		blocks = new Block[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * A method that adds a block to the registry, unless it is already in it
+	 * @param block the Block to be added
+	 */
+	public void add(Block block)
+	{
+		if(contains(block))
+		{
+			return;
+		}
+		if(size == blocks.length)
+		{
+			blocks = Arrays.copyOf(blocks, 2 * size);
+		}
+		block.setRegistryIndex(size);
+		blocks[size++] = block;
+	}
+
+	/**
+	 * A method that removes a block from the registry
+	 * @param block the Block to be removed
+	 * @return true if the block was in the registry, false otherwise
+	 */
+	public boolean remove(Block block)
+	{
+		if(!contains(block))
+		{
+			return false;
+		}
+		// the last block fills the gap, so nothing has to be shifted
+		int i = block.getRegistryIndex();
+		Block last = blocks[--size];
+		blocks[i] = last;
+		last.setRegistryIndex(i);
+		blocks[size] = null;
+		block.setRegistryIndex(-1);
+		return true;
+	}
+
+	/**
+	 * A method that checks if a block is in the registry
+	 * @param block the Block to be checked
+	 * @return true if the block is in the registry, false otherwise
+	 */
+	public boolean contains(Block block)
+	{
+		int i = block.getRegistryIndex();
+		return i >= 0 && i < size && blocks[i] == block;
+	}
+
+	/**
+	 * A method that returns a block of the registry
+	 * @param i the position of the block
+	 * @return the Block at that position
+	 * @throws IndexOutOfBoundsException if there is no block at that position
+	 */
+	public Block get(int i)
+	{
+		if(i < 0 || i >= size)
+		{
+			throw new IndexOutOfBoundsException("Block " + i + " of a registry of " + size);
+		}
+		return blocks[i];
+	}
+
+	/**
+	 * A method that returns the number of loaded blocks
+	 * @return the integer number of blocks
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * A method that checks if no blocks are loaded
+	 * @return true if the registry is empty, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * A method that removes every block from the registry
+	 */
+	public void clear()
+	{
+		for(int i = 0; i < size; i++)
+		{
+			blocks[i].setRegistryIndex(-1);
+			blocks[i] = null;
+		}
+		size = 0;
+	}
+}
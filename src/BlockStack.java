@@ -0,0 +1,192 @@
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Class that represents a stack of blocks standing on a base, kept in a growing array without the locking 
+ * of java.util.Stack, so that pushing and popping a block takes constant time however tall the stack is
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class BlockStack
+{
+	private static final int INITIAL_CAPACITY = 16;	// the number of blocks that an empty stack has room for
+
+	private int x;				// the x position of the bottom block of the stack
+	private int y;				// the y position of the bottom block of the stack
+	private Rectangle base;		// the rectangular base that the stack stands on
+	private Block[] blocks;		// the blocks of the stack, from the bottom to the top
+	private int size;			// the number of blocks on the stack
+	private int version;		// counts the changes to the stack, so that a drawing of it can tell when it is out of date
+
+	/**
+	 * Constructs an empty BlockStack object whose bottom block goes at a location
+	 * @param x the integer value of the x position of the bottom block
+	 * @param y the integer value of the y position of the bottom block
+	 */
+	public BlockStack(int x, int y)
+	{
+		this.x = x;
+		this.y = y;
+		base = new Rectangle(x - Block.WIDTH, y + Block.HEIGHT, 3 * Block.WIDTH, Block.HEIGHT/2);
+		blocks = new Block[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * A method that returns the x position of the bottom block of the stack
+	 * @return the integer value of the x position of the stack
+	 */
+	public int getX()
+	{
+		return x;
+	}
+
+	/**
+	 * A method that returns the y position of the bottom block of the stack
+	 * @return the integer value of the y position of the stack
+	 */
+	public int getY()
+	{
+		return y;
+	}
+
+	/**
+	 * A method that returns the y position that the next block pushed onto the stack goes at
+	 * @return the integer value of the y position above the top block
+	 */
+	public int getNextY()
+	{
+		return y - size * Block.HEIGHT;
+	}
+
+	/**
+	 * A method that returns the position of the lowest block that can be seen above a y coordinate, since the blocks
+	 * are placed upward from the bottom one and those below it do not have to be looked at
+	 * @param bottom the integer value of the y coordinate of the bottom of the visible part of the game
+	 * @return the integer position of the first block to look at, which is 0 if the bottom block can be seen
+	 */
+	public int getFirstVisible(int bottom)
+	{
+		// one block less is skipped, for the outlines drawn on the blocks' edges
+		return Math.max(0, Math.floorDiv(y - bottom, Block.HEIGHT) - 1);
+	}
+
+	/**
+	 * A method that returns the rectangular base that the stack stands on
+	 * @return the Rectangle base of the stack
+	 */
+	public Rectangle getBase()
+	{
+		return base;
+	}
+
+	/**
+	 * A method that checks if a point is on the stack's base or on the column of blocks above it
+	 * @param px the integer value of the x coordinate of the point
+	 * @param py the integer value of the y coordinate of the point
+	 * @return true if the point is on the stack, false otherwise
+	 */
+	public boolean contains(int px, int py)
+	{
+		if(base.contains(px, py))
+		{
+			return true;
+		}
+		return px >= x && px < x + Block.WIDTH && py < y + Block.HEIGHT && py >= getNextY();
+	}
+
+	/**
+	 * A method that adds a block to the top of the stack
+	 * @param block the Block to be added
+	 */
+	public void push(Block block)
+	{
+		if(size == blocks.length)
+		{
+			blocks = Arrays.copyOf(blocks, 2 * size);
+		}
+		blocks[size++] = block;
+		version++;
+	}
+
+	/**
+	 * A method that removes the block from the top of the stack
+	 * @return the Block that was on top of the stack
+	 * @throws IllegalStateException if the stack is empty
+	 */
+	public Block pop()
+	{
+		if(size == 0)
+		{
+			throw new IllegalStateException("The block stack is empty");
+		}
+		Block block = blocks[--size];
+		blocks[size] = null;
+		version++;
+		return block;
+	}
+
+	/**
+	 * A method that returns the block on top of the stack without removing it
+	 * @return the Block on top of the stack, or null if the stack is empty
+	 */
+	public Block peek()
+	{
+		if(size == 0)
+		{
+			return null;
+		}
+		return blocks[size - 1];
+	}
+
+	/**
+	 * A method that returns a block of the stack, counting up from the bottom
+	 * @param i the position of the block, where 0 is the bottom of the stack
+	 * @return the Block at that position
+	 * @throws IndexOutOfBoundsException if there is no block at that position
+	 */
+	public Block get(int i)
+	{
+		if(i < 0 || i >= size)
+		{
+			throw new IndexOutOfBoundsException("Block " + i + " of a stack of " + size);
+		}
+		return blocks[i];
+	}
+
+	/**
+	 * A method that returns the number of blocks on the stack
+	 * @return the integer number of blocks
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * A method that checks if the stack has no blocks
+	 * @return true if the stack is empty, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * A method that removes every block from the stack
+	 */
+	public void clear()
+	{
+		Arrays.fill(blocks, 0, size, null);
+		size = 0;
+		version++;
+	}
+
+	/**
+	 * A method that returns the number of changes made to the stack
+	 * @return the integer version of the stack, which changes whenever a block is pushed or popped
+	 */
+	public int getVersion()
+	{
+		return version;
+	}
+}
@@ -0,0 +1,89 @@
+import java.awt.Rectangle;
+
+/**
+ * Class that represents the area of the game that has changed since it was last drawn,
+ * so that only that area needs to be redrawn
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class DirtyRegion
+{
+	public static final int PADDING = 2;	// the extra space around each changed area, for outlines drawn on its edges
+
+	private Rectangle bounds;				// the union of the areas that have changed, or null if nothing has
+	private boolean all;					// used to check if the whole game has to be redrawn
+
+	/**
+	 * A method that adds a changed area to the region
+	 * @param x the integer value of the upper left x coordinate of the area
+	 * @param y the integer value of the upper left y coordinate of the area
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 */
+	public void add(int x, int y, int width, int height)
+	{
+		if(bounds == null)
+		{
+			bounds = new Rectangle(x - PADDING, y - PADDING, width + 2 * PADDING, height + 2 * PADDING);
+		}
+		else
+		{
+			// the corners are added one at a time, so that growing the union does not create a rectangle each time
+			bounds.add(x - PADDING, y - PADDING);
+			bounds.add(x + width + PADDING, y + height + PADDING);
+		}
+	}
+
+	/**
+	 * A method that adds a changed area to the region
+	 * @param area the Rectangle area that has changed
+	 */
+	public void add(Rectangle area)
+	{
+		add(area.x, area.y, area.width, area.height);
+	}
+
+	/**
+	 * A method that marks the whole game as changed
+	 */
+	public void addAll()
+	{
+		all = true;
+	}
+
+	/**
+	 * A method that checks if nothing has changed
+	 * @return true if nothing has to be redrawn, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return bounds == null && !all;
+	}
+
+	/**
+	 * A method that checks if the whole game has to be redrawn
+	 * @return true if everything has changed, false otherwise
+	 */
+	public boolean isAll()
+	{
+		return all;
+	}
+
+	/**
+	 * A method that returns the union of the changed areas
+	 * @return the Rectangle that contains every changed area, or null if there is none
+	 */
+	public Rectangle getBounds()
+	{
+		return bounds;
+	}
+
+	/**
+	 * A method that empties the region once it has been redrawn
+	 */
+	public void clear()
+	{
+		bounds = null;
+		all = false;
+	}
+}
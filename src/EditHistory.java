@@ -0,0 +1,408 @@
+import java.util.Arrays;
+
+/**
+ * Class that represents the history of the changes made to the game's trains and stacks, so that they can be undone
+ * and redone. Each change is kept as the few ids and coordinates needed to reverse it, one array per property,
+ * rather than as a copy of the game, so that a long history takes little memory and each step is done right away
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class EditHistory
+{
+	public static final int ADD_LAST = 1;		// a link attached behind the last vehicle of a train, by the menu or by dropping it
+	public static final int ADD_FIRST = 2;		// a link inserted as the first trailer of a train
+	public static final int REMOVE = 3;			// a vehicle removed from the middle or an end of its chain
+	public static final int SPLIT = 4;			// a chain split in front of a vehicle
+	public static final int POP = 5;			// a block popped from a stack and loaded on a vehicle
+	public static final int PUSH = 6;			// a block unloaded from a vehicle and pushed on a stack
+	public static final int POP_MANY = 7;		// blocks popped from a stack and loaded on the vehicles of a link in order
+	public static final int PUSH_MANY = 8;		// blocks unloaded from the vehicles of a link in order and pushed on a stack
+	public static final int MOVE = 9;			// a link dragged to another place and dropped there without being attached
+	private static final int INITIAL_CAPACITY = 16;	// the number of changes that an empty history has room for
+
+	private int size;					// the number of changes kept, both done and undone
+	private int position;				// the number of changes that are done, the rest having been undone
+	private int[] types;				// the type of each change, such as ADD_LAST
+	private int[] vehicles;				// the id of the vehicle that each change moved, or that carried its block
+	private int[] others;				// the id of the vehicle that the moved vehicle was attached to or removed from
+	private int[] thirds;				// the id of the first trailer that an inserted link was put in front of, or NONE
+	private int[] xs;					// the x coordinate of the moved vehicle before an attach, or after a removal
+	private int[] ys;					// the y coordinate of the moved vehicle before an attach, or after a removal
+	private int[] toXs;					// the x coordinate that a dragged link was dropped at
+	private int[] toYs;					// the y coordinate that a dragged link was dropped at
+	private int[] selectedBefore;		// the id of the selected vehicle before each change, or NONE
+	private int[] selectedAfter;		// the id of the selected vehicle after each change, or NONE
+	private Block[] blocks;				// the block that each change moved, or null
+	private BlockStack[] stacks;		// the stack that each change popped from or pushed on, or null
+	private int[] carrierStarts;		// the position in carriers of the first vehicle that each change moved a block of
+	private int[] carrierEnds;			// the position in carriers after the last vehicle that each change moved a block of
+	private int[] carriers;				// the ids of the vehicles that the changes of many blocks loaded or unloaded, in order
+	private int carrierCount;			// the number of ids in carriers
+
+	/**
+	 * Constructs an empty EditHistory object
+	 */
+	public EditHistory()
+	{
+		types = new int[INITIAL_CAPACITY];
+		vehicles = new int[INITIAL_CAPACITY];
+		others = new int[INITIAL_CAPACITY];
+		thirds = new int[INITIAL_CAPACITY];
+		xs = new int[INITIAL_CAPACITY];
+		ys = new int[INITIAL_CAPACITY];
+		toXs = new int[INITIAL_CAPACITY];
+		toYs = new int[INITIAL_CAPACITY];
+		selectedBefore = new int[INITIAL_CAPACITY];
+		selectedAfter = new int[INITIAL_CAPACITY];
+		blocks = new Block[INITIAL_CAPACITY];
+		stacks = new BlockStack[INITIAL_CAPACITY];
+		carrierStarts = new int[INITIAL_CAPACITY];
+		carrierEnds = new int[INITIAL_CAPACITY];
+		carriers = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * A method that records a change to the links of a chain, throwing away the changes that were undone
+	 * @param type ADD_LAST, ADD_FIRST, REMOVE or SPLIT
+	 * @param vehicle the integer id of the vehicle that was moved
+	 * @param other the integer id of the vehicle that it was attached to or removed from
+	 * @param third the integer id of the first trailer that an inserted link was put in front of, or VehicleStore.NONE
+	 * @param x the x coordinate of the moved vehicle before an attach, or after a removal
+	 * @param y the y coordinate of the moved vehicle before an attach, or after a removal
+	 * @param before the integer id of the selected vehicle before the change, or VehicleStore.NONE
+	 * @param after the integer id of the selected vehicle after the change, or VehicleStore.NONE
+	 */
+	public void recordLink(int type, int vehicle, int other, int third, int x, int y, int before, int after)
+	{
+		int i = next();
+		types[i] = type;
+		vehicles[i] = vehicle;
+		others[i] = other;
+		thirds[i] = third;
+		xs[i] = x;
+		ys[i] = y;
+		selectedBefore[i] = before;
+		selectedAfter[i] = after;
+		blocks[i] = null;
+		stacks[i] = null;
+	}
+
+	/**
+	 * A method that records a link dragged from one place to another, throwing away the changes that were undone
+	 * @param vehicle the integer id of the vehicle at the front of the link
+	 * @param fromX the x coordinate of the vehicle before the drag
+	 * @param fromY the y coordinate of the vehicle before the drag
+	 * @param toX the x coordinate of the vehicle where it was dropped
+	 * @param toY the y coordinate of the vehicle where it was dropped
+	 * @param selected the integer id of the selected vehicle, or VehicleStore.NONE
+	 */
+	public void recordMove(int vehicle, int fromX, int fromY, int toX, int toY, int selected)
+	{
+		int i = next();
+		types[i] = MOVE;
+		vehicles[i] = vehicle;
+		others[i] = VehicleStore.NONE;
+		thirds[i] = VehicleStore.NONE;
+		xs[i] = fromX;
+		ys[i] = fromY;
+		toXs[i] = toX;
+		toYs[i] = toY;
+		selectedBefore[i] = selected;
+		selectedAfter[i] = selected;
+		blocks[i] = null;
+		stacks[i] = null;
+	}
+
+	/**
+	 * A method that records a block moved between a stack and a vehicle, throwing away the changes that were undone
+	 * @param type POP or PUSH
+	 * @param carrier the integer id of the vehicle that the block was loaded on or unloaded from
+	 * @param block the Block that was moved
+	 * @param stack the BlockStack that the block was popped from or pushed on
+	 * @param selected the integer id of the selected vehicle, or VehicleStore.NONE
+	 */
+	public void recordBlock(int type, int carrier, Block block, BlockStack stack, int selected)
+	{
+		int i = next();
+		types[i] = type;
+		vehicles[i] = carrier;
+		others[i] = VehicleStore.NONE;
+		thirds[i] = VehicleStore.NONE;
+		selectedBefore[i] = selected;
+		selectedAfter[i] = selected;
+		blocks[i] = block;
+		stacks[i] = stack;
+	}
+
+	/**
+	 * A method that records blocks moved between a stack and the vehicles of a link as one change, throwing away
+	 * the changes that were undone
+	 * @param type POP_MANY or PUSH_MANY
+	 * @param ids the integer ids of the vehicles that the blocks were loaded on or unloaded from, in the order they were moved
+	 * @param count the number of blocks moved, which is the number of ids used
+	 * @param stack the BlockStack that the blocks were popped from or pushed on
+	 * @param selected the integer id of the selected vehicle, or VehicleStore.NONE
+	 */
+	public void recordBlocks(int type, int[] ids, int count, BlockStack stack, int selected)
+	{
+		int i = next();
+		types[i] = type;
+		vehicles[i] = ids[0];
+		others[i] = VehicleStore.NONE;
+		thirds[i] = VehicleStore.NONE;
+		selectedBefore[i] = selected;
+		selectedAfter[i] = selected;
+		blocks[i] = null;
+		stacks[i] = stack;
+		if(carrierCount + count > carriers.length)
+		{
+			carriers = Arrays.copyOf(carriers, Math.max(2 * carriers.length, carrierCount + count));
+		}
+		System.arraycopy(ids, 0, carriers, carrierCount, count);
+		carrierCount += count;
+		carrierEnds[i] = carrierCount;
+	}
+
+	/**
+	 * A method that returns the position in the carriers of the first vehicle that a change loaded or unloaded
+	 * @param i the integer position of the change
+	 * @return the integer position of its first carrier
+	 */
+	public int getCarrierStart(int i)
+	{
+		return carrierStarts[i];
+	}
+
+	/**
+	 * A method that returns the position in the carriers after the last vehicle that a change loaded or unloaded
+	 * @param i the integer position of the change
+	 * @return the integer position after its last carrier
+	 */
+	public int getCarrierEnd(int i)
+	{
+		return carrierEnds[i];
+	}
+
+	/**
+	 * A method that returns the id of a vehicle that a change of many blocks loaded or unloaded
+	 * @param j the integer position of the carrier
+	 * @return the integer id of the vehicle
+	 */
+	public int getCarrier(int j)
+	{
+		return carriers[j];
+	}
+
+	/**
+	 * A method that makes room for a new change after the changes that are done, throwing away the ones that were undone
+	 * @return the integer position of the new change
+	 */
+	private int next()
+	{
+		// the blocks and stacks of the undone changes are let go, so that they are not kept alive by the history
+		Arrays.fill(blocks, position, size, null);
+		Arrays.fill(stacks, position, size, null);
+		size = position;
+		if(size == types.length)
+		{
+			int capacity = 2 * size;
+			types = Arrays.copyOf(types, capacity);
+			vehicles = Arrays.copyOf(vehicles, capacity);
+			others = Arrays.copyOf(others, capacity);
+			thirds = Arrays.copyOf(thirds, capacity);
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+			toXs = Arrays.copyOf(toXs, capacity);
+			toYs = Arrays.copyOf(toYs, capacity);
+			selectedBefore = Arrays.copyOf(selectedBefore, capacity);
+			selectedAfter = Arrays.copyOf(selectedAfter, capacity);
+			blocks = Arrays.copyOf(blocks, capacity);
+			stacks = Arrays.copyOf(stacks, capacity);
+			carrierStarts = Arrays.copyOf(carrierStarts, capacity);
+			carrierEnds = Arrays.copyOf(carrierEnds, capacity);
+		}
+		// the carriers of the undone changes are thrown away, and a change of one block has none
+		carrierCount = position == 0 ? 0 : carrierEnds[position - 1];
+		carrierStarts[position] = carrierCount;
+		carrierEnds[position] = carrierCount;
+		size++;
+		return position++;
+	}
+
+	/**
+	 * A method that checks if there is a change that can be undone
+	 * @return true if a change is done, false otherwise
+	 */
+	public boolean canUndo()
+	{
+		return position > 0;
+	}
+
+	/**
+	 * A method that checks if there is a change that can be redone
+	 * @return true if a change has been undone, false otherwise
+	 */
+	public boolean canRedo()
+	{
+		return position < size;
+	}
+
+	/**
+	 * A method that marks the last change that is done as undone
+	 * @return the integer position of the change, whose properties are used to reverse it
+	 */
+	public int undo()
+	{
+		return --position;
+	}
+
+	/**
+	 * A method that marks the first change that was undone as done again
+	 * @return the integer position of the change, whose properties are used to repeat it
+	 */
+	public int redo()
+	{
+		return position++;
+	}
+
+	/**
+	 * A method that throws away every change
+	 */
+	public void clear()
+	{
+		Arrays.fill(blocks, 0, size, null);
+		Arrays.fill(stacks, 0, size, null);
+		size = 0;
+		position = 0;
+		carrierCount = 0;
+	}
+
+	/**
+	 * A method that returns the number of changes kept, both done and undone
+	 * @return the integer number of changes
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * A method that returns the type of a change
+	 * @param i the integer position of the change
+	 * @return the type, such as ADD_LAST
+	 */
+	public int getType(int i)
+	{
+		return types[i];
+	}
+
+	/**
+	 * A method that returns the id of the vehicle that a change moved, or that carried its block
+	 * @param i the integer position of the change
+	 * @return the integer id of the vehicle
+	 */
+	public int getVehicle(int i)
+	{
+		return vehicles[i];
+	}
+
+	/**
+	 * A method that returns the id of the vehicle that the moved vehicle was attached to or removed from
+	 * @param i the integer position of the change
+	 * @return the integer id of the vehicle
+	 */
+	public int getOther(int i)
+	{
+		return others[i];
+	}
+
+	/**
+	 * A method that returns the id of the first trailer that an inserted link was put in front of
+	 * @param i the integer position of the change
+	 * @return the integer id of the trailer, or VehicleStore.NONE
+	 */
+	public int getThird(int i)
+	{
+		return thirds[i];
+	}
+
+	/**
+	 * A method that returns the x coordinate of the moved vehicle before an attach or a drag, or after a removal
+	 * @param i the integer position of the change
+	 * @return the integer x coordinate
+	 */
+	public int getX(int i)
+	{
+		return xs[i];
+	}
+
+	/**
+	 * A method that returns the y coordinate of the moved vehicle before an attach or a drag, or after a removal
+	 * @param i the integer position of the change
+	 * @return the integer y coordinate
+	 */
+	public int getY(int i)
+	{
+		return ys[i];
+	}
+
+	/**
+	 * A method that returns the x coordinate that a dragged link was dropped at
+	 * @param i the integer position of the change
+	 * @return the integer x coordinate
+	 */
+	public int getToX(int i)
+	{
+		return toXs[i];
+	}
+
+	/**
+	 * A method that returns the y coordinate that a dragged link was dropped at
+	 * @param i the integer position of the change
+	 * @return the integer y coordinate
+	 */
+	public int getToY(int i)
+	{
+		return toYs[i];
+	}
+
+	/**
+	 * A method that returns the id of the selected vehicle before a change
+	 * @param i the integer position of the change
+	 * @return the integer id of the vehicle, or VehicleStore.NONE
+	 */
+	public int getSelectedBefore(int i)
+	{
+		return selectedBefore[i];
+	}
+
+	/**
+	 * A method that returns the id of the selected vehicle after a change
+	 * @param i the integer position of the change
+	 * @return the integer id of the vehicle, or VehicleStore.NONE
+	 */
+	public int getSelectedAfter(int i)
+	{
+		return selectedAfter[i];
+	}
+
+	/**
+	 * A method that returns the block that a change moved
+	 * @param i the integer position of the change
+	 * @return the Block, or null
+	 */
+	public Block getBlock(int i)
+	{
+		return blocks[i];
+	}
+
+	/**
+	 * A method that returns the stack that a change popped from or pushed on
+	 * @param i the integer position of the change
+	 * @return the BlockStack, or null
+	 */
+	public BlockStack getStack(int i)
+	{
+		return stacks[i];
+	}
+}
@@ -0,0 +1,318 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class that represents an append-only file of every input given to the game, the presses, drags and releases
+ * of the mouse and the menu actions, so that a game can be replayed exactly. Each event is written as its type,
+ * the milliseconds since the event before it and its coordinates, all as variable length numbers, so that most
+ * events take only a few bytes, and the events are gathered in a buffer that is written to the file when it is full
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class EventJournal
+{
+	public static final int MAGIC = 0x44534A31;		// the first four bytes of every journal, "DSJ1"
+	public static final int PRESS = 1;				// the event of a press of the mouse, with its coordinates
+	public static final int DRAG = 2;				// the event of a drag of the mouse, with its coordinates
+	public static final int RELEASE = 3;			// the event of a release of the mouse, with its coordinates
+	public static final int NEW = 4;				// the event of the New menu action
+	public static final int POP = 5;				// the event of the Pop menu action
+	public static final int PUSH = 6;				// the event of the Push menu action
+	public static final int ADD_FIRST = 7;			// the event of the Add First menu action
+	public static final int ADD_LAST = 8;			// the event of the Add Last menu action
+	public static final int REMOVE_FIRST = 9;		// the event of the Remove First menu action
+	public static final int REMOVE_LAST = 10;		// the event of the Remove Last menu action
+	public static final int REMOVE_SELECTED = 11;	// the event of the Remove Selected menu action
+	public static final int SPLIT = 12;				// the event of the Split Here menu action
+	public static final int TOOL = 13;				// the event of a choice of tool in the Yard menu, with the tool
+	public static final int UNDO = 14;				// the event of the Undo menu action
+	public static final int REDO = 15;				// the event of the Redo menu action
+	public static final int ANIMATE = 16;			// the event of turning the trains' animation on or off, with 1 for on
+	public static final int TICK = 17;				// the event of one tick of the trains' animation
+	public static final int POP_MANY = 18;			// the event of popping many blocks onto a link, with the most to pop
+	public static final int PUSH_MANY = 19;			// the event of pushing many blocks off of a link, with the most to push
+	public static final int OPEN = 20;				// the event of the Open menu action, with the size of the snapshot after it
+	public static final int MAX_RECORD = 16;		// the most bytes that one event can take
+	public static final String[] NAMES = {"", "press", "drag", "release", "new", "pop", "push", "add first", "add last",
+			"remove first", "remove last", "remove selected", "split", "tool", "undo", "redo", "animate", "tick", "pop many",
+			"push many", "open"};	// the name of each type of event
+	private static final int BUFFER_SIZE = 64 * 1024;	// the number of bytes gathered before they are written to the file
+
+	private FileChannel channel;			// the file that the events are appended to, or null once it is closed
+	private ByteBuffer buffer;				// the events that have not been written to the file yet
+	private long lastTime;					// the time of the last event, in nanoseconds
+	private int count;						// the number of events recorded
+
+	/**
+	 * Constructs an EventJournal object that records to a new file, replacing any file that is already there
+	 * @param file the Path of the journal
+	 * @param seed the seed of the simulation whose input is recorded
+	 * @throws IOException if the file can not be created
+	 */
+	public EventJournal(Path file, long seed) throws IOException
+	{
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		buffer.putInt(MAGIC);
+		buffer.putLong(seed);
+		lastTime = System.nanoTime();
+	}
+
+	/**
+	 * A method that records an event that has no coordinates, such as a menu action
+	 * @param type the type of the event, such as POP
+	 */
+	public void record(int type)
+	{
+		record(type, 0, 0);
+	}
+
+	/**
+	 * A method that records an event, stopping the recording if the journal can not be written
+	 * @param type the type of the event, such as PRESS
+	 * @param a the x coordinate of a mouse event, or the argument of another event, such as the tool of a TOOL event
+	 * @param b the y coordinate of a mouse event
+	 */
+	public synchronized void record(int type, int a, int b)
+	{
+		if(channel == null)
+		{
+			return;
+		}
+		if(buffer.remaining() < MAX_RECORD)
+		{
+			flush();
+			if(channel == null)
+			{
+				return;
+			}
+		}
+		long now = System.nanoTime();
+		int elapsed = (int) Math.min((now - lastTime) / 1000000, Integer.MAX_VALUE);
+		lastTime += elapsed * 1000000L;
+		buffer.put((byte) type);
+		putVarint(buffer, elapsed);
+		int arguments = argumentCount(type);
+		if(arguments > 0)
+		{
+			putVarint(buffer, zigzag(a));
+		}
+		if(arguments > 1)
+		{
+			putVarint(buffer, zigzag(b));
+		}
+		count++;
+	}
+
+	/**
+	 * A method that records the opening of a saved game, followed by a snapshot of the game, so that a replay
+	 * goes on from the same game even if the saved file has changed since. The snapshot is written straight to the file,
+	 * stopping the recording if the file can not be written or the game is too big for a snapshot
+	 * @param simulation the Simulation that was opened
+	 */
+	public synchronized void recordOpen(Simulation simulation)
+	{
+		if(channel == null)
+		{
+			return;
+		}
+		long size = 8 + simulation.getSnapshotSize();
+		if(size > Integer.MAX_VALUE)
+		{
+			System.err.println("The opened game is too big for the journal, which has stopped recording");
+			close();
+			return;
+		}
+		record(OPEN, (int) size, 0);
+		flush();
+		if(channel == null)
+		{
+			return;
+		}
+		ByteBuffer snapshot = ByteBuffer.allocate((int) size);
+		snapshot.putLong(simulation.getSeed());
+		simulation.writeSnapshot(snapshot);
+		snapshot.flip();
+		try
+		{
+			while(snapshot.hasRemaining())
+			{
+				channel.write(snapshot);
+			}
+		}
+		catch(IOException e)
+		{
+			System.err.println("The journal could not be written and has stopped recording: " + e.getMessage());
+			close();
+		}
+	}
+
+	/**
+	 * A method that writes the gathered events to the file, stopping the recording if the file can not be written
+	 */
+	public synchronized void flush()
+	{
+		if(channel == null)
+		{
+			return;
+		}
+		buffer.flip();
+		try
+		{
+			while(buffer.hasRemaining())
+			{
+				channel.write(buffer);
+			}
+		}
+		catch(IOException e)
+		{
+			System.err.println("The journal could not be written and has stopped recording: " + e.getMessage());
+			close();
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * A method that writes the gathered events to the file and closes it
+	 */
+	public synchronized void close()
+	{
+		if(channel == null)
+		{
+			return;
+		}
+		if(buffer.position() > 0)
+		{
+			flush();
+		}
+		if(channel == null)
+		{
+			return;
+		}
+		try
+		{
+			channel.close();
+		}
+		catch(IOException e)
+		{
+			System.err.println("The journal could not be closed: " + e.getMessage());
+		}
+		channel = null;
+	}
+
+	/**
+	 * A method that returns the number of events recorded
+	 * @return the integer number of events
+	 */
+	public synchronized int getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * A method that gives an event to a simulation, in the same way that the panel and the menus do
+	 * @param simulation the Simulation that the event is given to
+	 * @param type the type of the event, such as PRESS
+	 * @param a the x coordinate of a mouse event, or the argument of another event, such as the tool of a TOOL event
+	 * @param b the y coordinate of a mouse event
+	 * @throws IllegalArgumentException if the type is not a type of event, or is OPEN, which replaces the simulation instead
+	 */
+	public static void apply(Simulation simulation, int type, int a, int b)
+	{
+		switch(type)
+		{
+			case PRESS: simulation.press(a, b); break;
+			case DRAG: simulation.drag(a, b); break;
+			case RELEASE: simulation.release(a, b); break;
+			case NEW: simulation.reset(); break;
+			case POP: simulation.pop(); break;
+			case PUSH: simulation.push(); break;
+			case ADD_FIRST: simulation.addFirst(); break;
+			case ADD_LAST: simulation.addLast(); break;
+			case REMOVE_FIRST: simulation.removeFirst(); break;
+			case REMOVE_LAST: simulation.removeLast(); break;
+			case REMOVE_SELECTED: simulation.removeSelected(); break;
+			case SPLIT: simulation.split(); break;
+			case TOOL: simulation.setTool(a); break;
+			case UNDO: simulation.undo(); break;
+			case REDO: simulation.redo(); break;
+			case ANIMATE: simulation.setAnimating(a != 0); break;
+			case TICK: simulation.tick(); break;
+			case POP_MANY: simulation.popMany(a); break;
+			case PUSH_MANY: simulation.pushMany(a); break;
+			case OPEN: throw new IllegalArgumentException("An open event replaces the simulation rather than changing it");
+			default: throw new IllegalArgumentException("Unknown journal event " + type);
+		}
+	}
+
+	/**
+	 * A method that returns the number of coordinates written after an event of a type
+	 * @param type the type of the event
+	 * @return 2 for a mouse event, 1 for a TOOL, ANIMATE, POP_MANY, PUSH_MANY or OPEN event, 0 otherwise
+	 */
+	public static int argumentCount(int type)
+	{
+		if(type == PRESS || type == DRAG || type == RELEASE)
+		{
+			return 2;
+		}
+		return type == TOOL || type == ANIMATE || type == POP_MANY || type == PUSH_MANY || type == OPEN ? 1 : 0;
+	}
+
+	/**
+	 * A method that writes a number that is not negative in as few bytes as it needs, seven bits to a byte
+	 * @param buffer the ByteBuffer to write to
+	 * @param value the integer value to be written, read as unsigned
+	 */
+	private static void putVarint(ByteBuffer buffer, int value)
+	{
+		while((value & ~0x7F) != 0)
+		{
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * A method that reads a number written by putVarint
+	 * @param buffer the ByteBuffer to read from
+	 * @return the integer value read
+	 */
+	public static int getVarint(ByteBuffer buffer)
+	{
+		int value = 0;
+		for(int shift = 0; ; shift += 7)
+		{
+			int b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * A method that turns a number into one that is small when the number is close to zero, whatever its sign
+	 * @param value the integer value
+	 * @return the integer value with its sign in the lowest bit
+	 */
+	private static int zigzag(int value)
+	{
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/**
+	 * A method that turns a number made by zigzag back into the number
+	 * @param value the integer value with its sign in the lowest bit
+	 * @return the integer value
+	 */
+	public static int unzigzag(int value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,244 @@
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Class that represents the measurements of how the game is drawn: how long each redraw takes, how long an input
+ * waits before the redraw that shows it ends, how many inputs each redraw shows, and how many vehicles and blocks
+ * there are. The times are kept in histograms of fixed buckets, so that measuring costs a clock reading and a few
+ * additions per redraw and can be left on, and they can be drawn over the game or written to a file
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class FrameMetrics
+{
+	private static final int MARGIN = 6;		// the space between the overlay's text and its edges
+	private static final Color OVERLAY_COLOR = new Color(0, 0, 0, 160);	// the translucent background of the overlay
+
+	private Histogram paintTimes;		// the nanoseconds that each redraw took
+	private Histogram latencies;		// the nanoseconds from the first input that a redraw shows to the end of the redraw
+	private Histogram inputsPerFrame;	// the number of inputs that each redraw shows
+	private long firstInput;			// the time of the first input that has not been drawn yet, in nanoseconds
+	private int inputs;					// the number of inputs that have not been drawn yet
+	private int vehicleCount;			// the number of vehicles when the game was last drawn
+	private int blockCount;				// the number of blocks when the game was last drawn
+	private Rectangle overlayBounds;	// the area that the overlay was last drawn in
+
+	/**
+	 * Constructs a FrameMetrics object with nothing measured
+	 */
+	public FrameMetrics()
+	{
+		paintTimes = new Histogram();
+		latencies = new Histogram();
+		inputsPerFrame = new Histogram();
+		overlayBounds = new Rectangle();
+	}
+
+	/**
+	 * A method that records an input that changed the game, which is shown by the next redraw
+	 * @param time the time of the input, in nanoseconds from System.nanoTime
+	 */
+	public void inputReceived(long time)
+	{
+		if(inputs == 0)
+		{
+			firstInput = time;
+		}
+		inputs++;
+	}
+
+	/**
+	 * A method that records inputs that changed the game, which are shown by the next redraw, such as the inputs that
+	 * a frame drawn by the simulation thread is the first to show
+	 * @param time the time of the first of the inputs, in nanoseconds from System.nanoTime
+	 * @param count the number of inputs
+	 */
+	public void inputsReceived(long time, int count)
+	{
+		if(inputs == 0)
+		{
+			firstInput = time;
+		}
+		inputs += count;
+	}
+
+	/**
+	 * A method that records a redraw of the game, along with the inputs that it shows
+	 * @param start the time that the redraw started, in nanoseconds from System.nanoTime
+	 * @param end the time that the redraw ended, in nanoseconds from System.nanoTime
+	 * @param vehicles the number of vehicles in the game
+	 * @param blocks the number of blocks in the game
+	 */
+	public void framePainted(long start, long end, int vehicles, int blocks)
+	{
+		framePainted(start, end, end, vehicles, blocks);
+	}
+
+	/**
+	 * A method that records a redraw of the game that was shown some time after it was drawn, such as a frame drawn by
+	 * the simulation thread, along with the inputs that it shows, which have waited until it was shown
+	 * @param start the time that the redraw started, in nanoseconds from System.nanoTime
+	 * @param end the time that the redraw ended, in nanoseconds from System.nanoTime
+	 * @param shown the time that the redraw was shown, in nanoseconds from System.nanoTime
+	 * @param vehicles the number of vehicles in the game
+	 * @param blocks the number of blocks in the game
+	 */
+	public void framePainted(long start, long end, long shown, int vehicles, int blocks)
+	{
+		paintTimes.record(end - start);
+		if(inputs > 0)
+		{
+			latencies.record(shown - firstInput);
+			inputsPerFrame.record(inputs);
+			inputs = 0;
+		}
+		vehicleCount = vehicles;
+		blockCount = blocks;
+	}
+
+	/**
+	 * A method that throws away every measurement
+	 */
+	public void clear()
+	{
+		paintTimes.clear();
+		latencies.clear();
+		inputsPerFrame.clear();
+		inputs = 0;
+	}
+
+	/**
+	 * A method that returns the lines of the measurements, one histogram to a line, with the times in milliseconds
+	 * @return an array of the String lines
+	 */
+	public String[] getLines()
+	{
+		return new String[] {
+			line("paint ms", paintTimes, 1e6),
+			line("latency ms", latencies, 1e6),
+			line("inputs/frame", inputsPerFrame, 1),
+			String.format(Locale.ROOT, "vehicles %d  blocks %d", vehicleCount, blockCount)};
+	}
+
+	/**
+	 * A method that returns the line of one histogram
+	 * @param name the name of the measurement
+	 * @param histogram the Histogram of the measurement
+	 * @param scale the number that each value is divided by, such as 1e6 for nanoseconds shown as milliseconds
+	 * @return the String line with the count, p50, p99 and max of the histogram
+	 */
+	private static String line(String name, Histogram histogram, double scale)
+	{
+		return String.format(Locale.ROOT, "%-12s n %d  p50 %.2f  p99 %.2f  max %.2f", name, histogram.getCount(),
+				histogram.getPercentile(0.5) / scale, histogram.getPercentile(0.99) / scale, histogram.getMax() / scale);
+	}
+
+	/**
+	 * A method that draws the measurements in a box at the upper left corner of the game
+	 * @param g2 the graphics context
+	 */
+	public void draw(Graphics2D g2)
+	{
+		String[] lines = getLines();
+		FontMetrics fontMetrics = g2.getFontMetrics();
+		int width = 0;
+		for(int i = 0; i < lines.length; i++)
+		{
+			width = Math.max(width, fontMetrics.stringWidth(lines[i]));
+		}
+		int lineHeight = fontMetrics.getHeight();
+		overlayBounds.setBounds(0, 0, width + 2 * MARGIN, lines.length * lineHeight + 2 * MARGIN);
+		Color color = g2.getColor();
+		g2.setColor(OVERLAY_COLOR);
+		g2.fill(overlayBounds);
+		g2.setColor(Color.WHITE);
+		for(int i = 0; i < lines.length; i++)
+		{
+			g2.drawString(lines[i], MARGIN, MARGIN + i * lineHeight + fontMetrics.getAscent());
+		}
+		g2.setColor(color);
+	}
+
+	/**
+	 * A method that returns the area that the overlay was last drawn in, which has to be redrawn to show new measurements
+	 * @return the Rectangle of the overlay, empty if it has not been drawn
+	 */
+	public Rectangle getOverlayBounds()
+	{
+		return overlayBounds;
+	}
+
+	/**
+	 * A method that writes the measurements to a file, as the header and lines of a table, replacing any file that is there
+	 * @param file the Path of the file
+	 * @throws IOException if the file can not be written
+	 */
+	public void export(Path file) throws IOException
+	{
+		PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+		try
+		{
+			out.println("metric,count,mean,p50,p99,max");
+			exportLine(out, "paint_ns", paintTimes);
+			exportLine(out, "latency_ns", latencies);
+			exportLine(out, "inputs_per_frame", inputsPerFrame);
+			out.println("vehicles,1," + vehicleCount + "," + vehicleCount + "," + vehicleCount + "," + vehicleCount);
+			out.println("blocks,1," + blockCount + "," + blockCount + "," + blockCount + "," + blockCount);
+		}
+		finally
+		{
+			out.close();
+		}
+		if(out.checkError())
+		{
+			throw new IOException("The metrics could not be written to " + file);
+		}
+	}
+
+	/**
+	 * A method that writes the line of one histogram to a table
+	 * @param out the PrintWriter of the table
+	 * @param name the name of the measurement
+	 * @param histogram the Histogram of the measurement
+	 */
+	private static void exportLine(PrintWriter out, String name, Histogram histogram)
+	{
+		out.println(String.format(Locale.ROOT, "%s,%d,%.1f,%d,%d,%d", name, histogram.getCount(), histogram.getMean(),
+				histogram.getPercentile(0.5), histogram.getPercentile(0.99), histogram.getMax()));
+	}
+
+	/**
+	 * A method that returns the histogram of how long each redraw took
+	 * @return the Histogram of nanoseconds
+	 */
+	public Histogram getPaintTimes()
+	{
+		return paintTimes;
+	}
+
+	/**
+	 * A method that returns the histogram of how long the inputs waited for the redraws that show them
+	 * @return the Histogram of nanoseconds
+	 */
+	public Histogram getLatencies()
+	{
+		return latencies;
+	}
+
+	/**
+	 * A method that returns the histogram of how many inputs each redraw shows
+	 * @return the Histogram of the numbers of inputs
+	 */
+	public Histogram getInputsPerFrame()
+	{
+		return inputsPerFrame;
+	}
+}
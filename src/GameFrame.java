@@ -1,10 +1,22 @@
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.Random;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.nio.file.Path;
+import javax.swing.ButtonGroup;
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.JRadioButtonMenuItem;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 
 /**
  * Class that represents a frame that holds the panel and the menu of the game
@@ -18,19 +30,33 @@ public class GameFrame extends JFrame
    
    private JMenuBar menuBar;			// the menu bar at the top of the game's frame
    private GamePanel panel;				// the game's panel with all of it's logic 
-   private Random random;				// used to select a random location for popped rail cars
+   private JFileChooser chooser;		// used to choose the files that games are saved to and opened from
 
 	/**
 	 * Constructs a frame with a menu bar and game panel
 	 */	
    public GameFrame()
    {     
+      this(new Simulation());
+   }
+
+	/**
+	 * Constructs a frame with a menu bar and a game panel that draws and passes its input to a simulation
+	 * @param simulation the Simulation of the game's objects and logic
+	 */	
+   public GameFrame(Simulation simulation)
+   {     
+      // the panel is made first, since the menu items that show the game's state listen to it
+      panel = new GamePanel(simulation);
       menuBar = new JMenuBar();     
       setJMenuBar(menuBar);
       menuBar.add(createFileMenu());
+      menuBar.add(createEditMenu());
       menuBar.add(createStackMenu());
       menuBar.add(createListMenu());
-      panel = new GamePanel();
+      menuBar.add(createYardMenu());
+      menuBar.add(createViewMenu());
+      chooser = new JFileChooser();
       add(panel);
       setSize(FRAME_WIDTH, FRAME_HEIGHT);
    }
@@ -49,10 +75,154 @@ public class GameFrame extends JFrame
    {
       public void actionPerformed(ActionEvent event)
       {
-    	  panel.reset();
+    	  panel.perform(EventJournal.NEW, 0, 0);
       }
    }      
    
+   // A class that represents a listener used to save the game to a file, on the thread that changes the game,
+   // so that the game is written between two of its ticks
+   class SaveItemListener implements ActionListener
+   {
+      public void actionPerformed(ActionEvent event)
+      {
+         if(chooser.showSaveDialog(GameFrame.this) != JFileChooser.APPROVE_OPTION)
+         {
+            return;
+         }
+         final Path file = chooser.getSelectedFile().toPath();
+         
+         // A class that represents the saving of the game
+         class SaveTask implements Runnable
+         {
+            public void run()
+            {
+               try
+               {
+                  SceneSnapshot.save(panel.getSimulation(), file);
+               }
+               catch(IOException e)
+               {
+                  showError(e.getMessage(), "Save");
+               }
+            }
+         }
+         panel.invoke(new SaveTask());
+      }
+   }
+   
+   // A class that represents a listener used to replace the game with one saved to a file, on the thread that changes the game
+   class OpenItemListener implements ActionListener
+   {
+      public void actionPerformed(ActionEvent event)
+      {
+         if(chooser.showOpenDialog(GameFrame.this) != JFileChooser.APPROVE_OPTION)
+         {
+            return;
+         }
+         final Path file = chooser.getSelectedFile().toPath();
+         
+         // A class that represents the loading of the game
+         class OpenTask implements Runnable
+         {
+            public void run()
+            {
+               try
+               {
+                  panel.setSimulation(SceneSnapshot.load(file));
+               }
+               catch(IOException e)
+               {
+                  showError(e.getMessage(), "Open");
+               }
+            }
+         }
+         panel.invoke(new OpenTask());
+      }
+   }
+
+   // A class that represents a listener used to zoom the view of the game in by one step
+   class ZoomInItemListener implements ActionListener
+   {
+      public void actionPerformed(ActionEvent event)
+      {
+         panel.zoomIn();
+      }
+   }
+   
+   // A class that represents a listener used to zoom the view of the game out by one step
+   class ZoomOutItemListener implements ActionListener
+   {
+      public void actionPerformed(ActionEvent event)
+      {
+         panel.zoomOut();
+      }
+   }
+   
+   // A class that represents a listener used to draw the game at its actual size again
+   class ActualSizeItemListener implements ActionListener
+   {
+      public void actionPerformed(ActionEvent event)
+      {
+         panel.resetZoom();
+      }
+   }
+   
+   // A class that represents a listener used to show or hide the measurements of the redraws over the game
+   class MetricsItemListener implements ActionListener
+   {
+      public void actionPerformed(ActionEvent event)
+      {
+         panel.setShowMetrics(((JCheckBoxMenuItem) event.getSource()).isSelected());
+      }
+   }
+   
+   // A class that represents a listener used to write the measurements of the redraws to a file
+   class ExportMetricsItemListener implements ActionListener
+   {
+      public void actionPerformed(ActionEvent event)
+      {
+         if(chooser.showSaveDialog(GameFrame.this) != JFileChooser.APPROVE_OPTION)
+         {
+            return;
+         }
+         try
+         {
+            panel.getMetrics().export(chooser.getSelectedFile().toPath());
+         }
+         catch(IOException e)
+         {
+            JOptionPane.showMessageDialog(GameFrame.this, e.getMessage(), "Export Metrics", JOptionPane.ERROR_MESSAGE);
+         }
+      }
+   }
+
+   /**
+      Shows an error in a dialog, on the event dispatch thread, from whichever thread it happened on.
+      @param message the message of the error
+      @param title the title of the dialog
+   */
+   private void showError(final String message, final String title)
+   {
+      // A class that represents the showing of the dialog
+      class ErrorDialog implements Runnable
+      {
+         public void run()
+         {
+            JOptionPane.showMessageDialog(GameFrame.this, message, title, JOptionPane.ERROR_MESSAGE);
+         }
+      }
+      SwingUtilities.invokeLater(new ErrorDialog());
+   }
+
+   /**
+      Returns the game's panel.
+      @return the panel
+   */
+   public GamePanel getPanel()
+   {
+      return panel;
+   }
+
    /**
       Creates the File menu.
       @return the menu
@@ -61,16 +231,71 @@ public class GameFrame extends JFrame
    {
       JMenu menu = new JMenu("File");
       JMenuItem newItem = new JMenuItem("New"); 
+      JMenuItem openItem = new JMenuItem("Open..."); 
+      JMenuItem saveItem = new JMenuItem("Save..."); 
       JMenuItem exitItem = new JMenuItem("Exit");      
       ActionListener exitListener = new ExitItemListener();
       exitItem.addActionListener(exitListener);
       ActionListener newListener = new NewItemListener();
       newItem.addActionListener(newListener);
+      ActionListener openListener = new OpenItemListener();
+      openItem.addActionListener(openListener);
+      ActionListener saveListener = new SaveItemListener();
+      saveItem.addActionListener(saveListener);
       menu.add(newItem);
+      menu.add(openItem);
+      menu.add(saveItem);
       menu.add(exitItem);
       return menu;
    }
 
+   /**
+      Creates the Edit menu.
+      @return the menu
+   */
+   public JMenu createEditMenu()
+   {
+      JMenu menu = new JMenu("Edit");
+      menu.add(createUndoItem("Undo"));
+      menu.add(createRedoItem("Redo"));
+      return menu;
+   }
+
+   /**
+      Creates the View menu, which shows the measurements of the redraws and writes them to a file.
+      @return the menu
+   */
+   public JMenu createViewMenu()
+   {
+      JMenu menu = new JMenu("View");
+      JMenuItem metricsItem = new JCheckBoxMenuItem("Metrics Overlay");
+      JMenuItem exportItem = new JMenuItem("Export Metrics...");
+      JMenuItem zoomInItem = new JMenuItem("Zoom In");
+      JMenuItem zoomOutItem = new JMenuItem("Zoom Out");
+      JMenuItem actualSizeItem = new JMenuItem("Actual Size");
+      metricsItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0));
+      zoomInItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS, InputEvent.CTRL_DOWN_MASK));
+      zoomOutItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_MINUS, InputEvent.CTRL_DOWN_MASK));
+      actualSizeItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_0, InputEvent.CTRL_DOWN_MASK));
+      ActionListener zoomInListener = new ZoomInItemListener();
+      zoomInItem.addActionListener(zoomInListener);
+      ActionListener zoomOutListener = new ZoomOutItemListener();
+      zoomOutItem.addActionListener(zoomOutListener);
+      ActionListener actualSizeListener = new ActualSizeItemListener();
+      actualSizeItem.addActionListener(actualSizeListener);
+      ActionListener metricsListener = new MetricsItemListener();
+      metricsItem.addActionListener(metricsListener);
+      ActionListener exportListener = new ExportMetricsItemListener();
+      exportItem.addActionListener(exportListener);
+      menu.add(zoomInItem);
+      menu.add(zoomOutItem);
+      menu.add(actualSizeItem);
+      menu.addSeparator();
+      menu.add(metricsItem);
+      menu.add(exportItem);
+      return menu;
+   }
+
    /**
       Creates the Stack menu.
       @return the menu
@@ -80,6 +305,11 @@ public class GameFrame extends JFrame
       JMenu menu = new JMenu("Stack");
       menu.add(createPopItem("Pop"));
       menu.add(createPushItem("Push"));
+      menu.addSeparator();
+      menu.add(createManyItem("Pop N...", EventJournal.POP_MANY, false));
+      menu.add(createManyItem("Push N...", EventJournal.PUSH_MANY, false));
+      menu.add(createManyItem("Load All", EventJournal.POP_MANY, true));
+      menu.add(createManyItem("Unload All", EventJournal.PUSH_MANY, true));
       return menu;
    }  
 
@@ -94,9 +324,30 @@ public class GameFrame extends JFrame
       menu.add(createRemoveLastItem("Remove Last"));
       menu.add(createRemoveFirstItem("Remove First"));
       menu.add(createAddFirstItem("Add First"));
+      menu.add(createRemoveSelectedItem("Remove Selected"));
+      menu.add(createSplitItem("Split Here"));
       return menu;
    }  
 
+   /**
+      Creates the Yard menu, whose tools decide what a press does once the first scene has been created.
+      @return the menu
+   */
+   public JMenu createYardMenu()
+   {
+      JMenu menu = new JMenu("Yard");
+      ButtonGroup group = new ButtonGroup();
+      JMenuItem selectItem = createToolItem("Select", Simulation.SELECT, group);
+      selectItem.setSelected(true);
+      menu.add(selectItem);
+      menu.add(createToolItem("Add Engine", Simulation.ADD_ENGINE, group));
+      menu.add(createToolItem("Add Rail Car", Simulation.ADD_RAIL_CAR, group));
+      menu.add(createToolItem("Add Block Stack", Simulation.ADD_STACK, group));
+      menu.addSeparator();
+      menu.add(createAnimateItem("Animate Trains"));
+      return menu;
+   }
+
    /**
       Creates a menu item to add to the end of the train engine and set its action listener
       @param name the name of Add Last menu item
@@ -109,17 +360,7 @@ public class GameFrame extends JFrame
       {
          public void actionPerformed(ActionEvent event)
          {
-        	 if(panel.getVehicles().size() == 6)
-        	 {
-	        	for (int i = 1; i < panel.getVehicles().size(); i++) 
-	     		{
-	     			if(!panel.getVehicles().get(i).isTrailer() && panel.getVehicles().get(i).isSelected())
-	     			{
-	     				panel.getVehicles().get(i).deselect();
-	     				panel.getVehicles().get(0).addLast(panel.getVehicles().get(i));
-	     			}
-	     		}
-        	 }
+        	panel.perform(EventJournal.ADD_LAST, 0, 0);
          }
       }      
 
@@ -137,19 +378,16 @@ public class GameFrame extends JFrame
    public JMenuItem createRemoveLastItem(final String name)
    {
 	// A class that represents a listener used to remove a trailer from the end of the train engine
-      class AddLastItemListener implements ActionListener
+      class RemoveLastItemListener implements ActionListener
       {
          public void actionPerformed(ActionEvent event)
          {
-        	if(panel.getVehicles().size() == 6)
-        	{
-        		panel.getVehicles().get(0).removeLast();
-        	}
+        	panel.perform(EventJournal.REMOVE_LAST, 0, 0);
          }
       }      
 
       JMenuItem item = new JMenuItem(name);      
-      ActionListener listener = new AddLastItemListener();
+      ActionListener listener = new RemoveLastItemListener();
       item.addActionListener(listener);
       return item;
    }
@@ -166,22 +404,7 @@ public class GameFrame extends JFrame
       {
          public void actionPerformed(ActionEvent event)
          {
-        	if(panel.getVehicles().size() == 6)
-        	{
-	     		panel.getVehicles().get(0).removeFirst();
-	     		for(int i = 1; i < panel.getVehicles().size(); i++)
-	     		{
-	     			if(!panel.getVehicles().get(i).hasTrailer && panel.getVehicles().get(i).trailer != null)
-	     			{
-	     				random = new Random();
-	     				panel.getVehicles().get(i).trailer = null;
-	     				panel.getVehicles().get(i).deselect();
-	     				panel.getVehicles().get(i).setLocation(random.nextInt(GameFrame.FRAME_WIDTH), random.nextInt(GameFrame.FRAME_HEIGHT));
-	     				break;
-	     			}
-	     		}
-	     		panel.getVehicles().get(0).update();
-        	}
+        	panel.perform(EventJournal.REMOVE_FIRST, 0, 0);
          }
       }      
 
@@ -203,16 +426,7 @@ public class GameFrame extends JFrame
       {
          public void actionPerformed(ActionEvent event)
          {
-        	if(panel.getVehicles().size() == 6)
-        	{
-	        	for (int i = 1; i < panel.getVehicles().size(); i++) 
-	      		{
-	      			if(!panel.getVehicles().get(i).isTrailer() && panel.getVehicles().get(i).isSelected())
-	      			{
-	      				panel.getVehicles().get(0).addFirst(panel.getVehicles().get(i));
-	      			}
-	      		}
-        	}
+        	panel.perform(EventJournal.ADD_FIRST, 0, 0);
          }
       }      
 
@@ -222,6 +436,50 @@ public class GameFrame extends JFrame
       return item;
    }
    
+   /**
+   Creates a menu item to remove the selected rail car from the middle of its link and set its action listener
+   @param name the name of the Remove Selected menu item
+   @return the menu item
+*/
+   public JMenuItem createRemoveSelectedItem(final String name)
+   {
+	// A class that represents a listener used to remove the selected trailer and close the gap behind its puller
+      class RemoveSelectedItemListener implements ActionListener
+      {
+         public void actionPerformed(ActionEvent event)
+         {
+        	panel.perform(EventJournal.REMOVE_SELECTED, 0, 0);
+         }
+      }      
+
+      JMenuItem item = new JMenuItem(name);      
+      ActionListener listener = new RemoveSelectedItemListener();
+      item.addActionListener(listener);
+      return item;
+   }
+   
+   /**
+   Creates a menu item to split the selected rail car's link in front of it and set its action listener
+   @param name the name of the Split Here menu item
+   @return the menu item
+*/
+   public JMenuItem createSplitItem(final String name)
+   {
+	// A class that represents a listener used to uncouple the selected trailer, and its trailers, from its puller
+      class SplitItemListener implements ActionListener
+      {
+         public void actionPerformed(ActionEvent event)
+         {
+        	panel.perform(EventJournal.SPLIT, 0, 0);
+         }
+      }      
+
+      JMenuItem item = new JMenuItem(name);      
+      ActionListener listener = new SplitItemListener();
+      item.addActionListener(listener);
+      return item;
+   }
+   
    /**
    Creates a menu item to push a block from the selected vehicle link and set its action listener
    @param name the name of Push menu item
@@ -234,34 +492,7 @@ public class GameFrame extends JFrame
       {
          public void actionPerformed(ActionEvent event)
          {
-        	 for (int i = 0; i < panel.getVehicles().size(); i++) 
-        	 {
-        		 if(panel.getVehicles().get(i).isSelected() && !panel.getVehicles().get(i).isTrailer())
-        		 {
-        			 if(panel.getLoadedBlocks() != null)
-        			 {
-        				 if(i == 0 && panel.getVehicles().get(0).hasTrailer() && panel.getVehicles().get(0).trailer.isSelected())
-        				 {
-        					 Block pushBlock = panel.getVehicles().get(0).trailer.getLoad();
-        					 if(pushBlock == null)
-        						break;
-        					 panel.getBlocks().push(pushBlock);
-        					 panel.getVehicles().get(0).trailer.unload(pushBlock);
-        					 panel.getLoadedBlocks().remove(pushBlock);
-        				 }
-        				 else if(i > 0)
-        				 {
-        					 Block pushBlock = panel.getVehicles().get(i).getLoad();
-        					 if(pushBlock == null)
-        						 break;
-        					 panel.getBlocks().push(pushBlock);
-        					 panel.getVehicles().get(i).unload(pushBlock);
-        					 panel.getLoadedBlocks().remove(pushBlock);
-        				 }
-        			 }
-        			 break;
-        		 }
-        	 }
+        	panel.perform(EventJournal.PUSH, 0, 0);
          }
       }      
 
@@ -283,33 +514,7 @@ public class GameFrame extends JFrame
       {
          public void actionPerformed(ActionEvent event)
          {
-        	 for (int i = 0; i < panel.getVehicles().size(); i++) 
-        	 {
-        		 if(panel.getVehicles().get(i).isSelected() && 
-        			!panel.getVehicles().get(i).isTrailer() && 
-        			panel.getVehicles().get(i).hasEmptyTrailer())
-        		 {
-        			 if(panel.getBlocks() != null)
-        			 {
-        				 if(i == 0 && panel.getVehicles().get(0).hasTrailer() && panel.getVehicles().get(0).trailer.isSelected())
-        				 {
-        					 if(panel.getVehicles().get(0).trailer.hasEmptyTrailer())
-        					 {
-        						 Block poppedBlock = panel.getBlocks().pop();
-        						 panel.getVehicles().get(0).trailer.load(poppedBlock);
-        						 panel.addLoadedBlock(poppedBlock);
-        					 }
-        				 }
-        				 else if(i > 0)
-        				 {
-        					 Block poppedBlock = panel.getBlocks().pop();
-        					 panel.getVehicles().get(i).load(poppedBlock);
-        					 panel.addLoadedBlock(poppedBlock); 
-        				 }
-        			 }
-        			 break;
-        		 }
-        	 }
+        	panel.perform(EventJournal.POP, 0, 0);
          }
       }      
 
@@ -318,4 +523,152 @@ public class GameFrame extends JFrame
       item.addActionListener(listener);
       return item;
    }
-}
\ No newline at end of file
+   
+   /**
+   Creates a menu item to move many blocks between the stack and the selected link at once and set its action listener
+   @param name the name of the menu item
+   @param type EventJournal.POP_MANY to load the blocks on the link, or EventJournal.PUSH_MANY to unload them
+   @param all true to move every block that can be moved, false to ask how many to move
+   @return the menu item
+    */
+   public JMenuItem createManyItem(final String name, final int type, final boolean all)
+   {
+	// A class that represents a listener used to pop blocks onto the empty vehicles of a selected link, or push them off of its loaded vehicles, in order
+      class ManyItemListener implements ActionListener
+      {
+         public void actionPerformed(ActionEvent event)
+         {
+            int count = Integer.MAX_VALUE;
+            if(!all)
+            {
+               String answer = JOptionPane.showInputDialog(GameFrame.this, "Number of blocks:", "Stack", JOptionPane.QUESTION_MESSAGE);
+               if(answer == null)
+               {
+                  return;
+               }
+               try
+               {
+                  count = Integer.parseInt(answer.trim());
+               }
+               catch(NumberFormatException e)
+               {
+                  JOptionPane.showMessageDialog(GameFrame.this, "\"" + answer + "\" is not a number of blocks", "Stack", JOptionPane.ERROR_MESSAGE);
+                  return;
+               }
+            }
+        	panel.perform(type, count, 0);
+         }
+      }      
+
+      JMenuItem item = new JMenuItem(name);      
+      ActionListener listener = new ManyItemListener();
+      item.addActionListener(listener);
+      return item;
+   }
+   
+   /**
+   Creates a menu item to undo the last change to the trains and stacks and set its action listener
+   @param name the name of the Undo menu item
+   @return the menu item
+    */
+   public JMenuItem createUndoItem(final String name)
+   {
+	// A class that represents a listener used to reverse the last attach, removal, split, drag, pop or push
+      class UndoItemListener implements ActionListener
+      {
+         public void actionPerformed(ActionEvent event)
+         {
+        	panel.perform(EventJournal.UNDO, 0, 0);
+         }
+      }      
+
+      JMenuItem item = new JMenuItem(name);      
+      ActionListener listener = new UndoItemListener();
+      item.addActionListener(listener);
+      item.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+      return item;
+   }
+
+   /**
+   Creates a menu item to redo the last change to the trains and stacks that was undone and set its action listener
+   @param name the name of the Redo menu item
+   @return the menu item
+    */
+   public JMenuItem createRedoItem(final String name)
+   {
+	// A class that represents a listener used to repeat the last attach, removal, split, drag, pop or push that was undone
+      class RedoItemListener implements ActionListener
+      {
+         public void actionPerformed(ActionEvent event)
+         {
+        	panel.perform(EventJournal.REDO, 0, 0);
+         }
+      }      
+
+      JMenuItem item = new JMenuItem(name);      
+      ActionListener listener = new RedoItemListener();
+      item.addActionListener(listener);
+      item.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
+      return item;
+   }
+
+   /**
+   Creates a menu item to turn the animation of the trains on or off and set its action listener
+   @param name the name of the Animate Trains menu item
+   @return the menu item
+    */
+   public JMenuItem createAnimateItem(final String name)
+   {
+	// A class that represents a listener used to start or stop every train engine driving its train around the yard
+      class AnimateItemListener implements ActionListener
+      {
+         public void actionPerformed(ActionEvent event)
+         {
+        	boolean animating = ((JCheckBoxMenuItem) event.getSource()).isSelected();
+        	panel.perform(EventJournal.ANIMATE, animating ? 1 : 0, 0);
+         }
+      }      
+
+      final JMenuItem item = new JCheckBoxMenuItem(name);      
+      ActionListener listener = new AnimateItemListener();
+      item.addActionListener(listener);
+      item.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_T, InputEvent.CTRL_DOWN_MASK));
+      
+      // A class that represents a listener used to check the menu item while the game animates the trains, which stop
+      // on their own if a tick fails
+      class AnimatingListener implements PropertyChangeListener
+      {
+         public void propertyChange(PropertyChangeEvent event)
+         {
+            item.setSelected((Boolean) event.getNewValue());
+         }
+      }
+      panel.addPropertyChangeListener(GamePanel.ANIMATING_PROPERTY, new AnimatingListener());
+      return item;
+   }
+
+   /**
+   Creates a menu item to choose what a press does and set its action listener
+   @param name the name of the tool's menu item
+   @param tool the tool of the simulation that the menu item chooses
+   @param group the group of tool menu items, only one of which is chosen at a time
+   @return the menu item
+    */
+   public JMenuItem createToolItem(final String name, final int tool, ButtonGroup group)
+   {
+	// A class that represents a listener used to choose whether a press selects, or creates an engine, a rail car or a block stack
+      class ToolItemListener implements ActionListener
+      {
+         public void actionPerformed(ActionEvent event)
+         {
+        	panel.perform(EventJournal.TOOL, tool, 0);
+         }
+      }      
+
+      JMenuItem item = new JRadioButtonMenuItem(name);      
+      ActionListener listener = new ToolItemListener();
+      item.addActionListener(listener);
+      group.add(item);
+      return item;
+   }
+}
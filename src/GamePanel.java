@@ -1,102 +1,92 @@
+import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Point;
+import java.awt.GraphicsConfiguration;
 import java.awt.Rectangle;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.Stack;
+import java.util.Collections;
+import java.util.Comparator;
 import javax.swing.JPanel;
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
 
 /**
- * Class that represents a panel with all of the game's objects and logic
+ * Class that represents a panel that draws the game's objects and passes mouse input to the game's logic. While the
+ * panel is shown, the game is changed and drawn on its simulation thread, and the panel only queues its input there
+ * and shows the newest frame that the thread has drawn
  * @author Alessandro Profenna alessandro.profenna@ryerson.ca
  * @version March 25, 2015
  */
 public class GamePanel extends JPanel
 {
-	private int clicks;						// the number of clicks
-	private int trailerNumber;				// the railcar's number
-	private Rectangle blockBase;			// the rectangular base for the blocks
-	private ArrayList<Vehicle> vehicles;	// the list of all vehicles in the game
-	private ArrayList<Block> loadedBlocks;	// the list of blocks that are currently loaded on vehicles
-	private Stack<Block> blocks;			// the stack of blocks that are currently on the block base
-	private int xStack;						// the x position of the first block to be added to the stack
-	private int yStack;						// the y position of the first block to be added to the stack
-	private int xSelect;					// the x position of the selected vehicle
-	private int ySelect;					// the y position of the selected vehicle
+	public static final String ANIMATING_PROPERTY = "animating";	// the property that changes when the trains start or stop
+	private volatile Simulation simulation;	// the game's objects and logic
+	private volatile SimulationThread simulationThread;	// the thread that changes and draws the game, or null while the panel is not shown
+	private RenderFrame shownFrame;			// the frame that the panel shows, or null
+	private GraphicsConfiguration paintedConfiguration;	// the screen configuration that the panel was last drawn on
+	private double screenScale;				// the number of pixels of the screen that each pixel of the panel covers
+	private SpriteCache spriteCache;		// the pre-drawn images of the vehicles and blocks
+	private volatile boolean useSprites;	// used to check if vehicles and blocks are copied from images or drawn from shapes
+	private volatile EventJournal journal;	// the file that every input is recorded to, or null
+	private FrameMetrics metrics;			// the measurements of the redraws and of the inputs that they show
+	private boolean showMetrics;			// used to check if the measurements are drawn over the game
+	private volatile Viewport viewport;		// the part of the game that the panel shows
+	private boolean panning;				// used to check if the view is being dragged with the right or middle button
+	private int panX;						// the x coordinate on the panel of the last drag of the view
+	private int panY;						// the y coordinate on the panel of the last drag of the view
+	private ArrayList<Vehicle> visible;		// reusable list of the vehicles that can be seen in the area being drawn
+	private ArrayList<Train> bars;			// reusable list of the chains that can be seen in the area being drawn as bars
+	private static final double ZOOM_STEP = 1.25;	// the factor that the view is zoomed by with each step of the wheel or menu
+	private static final int SCROLL_STEP = 40;		// the number of pixels of the panel that each step of the wheel scrolls
+	private static final int DETAIL_WIDTH = 24;		// the fewest pixels across a rail car that its shape is drawn in
+	private static final int BAR_WIDTH = 8;			// the fewest pixels across a rail car that it is drawn as a box, not in a bar
+	private static final Comparator<Vehicle> CHAIN_ORDER = new ChainOrder();	// the order that the vehicles are drawn in
 	
 	/**
 	 * Constructs a panel with the vehicles, blocks, and game logic
 	 */	
 	public GamePanel() 
 	{
-		clicks = 0;
-		trailerNumber = 0;
-		vehicles = new ArrayList<Vehicle>();
-		loadedBlocks = new ArrayList<Block>();
-		blocks = new Stack<Block>();
+		this(new Simulation());
+	}
+	
+	/**
+	 * Constructs a panel that draws and passes its input to a simulation
+	 * @param simulation the Simulation of the game's objects and logic
+	 */	
+	public GamePanel(Simulation simulation) 
+	{
+		this.simulation = simulation;
+		spriteCache = new SpriteCache();
+		useSprites = true;
+		metrics = new FrameMetrics();
+		viewport = new Viewport(0, 0, 1, 0, 0, 1);
+		screenScale = 1;
+		visible = new ArrayList<Vehicle>();
+		bars = new ArrayList<Train>();
 
 		// Class that represents a listener used to draw the vehicles and blocks, and used to move the vehicles
 		class MouseEventListener implements MouseListener
 		{
 			@Override
+			// the left button works the game, where the game is under the mouse, and the other buttons drag the view
 			public void mousePressed(MouseEvent e) 
 			{
-				// draws the train engine
-				if(clicks == 0)
+				if(SwingUtilities.isLeftMouseButton(e))
 				{
-					Vehicle engine = new TrainEngine(e.getX(), e.getY());
-					vehicles.add(engine);
-					clicks++;
+					perform(EventJournal.PRESS, toGameX(e.getX()), toGameY(e.getY()));
 				}
-				// draws the rail cars
-				else if(clicks > 0 && clicks < 6)
-				{
-					trailerNumber++;
-					Vehicle trailer = new RailCar(e.getX(), e.getY(), trailerNumber);
-					vehicles.add(trailer);
-					clicks++;
-				}
-				// draws the block stack
-				else if(clicks == 6)
-				{
-					xStack = GameFrame.FRAME_WIDTH - TrainEngine.TOTAL_WIDTH;
-					yStack = GameFrame.FRAME_HEIGHT - 5 * TrainEngine.TOTAL_HEIGHT;
-					blocks.add(new Block(xStack, yStack, "A"));
-					blocks.add(new Block(xStack, yStack - Block.HEIGHT, "B"));
-					blocks.add(new Block(xStack, yStack - 2 * Block.HEIGHT, "C"));
-					blocks.add(new Block(xStack, yStack - 3 * Block.HEIGHT, "D"));
-					blocks.add(new Block(xStack, yStack - 4 * Block.HEIGHT, "E"));
-					clicks++;
-				}
-				// selects a vehicle
 				else
 				{
-					xSelect = e.getX();
-					ySelect = e.getY();
-					for(int i = 0; i < vehicles.size(); i++)
-					{
-						if(!vehicles.get(i).isTrailer())
-						{
-							vehicles.get(i).deselect();
-						}
-					}
-					for(int i = 0; i < vehicles.size(); i++)
-					{
-						if(vehicles.get(i).contains(new Point(xSelect, ySelect)))
-						{
-							if(!vehicles.get(i).isTrailer())
-							{
-								vehicles.get(i).select();
-								break;
-							}
-						}
-					}
+					panning = true;
+					panX = e.getX();
+					panY = e.getY();
 				}
 			}
 
@@ -104,24 +94,13 @@ public class GamePanel extends JPanel
 			// if the selected vehicle is overlapping the last trailer of linked vehicles, then it will attach it to the back of the link
 			public void mouseReleased(MouseEvent e) 
 			{
-				search:
-				for(int i = 1; i < vehicles.size(); i++)
+				if(SwingUtilities.isLeftMouseButton(e))
 				{
-					if(!vehicles.get(i).isTrailer() && vehicles.get(i).isSelected())
-					{
-						for(int j = 0; j < vehicles.size(); j++)
-						{
-							if(vehicles.get(i).overlaps(vehicles.get(j)) && 
-								!vehicles.get(i).equals(vehicles.get(j)) && 
-								!vehicles.get(j).isSelected() && 
-								!vehicles.get(j).hasTrailer())
-							{
-								vehicles.get(j).addLast(vehicles.get(i));
-								vehicles.get(i).deselect();
-								break search;
-							}
-						}
-					}
+					perform(EventJournal.RELEASE, toGameX(e.getX()), toGameY(e.getY()));
+				}
+				else
+				{
+					panning = false;
 				}
 			}
 			public void mouseClicked(MouseEvent e) {}
@@ -131,31 +110,27 @@ public class GamePanel extends JPanel
 		MouseListener mListener = new MouseEventListener();
 		this.addMouseListener(mListener);
 		
-		// Class that represents a listener used to repaint the game's graphics every 30 milliseconds
-		class UpdateTimerListener implements ActionListener 
-		{ 
-			public void actionPerformed(ActionEvent event) 
-			{
-				repaint();
-			}
-		}
-		ActionListener updateTimerListener = new UpdateTimerListener();
-		final int UPDATE_DELAY = 30; 
-		Timer updateTimer = new Timer(UPDATE_DELAY, updateTimerListener);
-		updateTimer.start();
-		
-		// Class that represents a listener used to update the location of a vehicle as it is dragged by the mouse
+		// Class that represents a listener used to update the location of a vehicle as it is dragged by the mouse,
+		// keeping only the last location until the next tick, since a mouse can report several drags between ticks
 		class MouseMotion implements MouseMotionListener 
 		{
 			public void mouseDragged(MouseEvent e) 
 			{
-				for(int i = 0; i < vehicles.size(); i++)
+				if(panning)
+				{
+					scrollBy((panX - e.getX()) / getZoom(), (panY - e.getY()) / getZoom());
+					panX = e.getX();
+					panY = e.getY();
+					return;
+				}
+				SimulationThread thread = simulationThread;
+				if(thread != null)
+				{
+					thread.drag(toGameX(e.getX()), toGameY(e.getY()), System.nanoTime());
+				}
+				else
 				{
-					if(vehicles.get(i).isSelected() && !vehicles.get(i).isTrailer())
-					{
-						vehicles.get(i).setLocation(e.getX(), e.getY());
-						break;
-					}
+					perform(EventJournal.DRAG, toGameX(e.getX()), toGameY(e.getY()));
 				}
 			}
 			
@@ -163,94 +138,704 @@ public class GamePanel extends JPanel
 		}
 		MouseMotionListener motionListener = new MouseMotion();
 		this.addMouseMotionListener(motionListener);
+		
+		// Class that represents a listener used to scroll the view with the wheel, across with the shift key held down,
+		// and to zoom the view about the mouse with the control key held down
+		class MouseWheel implements MouseWheelListener
+		{
+			public void mouseWheelMoved(MouseWheelEvent e)
+			{
+				double rotation = e.getPreciseWheelRotation();
+				if(e.isControlDown())
+				{
+					zoomAbout(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -rotation));
+				}
+				else if(e.isShiftDown())
+				{
+					scrollBy(rotation * SCROLL_STEP / getZoom(), 0);
+				}
+				else
+				{
+					scrollBy(0, rotation * SCROLL_STEP / getZoom());
+				}
+			}
+		}
+		MouseWheelListener wheelListener = new MouseWheel();
+		this.addMouseWheelListener(wheelListener);
 
 	}
 
 	/**
-	* Redraws all of the game's graphics each time the repaint method is called
+	 * Starts the simulation thread when the panel is shown
+	 */
+	public void addNotify()
+	{
+		super.addNotify();
+		simulationThread = new SimulationThread(this);
+		simulationThread.start();
+	}
+
+	/**
+	 * Stops the simulation thread when the panel stops being shown, after which the game is changed and drawn
+	 * by the thread that calls the panel's methods
+	 */
+	public void removeNotify()
+	{
+		simulationThread.stop();
+		simulationThread = null;
+		shownFrame = null;
+		super.removeNotify();
+	}
+
+	/**
+	* Draws the newest frame of the game each time the repaint method is called, or draws the game itself
+	* if there is no simulation thread
 	* @param g the Graphics object that is passed as a parameter
 	*/
-	public void paintComponent(Graphics g) 
+	public void paintComponent(Graphics g)
 	{
 		Graphics2D g2 = (Graphics2D) g;
+		// the view follows the size of the panel and the scale of the screen that it is drawn on
+		GraphicsConfiguration configuration = g2.getDeviceConfiguration();
+		if(configuration != paintedConfiguration)
+		{
+			paintedConfiguration = configuration;
+			AffineTransform transform = configuration.getDefaultTransform();
+			screenScale = Math.max(transform.getScaleX(), transform.getScaleY());
+		}
+		Viewport view = viewport.resized(getWidth(), getHeight(), screenScale);
+		SimulationThread thread = simulationThread;
+		if(view != viewport)
+		{
+			viewport = view;
+			if(thread != null)
+			{
+				thread.wake();
+			}
+		}
+
+		if(thread == null)
+		{
+			long start = System.nanoTime();
+			drawGame(g2, view, useSprites);
+			metrics.framePainted(start, System.nanoTime(), simulation.getVehicles().size(), simulation.getBlockCount());
+			simulation.getDirtyRegion().clear();
+		}
+		else
+		{
+			RenderFrame frame = thread.takeFrame(shownFrame);
+			if(frame != null)
+			{
+				shownFrame = frame;
+			}
+			// the background is cleared directly, since the default painting makes a copy of the graphics context each time
+			if(shownFrame == null || shownFrame.getViewport() != view)
+			{
+				g2.setColor(getBackground());
+				g2.fillRect(0, 0, getWidth(), getHeight());
+				g2.setColor(getForeground());
+			}
+			if(shownFrame != null)
+			{
+				showFrame(g2, shownFrame, view);
+			}
+			// the inputs that a frame shows have waited until it is on the screen
+			if(frame != null)
+			{
+				if(frame.getInputs() > 0)
+				{
+					metrics.inputsReceived(frame.getFirstInput(), frame.getInputs());
+				}
+				metrics.framePainted(frame.getDrawStart(), frame.getDrawEnd(), System.nanoTime(),
+										frame.getVehicleCount(), frame.getBlockCount());
+			}
+		}
+		if(showMetrics)
+		{
+			metrics.draw(g2);
+		}
+	}
+
+	/**
+	 * Draws a frame of the game on the panel. A frame drawn for an older view is moved and stretched to where its
+	 * part of the game is in the panel's view, so that scrolling and zooming follow the mouse until the next frame
+	 * @param g2 the graphics context of the panel
+	 * @param frame the RenderFrame to be drawn
+	 * @param view the Viewport of the panel
+	 */
+	private void showFrame(Graphics2D g2, RenderFrame frame, Viewport view)
+	{
+		BufferedImage image = frame.getImage();
+		Viewport drawn = frame.getViewport();
+		if(drawn == view && view.getScale() == 1)
+		{
+			g2.drawImage(image, 0, 0, null);
+			return;
+		}
+		double stretch = view.getZoom() / drawn.getZoom();
+		int x = (int) Math.round((drawn.getX() - view.getX()) * view.getZoom());
+		int y = (int) Math.round((drawn.getY() - view.getY()) * view.getZoom());
+		int width = (int) Math.round(image.getWidth() / drawn.getScale() * stretch);
+		int height = (int) Math.round(image.getHeight() / drawn.getScale() * stretch);
+		g2.drawImage(image, x, y, width, height, null);
+	}
+
+	/**
+	 * Draws the game as it is seen in a view, in the area of the view that is inside the clip of the graphics context
+	 * @param g2 the graphics context, drawing in the panel's coordinates
+	 * @param view the Viewport that the game is drawn in
+	 * @param sprites true to copy vehicles and blocks from pre-drawn images, false to draw them from their shapes
+	 */
+	public void drawGame(Graphics2D g2, Viewport view, boolean sprites)
+	{
+		double zoom = view.getZoom();
+		// the background is cleared directly, since the default painting makes a copy of the graphics context each time
+		g2.setColor(getBackground());
+		g2.fillRect(0, 0, view.getWidth(), view.getHeight());
+		g2.setColor(getForeground());
+		// shapes can only be drawn from their pixels on a screen that is not scaled, and in a view that is not zoomed
+		PixelShape.setEnabled(view.getScale() == 1 && zoom == 1);
+		// the game is drawn in its own coordinates, so the area to be drawn is found in them from the clip
+		AffineTransform panelTransform = g2.getTransform();
+		g2.scale(zoom, zoom);
+		g2.translate(-view.getX(), -view.getY());
+		Rectangle area = g2.getClipBounds();
+		if(area == null)
+		{
+			area = new Rectangle((int) Math.floor(view.getX()), (int) Math.floor(view.getY()),
+								(int) Math.ceil(view.getWidth() / zoom) + 1, (int) Math.ceil(view.getHeight() / zoom) + 1);
+		}
+		ArrayList<Vehicle> vehicles = simulation.getVehicles();
+		ArrayList<BlockStack> stacks = simulation.getStacks();
+
+		// a vehicle too small on the panel to show its wheels and number is drawn as a box, and one too small to be
+		// told apart from the vehicles next to it is drawn along with the rest of its chain as one bar
+		double carWidth = RailCar.TOTAL_WIDTH * zoom;
+		if(carWidth >= BAR_WIDTH)
+		{
+			// only the vehicles in the area are drawn when the spatial index can find them
+			visible.clear();
+			boolean culled = simulation.findVisible(area, visible);
+			if(carWidth >= DETAIL_WIDTH)
+			{
+				drawDetail(g2, area, culled, sprites ? spriteCache : null);
+			}
+			else if(vehicles != null)
+			{
+				drawSimplified(g2, culled ? visible : vehicles);
+			}
+		}
+		else
+		{
+			// the chains are found from their ends, without looking at the vehicles between them
+			bars.clear();
+			simulation.findVisibleTrains(area, bars);
+			drawSimplified(g2, null);
+		}
+
+		for(int i = 0; i < stacks.size(); i++)
+		{
+			Rectangle blockBase = stacks.get(i).getBase();
+			g2.fill(blockBase);
+			g2.draw(blockBase);
+		}
+		g2.setTransform(panelTransform);
+	}
+	
+	/**
+	 * Draws the vehicles and blocks in an area of the game with all of their detail
+	 * @param g2 the graphics context, drawing in the game's coordinates
+	 * @param area the Rectangle area of the game that is drawn
+	 * @param culled true if the visible list holds the vehicles in the area, false if every vehicle has to be drawn
+	 * @param sprites the SpriteCache of pre-drawn images, or null to draw the vehicles and blocks from their shapes
+	 */
+	private void drawDetail(Graphics2D g2, Rectangle area, boolean culled, SpriteCache sprites)
+	{
+		ArrayList<Vehicle> vehicles = simulation.getVehicles();
+		ArrayList<BlockStack> stacks = simulation.getStacks();
+		BlockRegistry loadedBlocks = simulation.getLoadedBlocks();
+		if(sprites != null)
+		{
+			sprites.begin(g2);
+		}
 		
-		if(vehicles != null)
+		// each chain is drawn from its back forward, as when whole chains are drawn
+		if(culled)
+		{
+			Collections.sort(visible, CHAIN_ORDER);
+			for(int i = 0; i < visible.size(); i++)
+			{
+				Vehicle v = visible.get(i);
+				if(sprites != null)
+				{
+					sprites.drawVehicle(g2, v);
+				}
+				else
+				{
+					v.drawVehicle(g2);
+				}
+			}
+		}
+		else if(vehicles != null)
 		{
 			for (int i = 0; i < vehicles.size(); i++) 
 			{
 				if(!vehicles.get(i).isTrailer())
 				{
-					vehicles.get(i).draw(g2);
+					vehicles.get(i).draw(g2, sprites);
 				}
 			}
 		}
 		
-		if(blocks != null)
+		// the blocks of each stack are placed when they are pushed, so they are drawn where they are
+		int top = area.y;
+		int bottom = area.y + area.height;
+		for(int i = 0; i < stacks.size(); i++)
 		{
-			for(int i = 0; i < blocks.size(); i++)
+			BlockStack blocks = stacks.get(i);
+			if(sprites != null)
+			{
+				sprites.drawStack(g2, blocks, top, bottom);
+			}
+			else
 			{
-				if(i == 0)
+				for(int j = blocks.getFirstVisible(bottom); j < blocks.size() && blocks.get(j).getY() + Block.HEIGHT + 2 >= top; j++)
 				{
-					blocks.get(i).setLocation(xStack, yStack);
+					drawBlock(g2, blocks.get(j), sprites);
 				}
-				else
+			}
+		}
+		
+		if(culled)
+		{
+			VehicleStore store = simulation.getStore();
+			for(int i = 0; i < visible.size(); i++)
+			{
+				Block load = store.getLoad(visible.get(i).getId());
+				if(load != null)
 				{
-					blocks.get(i).setLocation(blocks.get(i-1).getX(), blocks.get(i-1).getY() - Block.HEIGHT);
+					drawBlock(g2, load, sprites);
 				}
-				blocks.get(i).draw(g2);
 			}
 		}
-		
-		if(loadedBlocks != null)
+		else if(loadedBlocks != null)
 		{
 			for(int i = 0; i < loadedBlocks.size(); i++)
 			{
-				loadedBlocks.get(i).draw(g2);
+				drawBlock(g2, loadedBlocks.get(i), sprites);
 			}
 		}
+	}
+	
+	/**
+	 * Draws vehicles and blocks that are too small on the panel for their detail to be seen, either each vehicle and
+	 * loaded block as a filled box, or each chain as one bar, and each stack as one column
+	 * @param g2 the graphics context, drawing in the game's coordinates
+	 * @param drawn the ArrayList of the vehicles to be drawn as boxes, or null to draw each chain in the list of bars as a bar
+	 */
+	private void drawSimplified(Graphics2D g2, ArrayList<Vehicle> drawn)
+	{
+		if(drawn != null)
+		{
+			VehicleStore store = simulation.getStore();
+			for(int i = 0; i < drawn.size(); i++)
+			{
+				drawn.get(i).drawBox(g2);
+			}
+			for(int i = 0; i < drawn.size(); i++)
+			{
+				Block load = store.getLoad(drawn.get(i).getId());
+				if(load != null)
+				{
+					load.drawBox(g2);
+				}
+			}
+		}
+		else
+		{
+			for(int i = 0; i < bars.size(); i++)
+			{
+				drawBar(g2, bars.get(i));
+			}
+		}
+		ArrayList<BlockStack> stacks = simulation.getStacks();
+		g2.setColor(Block.BOX_COLOR);
+		for(int i = 0; i < stacks.size(); i++)
+		{
+			BlockStack blocks = stacks.get(i);
+			if(!blocks.isEmpty())
+			{
+				Block bottom = blocks.get(0);
+				Block top = blocks.peek();
+				g2.fillRect(bottom.getX(), top.getY(), Block.WIDTH, bottom.getY() + Block.HEIGHT - top.getY());
+			}
+		}
+		g2.setColor(getForeground());
+	}
+	
+	/**
+	 * Draws a chain as one bar from its head to its tail, red if its head is selected, with the share of its vehicles
+	 * that have a block loaded on them filled along the top half of the bar in the color of the blocks
+	 * @param g2 the graphics context, drawing in the game's coordinates
+	 * @param train the Train of the chain
+	 */
+	private void drawBar(Graphics2D g2, Train train)
+	{
+		Vehicle head = train.getHead();
+		Vehicle tail = train.getTail();
+		int left = Math.min(head.getX(), tail.getX());
+		int right = Math.max(head.getX() + head.getWidth(), tail.getX() + tail.getWidth());
+		int top = Math.min(head.getY(), tail.getY());
+		int bottom = Math.max(head.getY() + head.getHeight(), tail.getY() + tail.getHeight());
+		g2.setColor(head.isSelected() ? Color.RED : Color.BLACK);
+		g2.fillRect(left, top, right - left, bottom - top);
+		if(train.getLoadedCount() > 0)
+		{
+			g2.setColor(Block.BOX_COLOR);
+			g2.fillRect(left, top, (int) ((long) (right - left) * train.getLoadedCount() / train.getLength()), (bottom - top) / 2);
+		}
+		g2.setColor(Color.BLACK);
+	}
+	
+	/**
+	 * Class that represents the order that the vehicles in view are drawn in: the chains in the order of their heads,
+	 * as when each head draws its chain, and each chain from its back forward, since each trailer is behind its puller
+	 */
+	private static class ChainOrder implements Comparator<Vehicle>
+	{
+		public int compare(Vehicle a, Vehicle b)
+		{
+			int headA = a.getTrain().getHead().getIndex();
+			int headB = b.getTrain().getHead().getIndex();
+			if(headA != headB)
+			{
+				return headA < headB ? -1 : 1;
+			}
+			return Integer.compare(b.getX(), a.getX());
+		}
+	}
+	
+	/**
+	 * A method that returns the x coordinate of the game under a point of the panel
+	 * @param x the integer value of the x coordinate on the panel
+	 * @return the integer value of the x coordinate in the game
+	 */
+	public int toGameX(int x)
+	{
+		return viewport.toGameX(x);
+	}
+	
+	/**
+	 * A method that returns the y coordinate of the game under a point of the panel
+	 * @param y the integer value of the y coordinate on the panel
+	 * @return the integer value of the y coordinate in the game
+	 */
+	public int toGameY(int y)
+	{
+		return viewport.toGameY(y);
+	}
+	
+	/**
+	 * A method that moves the view across the game
+	 * @param dx the distance in the game to move the view right
+	 * @param dy the distance in the game to move the view down
+	 */
+	public void scrollBy(double dx, double dy)
+	{
+		setViewport(viewport.scrolledBy(dx, dy));
+	}
+	
+	/**
+	 * A method that zooms the view, keeping the point of the game under a point of the panel where it is
+	 * @param x the integer value of the x coordinate on the panel to zoom about
+	 * @param y the integer value of the y coordinate on the panel to zoom about
+	 * @param factor the number that the zoom is multiplied by, kept between the smallest and largest zoom
+	 */
+	public void zoomAbout(int x, int y, double factor)
+	{
+		setViewport(viewport.zoomedAbout(x, y, factor));
+	}
+	
+	/**
+	 * A method that shows another part of the game, which the simulation thread draws next
+	 * @param viewport the Viewport of the panel
+	 */
+	private void setViewport(Viewport viewport)
+	{
+		this.viewport = viewport;
+		SimulationThread thread = simulationThread;
+		if(thread != null)
+		{
+			thread.wake();
+		}
+		repaint();
+	}
+	
+	/**
+	 * A method that zooms the view in by one step, about the center of the panel
+	 */
+	public void zoomIn()
+	{
+		zoomAbout(getWidth() / 2, getHeight() / 2, ZOOM_STEP);
+	}
+	
+	/**
+	 * A method that zooms the view out by one step, about the center of the panel
+	 */
+	public void zoomOut()
+	{
+		zoomAbout(getWidth() / 2, getHeight() / 2, 1 / ZOOM_STEP);
+	}
+	
+	/**
+	 * A method that draws the game at its actual size again, about the center of the panel
+	 */
+	public void resetZoom()
+	{
+		zoomAbout(getWidth() / 2, getHeight() / 2, 1 / getZoom());
+	}
+	
+	/**
+	 * A method that returns the number of pixels of the panel that each unit of the game is drawn across
+	 * @return the zoom of the view, 1 at the game's actual size
+	 */
+	public double getZoom()
+	{
+		return viewport.getZoom();
+	}
+	
+	/**
+	 * A method that returns the part of the game that the panel shows
+	 * @return the Viewport of the panel
+	 */
+	public Viewport getViewport()
+	{
+		return viewport;
+	}
+	
+	/**
+	 * Draws a block, copying its pre-drawn image if a sprite cache is given
+	 * @param g2 the graphics context
+	 * @param block the Block to be drawn
+	 * @param sprites the SpriteCache of pre-drawn images, or null to draw the block from its shapes
+	 */
+	private void drawBlock(Graphics2D g2, Block block, SpriteCache sprites)
+	{
+		if(sprites != null)
+		{
+			sprites.drawBlock(g2, block);
+		}
+		else
+		{
+			block.draw(g2);
+		}
+	}
+	
+	/**
+	 * A method that sets whether vehicles and blocks are copied from pre-drawn images or drawn from their shapes
+	 * @param useSprites true to copy pre-drawn images, false to draw shapes
+	 */
+	public void setUseSprites(boolean useSprites)
+	{
+		this.useSprites = useSprites;
+		// the simulation thread owns the cache while it runs, and clears it when it sees the change
+		SimulationThread thread = simulationThread;
+		if(thread != null)
+		{
+			thread.wake();
+		}
+		else
+		{
+			spriteCache.clear();
+			repaint();
+		}
+	}
+	
+	/**
+	 * A method that checks if vehicles and blocks are copied from pre-drawn images or drawn from their shapes
+	 * @return true if pre-drawn images are copied, false otherwise
+	 */
+	public boolean isUsingSprites()
+	{
+		return useSprites;
+	}
+	
+	/**
+	 * A method that returns the measurements of the redraws and of the inputs that they show
+	 * @return the FrameMetrics of the panel
+	 */
+	public FrameMetrics getMetrics()
+	{
+		return metrics;
+	}
+	
+	/**
+	 * A method that sets whether the measurements of the redraws are drawn over the game
+	 * @param showMetrics true to draw the measurements, false to hide them
+	 */
+	public void setShowMetrics(boolean showMetrics)
+	{
+		this.showMetrics = showMetrics;
+		repaint();
+	}
+	
+	/**
+	 * A method that checks if the measurements of the redraws are drawn over the game
+	 * @return true if the measurements are drawn, false otherwise
+	 */
+	public boolean isShowMetrics()
+	{
+		return showMetrics;
+	}
+	
+	/**
+	 * A method that returns the cache of pre-drawn images of the vehicles and blocks
+	 * @return the SpriteCache of the panel
+	 */
+	public SpriteCache getSpriteCache()
+	{
+		return spriteCache;
+	}
+	
+	/**
+	 * A method that gives an input to the game, queueing it for the simulation thread while the panel is shown,
+	 * or applying it at once if it is not
+	 * @param type the type of the input, such as EventJournal.PRESS or EventJournal.POP
+	 * @param a the x coordinate of a mouse input, or the argument of another input, such as the tool of an EventJournal.TOOL input
+	 * @param b the y coordinate of a mouse input
+	 */
+	public void perform(int type, int a, int b)
+	{
+		long time = System.nanoTime();
+		SimulationThread thread = simulationThread;
+		if(thread != null)
+		{
+			thread.post(type, a, b, time);
+			return;
+		}
+		apply(type, a, b);
+		// only an input that changed something waits for a redraw to show it
+		if(!simulation.getDirtyRegion().isEmpty())
+		{
+			metrics.inputReceived(time);
+		}
+	}
+	
+	/**
+	 * A method that records an input to the journal, if there is one, and gives it to the game, on the thread that
+	 * changes the game
+	 * @param type the type of the input, such as EventJournal.PRESS or EventJournal.POP
+	 * @param a the x coordinate of a mouse input, or the argument of another input, such as the tool of an EventJournal.TOOL input
+	 * @param b the y coordinate of a mouse input
+	 */
+	public void apply(int type, int a, int b)
+	{
+		if(journal != null)
+		{
+			journal.record(type, a, b);
+		}
+		if(type == EventJournal.NEW)
+		{
+			reset();
+		}
+		else
+		{
+			EventJournal.apply(simulation, type, a, b);
+		}
+		// the trains can be stopped by the game as well as by the menu, such as after a tick that failed
+		if(type == EventJournal.ANIMATE)
+		{
+			fireAnimating(simulation.isAnimating());
+		}
+	}
+	
+	/**
+	 * A method that tells the listeners of the panel's animating property, on the event dispatch thread, whether the
+	 * trains are animated, so that a menu item that turns the animation on and off shows what the game is doing
+	 * @param animating true if the trains are animated, false otherwise
+	 */
+	private void fireAnimating(final boolean animating)
+	{
+		// a panel without listeners, such as one replaying a journal without a screen, does not start the event thread
+		if(getPropertyChangeListeners(ANIMATING_PROPERTY).length == 0)
+		{
+			return;
+		}
 		
-		if(clicks == 7)
+		// A class that represents the telling of the listeners
+		class AnimatingChange implements Runnable
 		{
-			blockBase = new Rectangle(xStack - Block.WIDTH, yStack + Block.HEIGHT, 3 * Block.WIDTH, Block.HEIGHT/2);
-			g2.fill(blockBase);
-			g2.draw(blockBase);
-		}	
+			public void run()
+			{
+				firePropertyChange(ANIMATING_PROPERTY, !animating, animating);
+			}
+		}
+		SwingUtilities.invokeLater(new AnimatingChange());
+	}
+	
+	/**
+	 * A method that runs a task that reads or changes the game, such as saving it, on the simulation thread after
+	 * the inputs queued before it, or at once if the panel is not shown
+	 * @param task the Runnable to be run
+	 */
+	public void invoke(Runnable task)
+	{
+		SimulationThread thread = simulationThread;
+		if(thread == null || thread.isCurrent())
+		{
+			task.run();
+		}
+		else
+		{
+			thread.post(task);
+		}
 	}
 	
 	/**
-	 * A method that returns the list of vehicles
-	 * @return the ArrayList of vehicles
+	 * A method that replaces the game with another, such as one loaded from a snapshot, keeping the chosen tool,
+	 * and records the new game to the journal, if there is one. While the panel is shown, it is called by a task
+	 * given to the invoke method
+	 * @param simulation the Simulation to be drawn and given the input
 	 */
-	public ArrayList<Vehicle> getVehicles()
+	public void setSimulation(Simulation simulation)
 	{
-		return vehicles;
+		if(journal != null)
+		{
+			journal.recordOpen(simulation);
+		}
+		simulation.setTool(this.simulation.getTool());
+		simulation.setAnimator(this.simulation.getAnimator());
+		this.simulation = simulation;
+		spriteCache.clear();
+		simulation.getDirtyRegion().addAll();
+		repaint();
 	}
 	
 	/**
-	 * A method that returns the stack of blocks
-	 * @return the Stack of blocks
+	 * A method that sets the file that every input is recorded to
+	 * @param journal the EventJournal of the panel, or null to stop recording
 	 */
-	public Stack<Block> getBlocks()
+	public void setJournal(EventJournal journal)
 	{
-		return blocks;
+		this.journal = journal;
 	}
 	
 	/**
-	 * A method that adds the specified block to the ArrayList of loaded blocks
-	 * @param block the block that was loaded
+	 * A method that returns the file that every input is recorded to
+	 * @return the EventJournal of the panel, or null
 	 */
-	public void addLoadedBlock(Block block)
+	public EventJournal getJournal()
 	{
-		loadedBlocks.add(block);
+		return journal;
 	}
 	
 	/**
-	 * A method that returns the ArrayList of loaded blocks
-	 * @return the ArrayList of loaded blocks
+	 * A method that returns the game's objects and logic
+	 * @return the Simulation that the panel draws and passes its input to
 	 */
-	public ArrayList<Block> getLoadedBlocks()
+	public Simulation getSimulation()
 	{
-		return loadedBlocks;
+		return simulation;
 	}
 	
 	/**
@@ -258,16 +843,8 @@ public class GamePanel extends JPanel
 	 */
 	public void reset()
 	{
-		clicks = 0;
-		trailerNumber = 0;
-		blockBase = null;
-		vehicles = new ArrayList<Vehicle>();
-		loadedBlocks = new ArrayList<Block>();
-		blocks = new Stack<Block>();
-		xStack = 0;
-		yStack = 0;
-		xSelect = 0;
-		ySelect = 0;
+		simulation.reset();
+		spriteCache.clear();
 	}
 }
 
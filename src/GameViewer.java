@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import javax.swing.JFrame;
 
 /**
@@ -6,13 +8,28 @@ import javax.swing.JFrame;
  * @version March 25, 2015
  */
 public class GameViewer
-{  
-	// Creates a Game Frame and runs the game
-   public static void main(String[] args)
-   {  
-      JFrame frame = new GameFrame();
+{
+	// Creates a Game Frame and runs the game, recording every input to a journal when run with: -journal journal-file
+   public static void main(String[] args) throws IOException
+   {
+      GameFrame frame = new GameFrame();
+      if(args.length > 1 && args[0].equals("-journal"))
+      {
+         final EventJournal journal = new EventJournal(Paths.get(args[1]), frame.getPanel().getSimulation().getSeed());
+         frame.getPanel().setJournal(journal);
+
+         // Class that represents the writing of the rest of the journal when the program ends
+         class JournalCloser implements Runnable
+         {
+            public void run()
+            {
+               journal.close();
+            }
+         }
+         Runtime.getRuntime().addShutdownHook(new Thread(new JournalCloser()));
+      }
       frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
       frame.setTitle("Data Structure Simulator");
-      frame.setVisible(true);      
+      frame.setVisible(true);
    }
 }
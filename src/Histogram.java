@@ -0,0 +1,141 @@
+import java.util.Arrays;
+
+/**
+ * Class that represents a count of recorded values, such as the nanoseconds a redraw took, in a fixed set of buckets.
+ * Each power of two is split into eight buckets, so that a percentile is known to within an eighth of its value
+ * while recording a value only adds one to a counter, and the histogram never grows however many values it holds
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class Histogram
+{
+	private static final int SUB_BITS = 3;						// the number of bits that split each power of two into buckets
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;		// the number of buckets of each power of two
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;	// the number of buckets, enough for every long
+
+	private long[] counts;			// the number of values recorded in each bucket
+	private long count;				// the number of values recorded
+	private long sum;				// the sum of the values recorded
+	private long max;				// the largest value recorded
+
+	/**
+	 * Constructs an empty Histogram object
+	 */
+	public Histogram()
+	{
+		counts = new long[BUCKETS];
+	}
+
+	/**
+	 * A method that records a value
+	 * @param value the value to be recorded, with a negative value recorded as zero
+	 */
+	public void record(long value)
+	{
+		value = Math.max(value, 0);
+		counts[bucketOf(value)]++;
+		count++;
+		sum += value;
+		if(value > max)
+		{
+			max = value;
+		}
+	}
+
+	/**
+	 * A method that returns the bucket of a value: the values below SUB_BUCKETS have a bucket each, and every
+	 * higher power of two is split into SUB_BUCKETS buckets by the bits that follow its highest bit
+	 * @param value the value, which is not negative
+	 * @return the integer position of the value's bucket
+	 */
+	private static int bucketOf(long value)
+	{
+		if(value < SUB_BUCKETS)
+		{
+			return (int) value;
+		}
+		int highest = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (highest - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return ((highest - SUB_BITS + 1) << SUB_BITS) + sub;
+	}
+
+	/**
+	 * A method that returns the largest value that falls in a bucket
+	 * @param bucket the integer position of the bucket
+	 * @return the largest value of the bucket
+	 */
+	private static long highestOf(int bucket)
+	{
+		if(bucket < SUB_BUCKETS)
+		{
+			return bucket;
+		}
+		int highest = (bucket >> SUB_BITS) + SUB_BITS - 1;
+		long sub = bucket & (SUB_BUCKETS - 1);
+		long lowest = (1L << highest) + (sub << (highest - SUB_BITS));
+		return lowest + (1L << (highest - SUB_BITS)) - 1;
+	}
+
+	/**
+	 * A method that returns a value that a fraction of the recorded values are at or below
+	 * @param fraction the fraction of the values, from 0 to 1, such as 0.99 for the 99th percentile
+	 * @return the largest value of the bucket that holds the percentile, but no more than the largest value recorded,
+	 * or 0 if nothing has been recorded
+	 */
+	public long getPercentile(double fraction)
+	{
+		if(count == 0)
+		{
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(fraction * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			seen += counts[i];
+			if(seen >= rank)
+			{
+				return Math.min(highestOf(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * A method that returns the number of values recorded
+	 * @return the number of values
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * A method that returns the average of the values recorded
+	 * @return the average value, or 0 if nothing has been recorded
+	 */
+	public double getMean()
+	{
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * A method that returns the largest value recorded
+	 * @return the largest value, or 0 if nothing has been recorded
+	 */
+	public long getMax()
+	{
+		return max;
+	}
+
+	/**
+	 * A method that throws away every value recorded
+	 */
+	public void clear()
+	{
+		Arrays.fill(counts, 0);
+		count = 0;
+		sum = 0;
+		max = 0;
+	}
+}
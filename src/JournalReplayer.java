@@ -0,0 +1,367 @@
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+/**
+ * Class that represents a reader of the events of a journal written by EventJournal, which can replay a game
+ * without a screen as fast as possible and report how long each type of event took, or replay it in the game's
+ * frame with the time that was recorded between the events.
+ * Run it with: java JournalReplayer journal-file [-timed]
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class JournalReplayer
+{
+	private static final int BUFFER_SIZE = 64 * 1024;	// the number of bytes read from the file at a time
+
+	private FileChannel channel;		// the journal that the events are read from
+	private ByteBuffer buffer;			// the bytes read from the file that have not been read as events yet
+	private boolean endOfFile;			// used to check if every byte of the file has been read into the buffer
+	private long seed;					// the seed of the simulation whose input was recorded
+	private int type;					// the type of the last event read
+	private int a;						// the x coordinate of the last event read, or its argument
+	private int b;						// the y coordinate of the last event read
+	private int delay;					// the milliseconds between the last event read and the event before it
+	private Simulation opened;			// the game recorded with the last OPEN event read, or null
+
+	/**
+	 * Constructs a JournalReplayer object that reads the events of a journal
+	 * @param file the Path of the journal
+	 * @throws IOException if the file can not be read or is not a journal
+	 */
+	public JournalReplayer(Path file) throws IOException
+	{
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		buffer.limit(0);
+		fill();
+		if(buffer.remaining() < 12 || buffer.getInt() != EventJournal.MAGIC)
+		{
+			channel.close();
+			throw new IOException(file + " is not a journal");
+		}
+		seed = buffer.getLong();
+	}
+
+	/**
+	 * A method that reads the next event, ignoring an event that was cut off at the end of the file;
+	 * the game recorded with an OPEN event is read along with it
+	 * @return true if an event was read, false if there are no more events
+	 * @throws IOException if the file can not be read, or the game recorded with an OPEN event is damaged
+	 * @throws IllegalArgumentException if an event has an unknown type
+	 */
+	public boolean next() throws IOException
+	{
+		if(buffer.remaining() < EventJournal.MAX_RECORD)
+		{
+			fill();
+		}
+		if(!buffer.hasRemaining())
+		{
+			return false;
+		}
+		try
+		{
+			type = buffer.get();
+			if(type < EventJournal.PRESS || type > EventJournal.OPEN)
+			{
+				throw new IllegalArgumentException("Unknown journal event " + type);
+			}
+			delay = EventJournal.getVarint(buffer);
+			int arguments = EventJournal.argumentCount(type);
+			a = arguments > 0 ? EventJournal.unzigzag(EventJournal.getVarint(buffer)) : 0;
+			b = arguments > 1 ? EventJournal.unzigzag(EventJournal.getVarint(buffer)) : 0;
+			if(type == EventJournal.OPEN)
+			{
+				opened = readOpened(a);
+				return opened != null;
+			}
+			return true;
+		}
+		catch(BufferUnderflowException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * A method that reads the snapshot of the game that follows an OPEN event
+	 * @param size the integer number of bytes of the seed and snapshot of the game
+	 * @return the Simulation that was opened, or null if the snapshot was cut off at the end of the file
+	 * @throws IOException if the file can not be read or the snapshot is damaged
+	 */
+	private Simulation readOpened(int size) throws IOException
+	{
+		if(size < 8)
+		{
+			throw new IOException("The journal holds a damaged game");
+		}
+		ByteBuffer snapshot = ByteBuffer.allocate(size);
+		while(snapshot.hasRemaining())
+		{
+			if(!buffer.hasRemaining())
+			{
+				fill();
+				if(!buffer.hasRemaining())
+				{
+					return null;
+				}
+			}
+			ByteBuffer part = buffer.duplicate();
+			part.limit(part.position() + Math.min(part.remaining(), snapshot.remaining()));
+			snapshot.put(part);
+			buffer.position(part.position());
+		}
+		snapshot.flip();
+		Simulation simulation = new Simulation(snapshot.getLong());
+		try
+		{
+			simulation.readSnapshot(snapshot);
+		}
+		catch(RuntimeException e)
+		{
+			throw new IOException("The journal holds a damaged game", e);
+		}
+		return simulation;
+	}
+
+	/**
+	 * A method that moves the unread bytes to the start of the buffer and reads more of the file after them
+	 * @throws IOException if the file can not be read
+	 */
+	private void fill() throws IOException
+	{
+		if(endOfFile)
+		{
+			return;
+		}
+		buffer.compact();
+		while(buffer.hasRemaining())
+		{
+			if(channel.read(buffer) < 0)
+			{
+				endOfFile = true;
+				break;
+			}
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * A method that closes the journal
+	 * @throws IOException if the file can not be closed
+	 */
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	/**
+	 * A method that returns the seed of the simulation whose input was recorded
+	 * @return the seed of the simulation
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * A method that returns the type of the last event read
+	 * @return the type of the event, such as EventJournal.PRESS
+	 */
+	public int getType()
+	{
+		return type;
+	}
+
+	/**
+	 * A method that returns the x coordinate of the last event read, or the tool of a TOOL event
+	 * @return the integer x coordinate
+	 */
+	public int getX()
+	{
+		return a;
+	}
+
+	/**
+	 * A method that returns the y coordinate of the last event read
+	 * @return the integer y coordinate
+	 */
+	public int getY()
+	{
+		return b;
+	}
+
+	/**
+	 * A method that returns the game recorded with the last OPEN event read
+	 * @return the Simulation that was opened, or null if no OPEN event has been read
+	 */
+	public Simulation getOpened()
+	{
+		return opened;
+	}
+
+	/**
+	 * A method that returns the milliseconds between the last event read and the event before it
+	 * @return the integer number of milliseconds
+	 */
+	public int getDelay()
+	{
+		return delay;
+	}
+
+	/**
+	 * A method that replays every event of the journal on a simulation as fast as possible, timing each one;
+	 * an OPEN event replaces the simulation with the game that was opened, keeping the chosen tool as the panel does
+	 * @param simulation the Simulation that the events are given to, made with the journal's seed
+	 * @return the Simulation that the last event was given to
+	 * @throws IOException if the file can not be read
+	 */
+	public Simulation replay(Simulation simulation) throws IOException
+	{
+		int names = EventJournal.NAMES.length;
+		long[][] latencies = new long[names][16];
+		int[] counts = new int[names];
+		int total = 0;
+		long start = System.nanoTime();
+		while(next())
+		{
+			long before = System.nanoTime();
+			if(type == EventJournal.OPEN)
+			{
+				opened.setTool(simulation.getTool());
+				opened.setAnimator(simulation.getAnimator());
+				simulation = opened;
+			}
+			else
+			{
+				EventJournal.apply(simulation, type, a, b);
+			}
+			long latency = System.nanoTime() - before;
+			if(counts[type] == latencies[type].length)
+			{
+				latencies[type] = Arrays.copyOf(latencies[type], 2 * counts[type]);
+			}
+			latencies[type][counts[type]++] = latency;
+			total++;
+		}
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println(String.format(Locale.ROOT, "%d events in %.1f ms, %.0f ops/sec", total, elapsed / 1e6,
+				elapsed > 0 ? total * 1e9 / elapsed : 0.0));
+		System.out.println(String.format(Locale.ROOT, "%-16s %10s %12s %12s %12s %12s", "event", "count",
+				"ns (avg)", "ns (p50)", "ns (p99)", "ns (max)"));
+		for(int i = 1; i < names; i++)
+		{
+			int n = counts[i];
+			if(n == 0)
+			{
+				continue;
+			}
+			long[] sorted = latencies[i];
+			Arrays.sort(sorted, 0, n);
+			long sum = 0;
+			for(int j = 0; j < n; j++)
+			{
+				sum += sorted[j];
+			}
+			System.out.println(String.format(Locale.ROOT, "%-16s %10d %12.1f %12d %12d %12d", EventJournal.NAMES[i], n,
+					(double) sum / n, sorted[n / 2], sorted[Math.min(n - 1, (int) (0.99 * n))], sorted[n - 1]));
+		}
+		return simulation;
+	}
+
+	/**
+	 * A method that replays every event of the journal in the game's frame, waiting the recorded time between the events;
+	 * the ticks of the trains' animation are only waited for, since the frame drives the trains itself while they are animated
+	 * @throws IOException if the file can not be read
+	 * @throws InterruptedException if the replay is interrupted while it waits
+	 * @throws InvocationTargetException if an event fails in the game's frame
+	 */
+	public void replayTimed() throws IOException, InterruptedException, InvocationTargetException
+	{
+		GameFrame frame = new GameFrame(new Simulation(seed));
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		frame.setTitle("Data Structure Simulator (replay)");
+		frame.setVisible(true);
+		final GamePanel panel = frame.getPanel();
+
+		// Class that represents the replacing of the game with one that was opened, on the thread that changes the game
+		class OpenTask implements Runnable
+		{
+			private Simulation simulation;	// the Simulation that was opened
+
+			OpenTask(Simulation simulation)
+			{
+				this.simulation = simulation;
+			}
+
+			public void run()
+			{
+				panel.setSimulation(simulation);
+			}
+		}
+		// Class that represents the giving of one event to the panel on the event dispatch thread
+		class EventRunner implements Runnable
+		{
+			public void run()
+			{
+				if(type == EventJournal.OPEN)
+				{
+					panel.invoke(new OpenTask(opened));
+				}
+				else
+				{
+					panel.perform(type, a, b);
+				}
+			}
+		}
+		Runnable runner = new EventRunner();
+		while(next())
+		{
+			if(delay > 0)
+			{
+				Thread.sleep(delay);
+			}
+			if(type != EventJournal.TICK)
+			{
+				SwingUtilities.invokeAndWait(runner);
+			}
+		}
+	}
+
+	// Replays a journal, as fast as possible or in the game's frame with its recorded timing
+	public static void main(String[] args) throws Exception
+	{
+		if(args.length == 0)
+		{
+			System.err.println("Usage: java JournalReplayer journal-file [-timed]");
+			System.exit(1);
+		}
+		JournalReplayer replayer = new JournalReplayer(Paths.get(args[0]));
+		try
+		{
+			if(args.length > 1 && args[1].equals("-timed"))
+			{
+				replayer.replayTimed();
+			}
+			else
+			{
+				replayer.replay(new Simulation(replayer.getSeed()));
+			}
+		}
+		finally
+		{
+			replayer.close();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+
+/**
+ * Class that represents a shape that has been turned into rows of pixels once, so that it can be drawn
+ * again and again with plain rectangle fills, which do not create any objects while drawing
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class PixelShape
+{
+	private static boolean enabled = true;	// used to check if shapes are drawn from their pixels or from their outlines
+
+	private Shape shape;					// the shape that the pixels were made from
+	private boolean filled;					// used to check if the shape is filled or only outlined
+	private int[] runs;						// the x, y and width of each row of pixels, one after another
+
+	/**
+	 * Constructs a PixelShape object from a shape that is located relative to the origin
+	 * @param shape the Shape to be turned into pixels, whose bounds must not be negative
+	 * @param filled true if the shape is filled, false if only its outline is drawn
+	 */
+	public PixelShape(Shape shape, boolean filled)
+	{
+		this.shape = shape;
+		this.filled = filled;
+		Rectangle bounds = shape.getBounds();
+		int width = bounds.x + bounds.width + 2;
+		int height = bounds.y + bounds.height + 2;
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2 = image.createGraphics();
+		g2.setColor(Color.BLACK);
+		if(filled)
+		{
+			g2.fill(shape);
+		}
+		else
+		{
+			g2.draw(shape);
+		}
+		g2.dispose();
+
+		// each row is scanned for unbroken runs of drawn pixels
+		int[] found = new int[3 * width * height];
+		int count = 0;
+		for(int y = 0; y < height; y++)
+		{
+			int x = 0;
+			while(x < width)
+			{
+				if((image.getRGB(x, y) >>> 24) == 0)
+				{
+					x++;
+					continue;
+				}
+				int start = x;
+				while(x < width && (image.getRGB(x, y) >>> 24) != 0)
+				{
+					x++;
+				}
+				found[count++] = start;
+				found[count++] = y;
+				found[count++] = x - start;
+			}
+		}
+		runs = new int[count];
+		System.arraycopy(found, 0, runs, 0, count);
+	}
+
+	/**
+	 * Draws the shape with the current color, relative to the current translation of the graphics context
+	 * @param g2 the graphics context
+	 */
+	public void draw(Graphics2D g2)
+	{
+		if(!enabled)
+		{
+			if(filled)
+			{
+				g2.fill(shape);
+			}
+			else
+			{
+				g2.draw(shape);
+			}
+			return;
+		}
+		for(int i = 0; i < runs.length; i += 3)
+		{
+			g2.fillRect(runs[i], runs[i + 1], runs[i + 2], 1);
+		}
+	}
+
+	/**
+	 * A method that sets whether shapes are drawn from their pixels, which is only exact when the graphics context
+	 * is not scaled, or from their outlines
+	 * @param enabled true to draw shapes from their pixels, false to draw them from their outlines
+	 */
+	public static void setEnabled(boolean enabled)
+	{
+		PixelShape.enabled = enabled;
+	}
+
+	/**
+	 * A method that checks if shapes are drawn from their pixels
+	 * @return true if shapes are drawn from their pixels, false if they are drawn from their outlines
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+}
@@ -23,42 +23,41 @@ public class RailCar extends Vehicle
     public static final int BODY_HEIGHT = U2 ;
     
     private int number;									// the number on the rail car
+    private String label;								// the number on the rail car, as it is drawn, made the first time it is drawn
     public static final int TOTAL_WIDTH = U6 + U05;	// the width of the rail car's bounding box
     public static final int TOTAL_HEIGHT = U2;			// the height of the rail car's bounding box
     
+    /**
+       Shapes of the rail car relative to the upper left corner of its bounding box, 
+       which are shared by every rail car and moved into place with a translation when drawn
+     */
+    private static final Rectangle2D.Double BODY = new Rectangle2D.Double(0, 0, U6, UNIT) ;
+    private static final PixelShape FRONT_TIRE = new PixelShape(new Ellipse2D.Double(UNIT, UNIT, UNIT, UNIT), false) ;
+    private static final PixelShape REAR_TIRE = new PixelShape(new Ellipse2D.Double(U4, UNIT, UNIT, UNIT), false) ;
+    private static final Line2D.Double HITCH = new Line2D.Double(U6, U15, U6 + U05, U15) ;
+    
     /**
      * Constructs a RailCar object with a number on it
+     * @param store the VehicleStore that holds the rail car
      * @param x the integer value of the upper left x coordinate location of the rail car
      * @param y the integer value of the upper left y coordinate location of the rail car
      * @param number the integer value of the rail car's number
      */
-    public RailCar(int x, int y, int number)
+    public RailCar(VehicleStore store, int x, int y, int number)
     {
+    	super(store);
     	setBox(x, y, TOTAL_WIDTH, TOTAL_HEIGHT);
     	this.number = number;
     }
     
     /**
-       Draw the rail car
+       Draw the rail car, without its trailers
        @param g2 the graphics context
      */
-    public void draw(Graphics2D g2)
+    public void drawVehicle(Graphics2D g2)
     {
-		int yTop = getY() ;		
-		Rectangle2D.Double body 
-		    = new Rectangle2D.Double(getX(), yTop, U6, UNIT);      
-		Ellipse2D.Double frontTire 
-		    = new Ellipse2D.Double(getX() + UNIT, yTop + UNIT, UNIT, UNIT);
-		Ellipse2D.Double rearTire
-		    = new Ellipse2D.Double(getX() + U4, yTop + UNIT, UNIT, UNIT);	
-		// the right end of the hitch
-		Point2D.Double r5 
-		    = new Point2D.Double(getX() + U6, yTop + U15);
-		// the left end of the hitch
-		Point2D.Double r6 
-		    = new Point2D.Double(getX() + U6 + U05, yTop + U15);
-		Line2D.Double hitch
-		    = new Line2D.Double(r5, r6);
+		int x1 = getX() ;
+		int yTop = getY() ;
 		if(isSelected())
 		{
 			g2.setColor(Color.RED);
@@ -67,21 +66,18 @@ public class RailCar extends Vehicle
 		{
 			g2.setColor(Color.BLACK);
 		}
-		g2.draw(body);
-		g2.draw(hitch);
-		g2.draw(frontTire);
-		g2.draw(rearTire);
-		g2.draw(body) ;
-		g2.drawString("" + getNumber(), getX() + U2, yTop + UNIT) ;
-		g2.setColor(Color.BLACK);
-		
-		// recursively draws linked vehicles
-		if(hasTrailer())
+		if(label == null)
 		{
-			trailer = (RailCar) trailer;
-			if(trailer != null)
-			trailer.draw(g2);
+			label = "" + number;
 		}
+		g2.translate(x1, yTop) ;
+		g2.draw(BODY);
+		g2.draw(HITCH);
+		FRONT_TIRE.draw(g2);
+		REAR_TIRE.draw(g2);
+		g2.drawString(label, U2, UNIT) ;
+		g2.translate(-x1, -yTop) ;
+		g2.setColor(Color.BLACK);
     }
     
 	/**
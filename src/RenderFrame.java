@@ -0,0 +1,135 @@
+import java.awt.image.BufferedImage;
+
+/**
+ * Class that represents one drawing of the game, made by the simulation thread and shown by the panel: the image,
+ * the view it was drawn for, and the measurements that the panel records when it shows it. A frame is only drawn
+ * into by the thread that owns it, and is handed from one thread to the other by an atomic swap; once drawn, it is
+ * only read, by the panel showing it and by the thread copying it into the next frame
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class RenderFrame
+{
+	private BufferedImage image;	// the drawing of the game, in pixels of the screen
+	private Viewport viewport;		// the view that the image was drawn for
+	private long drawStart;			// the time that the drawing started, in nanoseconds from System.nanoTime
+	private long drawEnd;			// the time that the drawing ended, in nanoseconds from System.nanoTime
+	private long firstInput;		// the time of the first input that the frame is the first to show
+	private int inputs;				// the number of inputs that the frame is the first to show
+	private int vehicleCount;		// the number of vehicles when the frame was drawn
+	private int blockCount;			// the number of blocks when the frame was drawn
+
+	/**
+	 * Constructs a RenderFrame object with an image of a size
+	 * @param width the width of the image in pixels
+	 * @param height the height of the image in pixels
+	 */
+	public RenderFrame(int width, int height)
+	{
+		image = new BufferedImage(Math.max(width, 1), Math.max(height, 1), BufferedImage.TYPE_INT_RGB);
+	}
+
+	/**
+	 * A method that checks if the image is the size needed for a view
+	 * @param width the width needed in pixels
+	 * @param height the height needed in pixels
+	 * @return true if the image has the size, false otherwise
+	 */
+	public boolean hasSize(int width, int height)
+	{
+		return image.getWidth() == Math.max(width, 1) && image.getHeight() == Math.max(height, 1);
+	}
+
+	/**
+	 * A method that records what the image shows, once it has been drawn
+	 * @param viewport the Viewport that the image was drawn for
+	 * @param drawStart the time that the drawing started, in nanoseconds
+	 * @param drawEnd the time that the drawing ended, in nanoseconds
+	 * @param firstInput the time of the first input that the frame is the first to show, in nanoseconds
+	 * @param inputs the number of inputs that the frame is the first to show
+	 * @param vehicleCount the number of vehicles in the game
+	 * @param blockCount the number of blocks in the game
+	 */
+	public void drawn(Viewport viewport, long drawStart, long drawEnd, long firstInput, int inputs, int vehicleCount, int blockCount)
+	{
+		this.viewport = viewport;
+		this.drawStart = drawStart;
+		this.drawEnd = drawEnd;
+		this.firstInput = firstInput;
+		this.inputs = inputs;
+		this.vehicleCount = vehicleCount;
+		this.blockCount = blockCount;
+	}
+
+	/**
+	 * A method that returns the drawing of the game
+	 * @return the BufferedImage of the frame
+	 */
+	public BufferedImage getImage()
+	{
+		return image;
+	}
+
+	/**
+	 * A method that returns the view that the image was drawn for
+	 * @return the Viewport of the frame
+	 */
+	public Viewport getViewport()
+	{
+		return viewport;
+	}
+
+	/**
+	 * A method that returns the time that the drawing started
+	 * @return the time in nanoseconds from System.nanoTime
+	 */
+	public long getDrawStart()
+	{
+		return drawStart;
+	}
+
+	/**
+	 * A method that returns the time that the drawing ended
+	 * @return the time in nanoseconds from System.nanoTime
+	 */
+	public long getDrawEnd()
+	{
+		return drawEnd;
+	}
+
+	/**
+	 * A method that returns the time of the first input that the frame is the first to show
+	 * @return the time in nanoseconds from System.nanoTime, meaningless if there are no inputs
+	 */
+	public long getFirstInput()
+	{
+		return firstInput;
+	}
+
+	/**
+	 * A method that returns the number of inputs that the frame is the first to show
+	 * @return the integer number of inputs
+	 */
+	public int getInputs()
+	{
+		return inputs;
+	}
+
+	/**
+	 * A method that returns the number of vehicles when the frame was drawn
+	 * @return the integer number of vehicles
+	 */
+	public int getVehicleCount()
+	{
+		return vehicleCount;
+	}
+
+	/**
+	 * A method that returns the number of blocks when the frame was drawn
+	 * @return the integer number of blocks
+	 */
+	public int getBlockCount()
+	{
+		return blockCount;
+	}
+}
@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class that represents the file format of a saved game, a header with the format's version followed by the game
+ * as Simulation writes it. The file is mapped into memory, so that the arrays of the vehicles' properties are copied
+ * between the file and the game all at once, without going through a stream
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class SceneSnapshot
+{
+	public static final int MAGIC = 0x44535331;		// the first four bytes of every snapshot, "DSS1"
+	public static final int VERSION = 1;			// the version of the format that is written
+	private static final int HEADER_SIZE = 4 + 4 + 8;	// the number of bytes of the magic number, the version and the seed
+
+	/**
+	 * A method that saves a game to a file, replacing any file that is already there
+	 * @param simulation the Simulation to be saved
+	 * @param file the Path of the snapshot
+	 * @throws IOException if the file can not be written or the game is too big for a snapshot
+	 */
+	public static void save(Simulation simulation, Path file) throws IOException
+	{
+		long size = HEADER_SIZE + simulation.getSnapshotSize();
+		if(size > Integer.MAX_VALUE)
+		{
+			throw new IOException("The game is too big to be saved");
+		}
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try
+		{
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putLong(simulation.getSeed());
+			simulation.writeSnapshot(buffer);
+			buffer.force();
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+
+	/**
+	 * A method that loads a game from a file
+	 * @param file the Path of the snapshot
+	 * @return the Simulation of the saved game
+	 * @throws IOException if the file can not be read, is not a snapshot, or is damaged
+	 */
+	public static Simulation load(Path file) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try
+		{
+			if(channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE)
+			{
+				throw new IOException(file + " is not a saved game");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.getInt() != MAGIC)
+			{
+				throw new IOException(file + " is not a saved game");
+			}
+			int version = buffer.getInt();
+			if(version != VERSION)
+			{
+				throw new IOException(file + " was saved in version " + version + " of the format, which can not be read");
+			}
+			Simulation simulation = new Simulation(buffer.getLong());
+			try
+			{
+				simulation.readSnapshot(buffer);
+			}
+			catch(BufferUnderflowException e)
+			{
+				throw new IOException(file + " is damaged", e);
+			}
+			catch(IllegalArgumentException e)
+			{
+				throw new IOException(file + " is damaged", e);
+			}
+			catch(IndexOutOfBoundsException e)
+			{
+				throw new IOException(file + " is damaged", e);
+			}
+			catch(RuntimeException e)
+			{
+				// any other damage that readSnapshot does not check for is still a damaged file, not a broken game
+				throw new IOException(file + " is damaged", e);
+			}
+			return simulation;
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,1489 @@
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class that represents the game's objects and logic without any user interface, so that it can be
+ * driven by the panel and the menus, or directly by other code
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class Simulation
+{
+	public static final int SELECT = 0;			// the tool whose presses select vehicles and block stacks
+	public static final int ADD_ENGINE = 1;		// the tool whose presses create train engines
+	public static final int ADD_RAIL_CAR = 2;	// the tool whose presses create rail cars
+	public static final int ADD_STACK = 3;		// the tool whose presses create block stacks
+	private static final String[] LETTERS = {"A", "B", "C", "D", "E"};	// the letters of the blocks of a new stack
+	private static final int ENGINE_KIND = -1;	// the kind of a train engine in a snapshot, where a rail car's kind is its number
+	private static final int OUTLINE = 2;		// the distance around a box that its outline and the pixels it blends into can reach
+
+	private int clicks;						// the number of clicks
+	private int trailerNumber;				// the railcar's number
+	private ArrayList<Vehicle> vehicles;	// the list of all vehicles in the game
+	private VehicleStore store;				// the arrays that hold the properties of all vehicles in the game
+	private BlockRegistry loadedBlocks;		// the set of blocks that are currently loaded on vehicles
+	private ArrayList<BlockStack> stacks;	// the list of all block stacks in the game
+	private BlockStack activeStack;			// the stack that blocks are popped from and pushed onto, or null
+	private Vehicle activeEngine;			// the train engine that the list operations work on, or null
+	private int tool;						// what a press does once the first scene has been created
+	private int xSelect;					// the x position of the selected vehicle
+	private int ySelect;					// the y position of the selected vehicle
+	private SpatialGrid grid;				// the spatial index of all vehicles, used for picking and coupling
+	private boolean useSpatialIndex;		// used to check if picking and coupling use the spatial index or scan every vehicle
+	private int indexFrom;					// the id of the next vehicle of a loaded snapshot that is still to be added to the spatial index
+	private int indexTo;					// the number of vehicles of a loaded snapshot, which are added to the spatial index a few at a time
+	private Vehicle selectedVehicle;		// the vehicle that was last selected by a press
+	private Vehicle dragged;				// the link that has been dragged since the last press and not yet recorded, or null
+	private int xDrag;						// the x position of the dragged link before its drag
+	private int yDrag;						// the y position of the dragged link before its drag
+	private ArrayList<Vehicle> nearby;		// reusable list of the vehicles found by a spatial index query
+	private Rectangle visibleArea;			// reusable area of a spatial index query for the vehicles that can be seen
+	private ArrayList<Train> trains;		// the chains in the order of their heads, listed again when the links change
+	private VehicleStore listedStore;		// the store whose chains are listed, or null before they are first listed
+	private int linkCount;					// the store's count of changes to the links when the chains were listed
+	private DirtyRegion dirtyRegion;		// the area of the game that has changed since it was last drawn
+	private EditHistory history;			// the changes to the trains and stacks that can be undone and redone
+	private long seed;						// the seed that every random choice of the simulation follows from
+	private Random seeds;					// used to seed the random choices of each new game, so that a game can be replayed
+	private TrainAnimator animator;			// drives the trains each tick while they are animated, or null
+
+	/**
+	 * Constructs an empty simulation with a random seed
+	 */
+	public Simulation()
+	{
+		this(new Random().nextLong());
+	}
+
+	/**
+	 * Constructs an empty simulation whose random choices follow from a seed, so that the same input gives the same game
+	 * @param seed the seed of the simulation's random choices
+	 */
+	public Simulation(long seed)
+	{
+		this.seed = seed;
+		seeds = new Random(seed);
+		useSpatialIndex = true;
+		nearby = new ArrayList<Vehicle>();
+		visibleArea = new Rectangle();
+		trains = new ArrayList<Train>();
+		dirtyRegion = new DirtyRegion();
+		history = new EditHistory();
+		reset();
+	}
+
+	/**
+	 * A method that resets the simulation and all of its variables
+	 */
+	public void reset()
+	{
+		clicks = 0;
+		trailerNumber = 0;
+		vehicles = new ArrayList<Vehicle>();
+		store = new VehicleStore();
+		store.getRandom().setSeed(seeds.nextLong());
+		loadedBlocks = new BlockRegistry();
+		stacks = new ArrayList<BlockStack>();
+		activeStack = null;
+		activeEngine = null;
+		grid = new SpatialGrid();
+		indexFrom = 0;
+		indexTo = 0;
+		history.clear();
+		selectedVehicle = null;
+		dragged = null;
+		xSelect = 0;
+		ySelect = 0;
+		dirtyRegion.addAll();
+	}
+
+	/**
+	 * A method that handles a press at a location: the first press creates the train engine, the next five
+	 * create the rail cars, the next one creates the block stack, and every later one uses the current tool,
+	 * which selects a vehicle or a stack unless another tool has been chosen
+	 * @param x the integer value of the x coordinate of the press
+	 * @param y the integer value of the y coordinate of the press
+	 */
+	public void press(int x, int y)
+	{
+		dragged = null;
+		// creates the train engine
+		if(clicks == 0)
+		{
+			addEngine(x, y);
+			clicks++;
+		}
+		// creates the rail cars
+		else if(clicks > 0 && clicks < 6)
+		{
+			addRailCar(x, y);
+			clicks++;
+		}
+		// creates the block stack
+		else if(clicks == 6)
+		{
+			addStack(GameFrame.FRAME_WIDTH - TrainEngine.TOTAL_WIDTH, GameFrame.FRAME_HEIGHT - 5 * TrainEngine.TOTAL_HEIGHT);
+			clicks++;
+		}
+		else if(tool == ADD_ENGINE)
+		{
+			addEngine(x, y);
+		}
+		else if(tool == ADD_RAIL_CAR)
+		{
+			addRailCar(x, y);
+		}
+		else if(tool == ADD_STACK)
+		{
+			addStack(x, y);
+		}
+		// selects a vehicle
+		else
+		{
+			xSelect = x;
+			ySelect = y;
+			if(isIndexReady())
+			{
+				// only the previously selected link can still be selected
+				if(selectedVehicle != null)
+				{
+					selectedVehicle.deselect();
+				}
+				selectedVehicle = pickVehicle(xSelect, ySelect);
+				if(selectedVehicle != null)
+				{
+					selectedVehicle.select();
+				}
+			}
+			else
+			{
+				for(int i = 0; i < vehicles.size(); i++)
+				{
+					if(!vehicles.get(i).isTrailer())
+					{
+						vehicles.get(i).deselect();
+					}
+				}
+				selectedVehicle = null;
+				Point selectPoint = new Point(xSelect, ySelect);
+				for(int i = 0; i < vehicles.size(); i++)
+				{
+					if(vehicles.get(i).contains(selectPoint))
+					{
+						if(!vehicles.get(i).isTrailer())
+						{
+							vehicles.get(i).select();
+							selectedVehicle = vehicles.get(i);
+							break;
+						}
+					}
+				}
+				// if no link was pressed, a trailer in the middle of a link can be selected
+				for(int i = 0; selectedVehicle == null && i < vehicles.size(); i++)
+				{
+					if(vehicles.get(i).contains(selectPoint))
+					{
+						vehicles.get(i).select();
+						selectedVehicle = vehicles.get(i);
+					}
+				}
+			}
+			if(selectedVehicle != null)
+			{
+				// selecting any vehicle of a train engine's chain makes that train the active one
+				Vehicle head = selectedVehicle.getTrain().getHead();
+				if(head instanceof TrainEngine)
+				{
+					activeEngine = head;
+				}
+			}
+			else
+			{
+				selectStack(x, y);
+			}
+		}
+	}
+
+	/**
+	 * A method that makes the stack at a location the active one, if there is a stack there
+	 * @param x the integer value of the x coordinate of the location
+	 * @param y the integer value of the y coordinate of the location
+	 */
+	private void selectStack(int x, int y)
+	{
+		// there are far fewer stacks than vehicles, so they are simply checked in turn
+		for(int i = 0; i < stacks.size(); i++)
+		{
+			if(stacks.get(i).contains(x, y))
+			{
+				activeStack = stacks.get(i);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A method that creates a train engine at a location and makes it the active train
+	 * @param x the integer value of the upper left x coordinate of the train engine
+	 * @param y the integer value of the upper left y coordinate of the train engine
+	 * @return the new TrainEngine
+	 */
+	public TrainEngine addEngine(int x, int y)
+	{
+		TrainEngine engine = new TrainEngine(store, x, y);
+		addVehicle(engine);
+		activeEngine = engine;
+		return engine;
+	}
+
+	/**
+	 * A method that creates a rail car, with the next number, at a location
+	 * @param x the integer value of the upper left x coordinate of the rail car
+	 * @param y the integer value of the upper left y coordinate of the rail car
+	 * @return the new RailCar
+	 */
+	public RailCar addRailCar(int x, int y)
+	{
+		trailerNumber++;
+		RailCar car = new RailCar(store, x, y, trailerNumber);
+		addVehicle(car);
+		return car;
+	}
+
+	/**
+	 * A method that creates a stack of five blocks at a location and makes it the active stack
+	 * @param x the integer value of the x position of the bottom block
+	 * @param y the integer value of the y position of the bottom block
+	 * @return the new BlockStack
+	 */
+	public BlockStack addStack(int x, int y)
+	{
+		BlockStack stack = new BlockStack(x, y);
+		for(int i = 0; i < LETTERS.length; i++)
+		{
+			Block block = new Block(x, stack.getNextY(), LETTERS[i]);
+			stack.push(block);
+			block.setDirtyRegion(dirtyRegion);
+			block.markDirty();
+		}
+		stacks.add(stack);
+		dirtyRegion.add(stack.getBase());
+		activeStack = stack;
+		return stack;
+	}
+
+	/**
+	 * A method that moves the selected link so that its first vehicle is at the dragged location,
+	 * remembering where the link was before its drag so that the drag is recorded when it is released
+	 * @param x the integer value of the x coordinate of the drag
+	 * @param y the integer value of the y coordinate of the drag
+	 */
+	public void drag(int x, int y)
+	{
+		Vehicle selected = getSelectedVehicle();
+		if(selected != null && !selected.isTrailer())
+		{
+			if(dragged != selected)
+			{
+				dragged = selected;
+				xDrag = selected.getX();
+				yDrag = selected.getY();
+			}
+			selected.setLocation(x, y);
+		}
+	}
+
+	/**
+	 * A method that records the drag of the dragged link, if it was dropped away from where it was before its drag
+	 * and not attached to a train, which is recorded with the attach instead
+	 */
+	private void recordDrag()
+	{
+		if(dragged != null && !dragged.isTrailer() && (dragged.getX() != xDrag || dragged.getY() != yDrag))
+		{
+			history.recordMove(dragged.getId(), xDrag, yDrag, dragged.getX(), dragged.getY(), getSelectedId());
+		}
+		dragged = null;
+	}
+
+	/**
+	 * A method that handles a release: if the selected link overlaps a vehicle without a trailer,
+	 * the link is attached to the back of that vehicle, and otherwise its drag is recorded
+	 * @param x the integer value of the x coordinate of the release
+	 * @param y the integer value of the y coordinate of the release
+	 */
+	public void release(int x, int y)
+	{
+		if(isIndexReady())
+		{
+			Vehicle selected = selectedVehicle;
+			if(selected != null && !(selected instanceof TrainEngine) && !selected.isTrailer() && selected.isSelected())
+			{
+				Vehicle other = findCoupling(selected);
+				if(other != null)
+				{
+					couple(other, selected);
+				}
+			}
+			recordDrag();
+			return;
+		}
+		search:
+		for(int i = 0; i < vehicles.size(); i++)
+		{
+			if(!(vehicles.get(i) instanceof TrainEngine) && !vehicles.get(i).isTrailer() && vehicles.get(i).isSelected())
+			{
+				for(int j = 0; j < vehicles.size(); j++)
+				{
+					if(vehicles.get(i).overlaps(vehicles.get(j)) &&
+						!vehicles.get(i).equals(vehicles.get(j)) &&
+						!vehicles.get(j).isSelected() &&
+						!vehicles.get(j).hasTrailer())
+					{
+						couple(vehicles.get(j), vehicles.get(i));
+						break search;
+					}
+				}
+			}
+		}
+		recordDrag();
+	}
+
+	/**
+	 * A method that links the selected rail car, along with any linked rail cars, behind the last rail car of the active train
+	 */
+	public void addLast()
+	{
+		Vehicle selected = getSelectedRailCar();
+		if(selected != null)
+		{
+			couple(activeEngine, selected);
+		}
+	}
+
+	/**
+	 * A method that attaches a link behind the last vehicle of another vehicle's chain and deselects it, 
+	 * recording the change so that it can be undone, which puts a link that was dragged there back where its drag began
+	 * @param target the Vehicle whose chain the link is attached to
+	 * @param link the Vehicle at the front of the link
+	 */
+	private void couple(Vehicle target, Vehicle link)
+	{
+		int x = link.getX();
+		int y = link.getY();
+		if(link == dragged)
+		{
+			x = xDrag;
+			y = yDrag;
+			dragged = null;
+		}
+		int before = getSelectedId();
+		link.deselect();
+		target.addLast(link);
+		if(link.isTrailer())
+		{
+			history.recordLink(EditHistory.ADD_LAST, link.getId(), link.getPuller().getId(), VehicleStore.NONE, 
+								x, y, before, getSelectedId());
+		}
+	}
+
+	/**
+	 * A method that links the selected rail car, along with any linked rail cars, as the first trailer of the active train
+	 */
+	public void addFirst()
+	{
+		Vehicle selected = getSelectedRailCar();
+		if(selected != null)
+		{
+			int x = selected.getX();
+			int y = selected.getY();
+			int before = getSelectedId();
+			Vehicle first = activeEngine.getTrailer();
+			activeEngine.addFirst(selected);
+			if(selected.isTrailer())
+			{
+				history.recordLink(EditHistory.ADD_FIRST, selected.getId(), activeEngine.getId(), 
+									first == null ? VehicleStore.NONE : first.getId(), x, y, before, getSelectedId());
+			}
+		}
+	}
+
+	/**
+	 * A method that removes the first rail car from the active train
+	 */
+	public void removeFirst()
+	{
+		if(activeEngine != null)
+		{
+			removeFromTrain(activeEngine.getTrailer());
+		}
+	}
+
+	/**
+	 * A method that removes the last rail car from the active train
+	 */
+	public void removeLast()
+	{
+		if(activeEngine != null && activeEngine.hasTrailer())
+		{
+			removeFromTrain(activeEngine.getTrain().getTail());
+		}
+	}
+
+	/**
+	 * A method that removes the selected rail car from the middle of its link
+	 */
+	public void removeSelected()
+	{
+		removeFromTrain(getSelectedVehicle());
+	}
+
+	/**
+	 * A method that removes a trailer from its chain and places it in a random location, recording the change
+	 * so that it can be undone
+	 * @param v the Vehicle to be removed, or null
+	 */
+	private void removeFromTrain(Vehicle v)
+	{
+		if(v == null || !v.isTrailer())
+		{
+			return;
+		}
+		int before = getSelectedId();
+		// the trailers of a removed link stay in the chain, so they must not stay selected without it
+		if(v == getSelectedVehicle())
+		{
+			v.deselect();
+		}
+		Vehicle front = v.getPuller();
+		v.removeFromTrain();
+		history.recordLink(EditHistory.REMOVE, v.getId(), front.getId(), VehicleStore.NONE, 
+							v.getX(), v.getY(), before, getSelectedId());
+	}
+
+	/**
+	 * A method that uncouples the selected rail car, and its trailers, from the vehicle that pulls it
+	 */
+	public void split()
+	{
+		Vehicle selected = getSelectedVehicle();
+		if(selected != null && selected.isTrailer())
+		{
+			int before = getSelectedId();
+			Vehicle front = selected.getPuller();
+			selected.split();
+			history.recordLink(EditHistory.SPLIT, selected.getId(), front.getId(), VehicleStore.NONE, 
+								selected.getX(), selected.getY(), before, getSelectedId());
+		}
+	}
+
+	/**
+	 * A method that pops the top block off of the active stack and loads it on the first empty vehicle of the selected link
+	 */
+	public void pop()
+	{
+		Vehicle selected = getSelectedVehicle();
+		if(selected == null || selected.isTrailer() || !selected.hasEmptyTrailer() || activeStack == null || activeStack.isEmpty())
+		{
+			return;
+		}
+		// a train engine does not carry blocks itself, so they are loaded on its rail cars
+		if(selected instanceof TrainEngine && selected.hasTrailer() && selected.getTrailer().isSelected())
+		{
+			if(selected.getTrailer().hasEmptyTrailer())
+			{
+				Block poppedBlock = popOnto(activeStack, selected.getTrailer());
+				history.recordBlock(EditHistory.POP, poppedBlock.getCarrier().getId(), poppedBlock, activeStack, getSelectedId());
+			}
+		}
+		else if(!(selected instanceof TrainEngine))
+		{
+			Block poppedBlock = popOnto(activeStack, selected);
+			history.recordBlock(EditHistory.POP, poppedBlock.getCarrier().getId(), poppedBlock, activeStack, getSelectedId());
+		}
+	}
+
+	/**
+	 * A method that unloads the block from the first loaded vehicle of the selected link and pushes it onto the active stack
+	 */
+	public void push()
+	{
+		Vehicle selected = getSelectedVehicle();
+		if(selected == null || selected.isTrailer() || activeStack == null)
+		{
+			return;
+		}
+		// a train engine does not carry blocks itself, so they are unloaded from its rail cars
+		if(selected instanceof TrainEngine && selected.hasTrailer() && selected.getTrailer().isSelected())
+		{
+			selected = selected.getTrailer();
+		}
+		else if(selected instanceof TrainEngine)
+		{
+			return;
+		}
+		Block pushBlock = selected.getLoad();
+		if(pushBlock != null)
+		{
+			Vehicle carrier = pushBlock.getCarrier();
+			pushFrom(carrier, pushBlock, activeStack);
+			history.recordBlock(EditHistory.PUSH, carrier.getId(), pushBlock, activeStack, getSelectedId());
+		}
+	}
+
+	/**
+	 * A method that pops blocks off of the active stack and loads them on the empty vehicles of the selected link in order,
+	 * as pop does one at a time, until a number of blocks have been moved, the stack is empty or the link is full.
+	 * Each next empty vehicle is the one after the last loaded in the train's list of empty vehicles, so no vehicle
+	 * is walked past, and the blocks moved are one change in the history
+	 * @param count the most blocks to be moved, such as Integer.MAX_VALUE to load all that fit
+	 */
+	public void popMany(int count)
+	{
+		Vehicle v = getSelectedCarrier();
+		if(v == null || activeStack == null || count <= 0)
+		{
+			return;
+		}
+		int[] ids = new int[Math.min(count, activeStack.size())];
+		int moved = 0;
+		Train train = v.getTrain();
+		Vehicle empty = train.find(v, false);
+		while(empty != null && moved < ids.length)
+		{
+			// the vehicle leaves the list of empty vehicles once it is loaded, so the one after it is taken first
+			Vehicle next = empty.getNextSlot();
+			popOnto(activeStack, empty);
+			ids[moved++] = empty.getId();
+			empty = next;
+		}
+		if(moved > 0)
+		{
+			history.recordBlocks(EditHistory.POP_MANY, ids, moved, activeStack, getSelectedId());
+		}
+	}
+
+	/**
+	 * A method that unloads the blocks from the loaded vehicles of the selected link in order and pushes them onto the
+	 * active stack, as push does one at a time, until a number of blocks have been moved or the link is empty.
+	 * Each next loaded vehicle is the one after the last unloaded in the train's list of loaded vehicles, so no vehicle
+	 * is walked past, and the blocks moved are one change in the history
+	 * @param count the most blocks to be moved, such as Integer.MAX_VALUE to unload them all
+	 */
+	public void pushMany(int count)
+	{
+		Vehicle v = getSelectedCarrier();
+		if(v == null || activeStack == null || count <= 0)
+		{
+			return;
+		}
+		Train train = v.getTrain();
+		int[] ids = new int[Math.min(count, train.getLoadedCount())];
+		int moved = 0;
+		Vehicle loaded = train.find(v, true);
+		while(loaded != null && moved < ids.length)
+		{
+			Vehicle next = loaded.getNextSlot();
+			pushFrom(loaded, store.getLoad(loaded.getId()), activeStack);
+			ids[moved++] = loaded.getId();
+			loaded = next;
+		}
+		if(moved > 0)
+		{
+			history.recordBlocks(EditHistory.PUSH_MANY, ids, moved, activeStack, getSelectedId());
+		}
+	}
+
+	/**
+	 * A method that returns the first vehicle of the selected link that can carry a block, which is the first rail car
+	 * of a selected train engine whose rail cars are selected with it
+	 * @return the Vehicle that pops and pushes start at, or null if the selection can not carry blocks
+	 */
+	private Vehicle getSelectedCarrier()
+	{
+		Vehicle selected = getSelectedVehicle();
+		if(selected == null || selected.isTrailer())
+		{
+			return null;
+		}
+		// a train engine does not carry blocks itself, so they are moved to and from its rail cars
+		if(selected instanceof TrainEngine)
+		{
+			return selected.hasTrailer() && selected.getTrailer().isSelected() ? selected.getTrailer() : null;
+		}
+		return selected;
+	}
+
+	/**
+	 * A method that pops the top block off of a stack and loads it on the first empty vehicle of a link
+	 * @param stack the BlockStack to pop the block from
+	 * @param v the Vehicle at the front of the link, which must have an empty vehicle
+	 * @return the Block that was loaded
+	 */
+	private Block popOnto(BlockStack stack, Vehicle v)
+	{
+		Block poppedBlock = stack.pop();
+		v.load(poppedBlock);
+		loadedBlocks.add(poppedBlock);
+		return poppedBlock;
+	}
+
+	/**
+	 * A method that unloads a block from the vehicle that carries it and pushes it onto a stack
+	 * @param carrier the Vehicle that the block is loaded on
+	 * @param pushBlock the Block to be pushed
+	 * @param stack the BlockStack to push the block onto
+	 */
+	private void pushFrom(Vehicle carrier, Block pushBlock, BlockStack stack)
+	{
+		int y = stack.getNextY();
+		stack.push(pushBlock);
+		carrier.unload(pushBlock);
+		loadedBlocks.remove(pushBlock);
+		pushBlock.setLocation(stack.getX(), y);
+	}
+
+	/**
+	 * A method that reverses the last change to the trains or stacks that is done, 
+	 * such as an attach, a removal, a split, a drag, a pop or a push, and restores the selection from before it.
+	 * The selected link is deselected first, so that only the link that was selected before the change is left selected.
+	 * A drag that has not been released yet is recorded first, so that it is the change that is reversed
+	 */
+	public void undo()
+	{
+		recordDrag();
+		if(!history.canUndo())
+		{
+			return;
+		}
+		int i = history.undo();
+		clearSelection();
+		int type = history.getType(i);
+		Vehicle v = store.getView(history.getVehicle(i));
+		Vehicle other = store.getView(history.getOther(i));
+		if(type == EditHistory.ADD_LAST)
+		{
+			v.split();
+			v.setLocation(history.getX(i), history.getY(i));
+		}
+		else if(type == EditHistory.ADD_FIRST)
+		{
+			// the inserted link is cut out, and the trailers that were behind it are attached to the train again
+			v.split();
+			Vehicle first = store.getView(history.getThird(i));
+			if(first != null)
+			{
+				first.split();
+				other.addLast(first);
+			}
+			v.setLocation(history.getX(i), history.getY(i));
+		}
+		else if(type == EditHistory.REMOVE)
+		{
+			other.addFirst(v);
+		}
+		else if(type == EditHistory.SPLIT)
+		{
+			other.addLast(v);
+		}
+		else if(type == EditHistory.MOVE)
+		{
+			v.setLocation(history.getX(i), history.getY(i));
+		}
+		else if(type == EditHistory.POP)
+		{
+			pushFrom(v, history.getBlock(i), history.getStack(i));
+		}
+		else if(type == EditHistory.PUSH)
+		{
+			popOnto(history.getStack(i), v);
+		}
+		else if(type == EditHistory.POP_MANY)
+		{
+			// the last block loaded is the first pushed back, so the stack is put back in its order
+			for(int j = history.getCarrierEnd(i) - 1; j >= history.getCarrierStart(i); j--)
+			{
+				Vehicle carrier = store.getView(history.getCarrier(j));
+				pushFrom(carrier, store.getLoad(carrier.getId()), history.getStack(i));
+			}
+		}
+		else if(type == EditHistory.PUSH_MANY)
+		{
+			for(int j = history.getCarrierEnd(i) - 1; j >= history.getCarrierStart(i); j--)
+			{
+				popOnto(history.getStack(i), store.getView(history.getCarrier(j)));
+			}
+		}
+		restoreSelection(history.getSelectedBefore(i));
+	}
+
+	/**
+	 * A method that repeats the last change to the trains or stacks that was undone, and restores the selection from after it.
+	 * A drag that has not been released yet is recorded first, which throws away the undone changes as any new change does
+	 */
+	public void redo()
+	{
+		recordDrag();
+		if(!history.canRedo())
+		{
+			return;
+		}
+		int i = history.redo();
+		clearSelection();
+		int type = history.getType(i);
+		Vehicle v = store.getView(history.getVehicle(i));
+		Vehicle other = store.getView(history.getOther(i));
+		if(type == EditHistory.ADD_LAST)
+		{
+			other.addLast(v);
+		}
+		else if(type == EditHistory.ADD_FIRST)
+		{
+			other.addFirst(v);
+		}
+		else if(type == EditHistory.REMOVE)
+		{
+			// the vehicle goes back to where it was placed the first time, rather than to a new random location
+			v.removeFromTrain();
+			v.setLocation(history.getX(i), history.getY(i));
+		}
+		else if(type == EditHistory.SPLIT)
+		{
+			v.split();
+		}
+		else if(type == EditHistory.MOVE)
+		{
+			v.setLocation(history.getToX(i), history.getToY(i));
+		}
+		else if(type == EditHistory.POP)
+		{
+			popOnto(history.getStack(i), v);
+		}
+		else if(type == EditHistory.PUSH)
+		{
+			pushFrom(v, history.getBlock(i), history.getStack(i));
+		}
+		else if(type == EditHistory.POP_MANY)
+		{
+			for(int j = history.getCarrierStart(i); j < history.getCarrierEnd(i); j++)
+			{
+				popOnto(history.getStack(i), store.getView(history.getCarrier(j)));
+			}
+		}
+		else if(type == EditHistory.PUSH_MANY)
+		{
+			for(int j = history.getCarrierStart(i); j < history.getCarrierEnd(i); j++)
+			{
+				Vehicle carrier = store.getView(history.getCarrier(j));
+				pushFrom(carrier, store.getLoad(carrier.getId()), history.getStack(i));
+			}
+		}
+		restoreSelection(history.getSelectedAfter(i));
+	}
+
+	/**
+	 * A method that deselects the selected vehicle and its trailers, whether or not they are still its link
+	 */
+	private void clearSelection()
+	{
+		if(selectedVehicle != null)
+		{
+			selectedVehicle.deselect();
+			selectedVehicle = null;
+		}
+	}
+
+	/**
+	 * A method that makes a vehicle the selected vehicle again, selecting it and its trailers
+	 * @param id the integer id of the vehicle that was selected, or VehicleStore.NONE
+	 */
+	private void restoreSelection(int id)
+	{
+		selectedVehicle = store.getView(id);
+		if(selectedVehicle != null)
+		{
+			selectedVehicle.select();
+		}
+	}
+
+	/**
+	 * A method that returns the id of the selected vehicle
+	 * @return the integer id of the selected vehicle, or VehicleStore.NONE if nothing is selected
+	 */
+	private int getSelectedId()
+	{
+		Vehicle selected = getSelectedVehicle();
+		return selected == null ? VehicleStore.NONE : selected.getId();
+	}
+
+	/**
+	 * A method that returns the history of the changes to the trains and stacks
+	 * @return the EditHistory of the game
+	 */
+	public EditHistory getHistory()
+	{
+		return history;
+	}
+
+	/**
+	 * A method that returns the number of bytes that writeSnapshot takes for the current game
+	 * @return the number of bytes of the snapshot
+	 */
+	public long getSnapshotSize()
+	{
+		long size = 8 * 4 + 5L * store.size() + VehicleStore.snapshotSize(store.size()) + 4;
+		for(int i = 0; i < stacks.size(); i++)
+		{
+			size += 3 * 4 + stacks.get(i).size();
+		}
+		return size;
+	}
+
+	/**
+	 * A method that writes the whole game, its vehicles and their links, the selection, the stacks and the loaded blocks,
+	 * to a buffer, with the properties of the vehicles written one array after another
+	 * @param buffer the ByteBuffer to write to, with room for getSnapshotSize bytes
+	 */
+	public void writeSnapshot(ByteBuffer buffer)
+	{
+		// the store's positions of the trailers of dragged trains are made exact before they are copied
+		store.settleTrains();
+		buffer.putInt(clicks);
+		buffer.putInt(trailerNumber);
+		buffer.putInt(xSelect);
+		buffer.putInt(ySelect);
+		buffer.putInt(selectedVehicle == null ? VehicleStore.NONE : selectedVehicle.getId());
+		buffer.putInt(activeEngine == null ? VehicleStore.NONE : activeEngine.getId());
+		buffer.putInt(stacks.indexOf(activeStack));
+		int count = store.size();
+		buffer.putInt(count);
+		// each vehicle's kind is what its Vehicle object is made from, and its load is the letter of its block or 0
+		int[] kinds = new int[count];
+		byte[] loads = new byte[count];
+		for(int id = 0; id < count; id++)
+		{
+			Vehicle v = store.getView(id);
+			kinds[id] = v instanceof RailCar ? ((RailCar) v).getNumber() : ENGINE_KIND;
+			Block load = store.getLoad(id);
+			loads[id] = load == null ? 0 : (byte) load.getLetter().charAt(0);
+		}
+		buffer.asIntBuffer().put(kinds);
+		buffer.position(buffer.position() + 4 * count);
+		store.write(buffer);
+		buffer.put(loads);
+		buffer.putInt(stacks.size());
+		for(int i = 0; i < stacks.size(); i++)
+		{
+			BlockStack stack = stacks.get(i);
+			buffer.putInt(stack.getX());
+			buffer.putInt(stack.getY());
+			buffer.putInt(stack.size());
+			for(int j = 0; j < stack.size(); j++)
+			{
+				buffer.put((byte) stack.get(j).getLetter().charAt(0));
+			}
+		}
+	}
+
+	/**
+	 * A method that replaces the game with one read from a buffer written by writeSnapshot
+	 * @param buffer the ByteBuffer to read from
+	 * @throws java.nio.BufferUnderflowException if the buffer ends before the snapshot does
+	 * @throws IllegalArgumentException if the snapshot does not describe a game
+	 */
+	public void readSnapshot(ByteBuffer buffer)
+	{
+		reset();
+		clicks = buffer.getInt();
+		trailerNumber = buffer.getInt();
+		xSelect = buffer.getInt();
+		ySelect = buffer.getInt();
+		int selectedId = buffer.getInt();
+		int engineId = buffer.getInt();
+		int stackIndex = buffer.getInt();
+		int count = buffer.getInt();
+		if(count < 0 || count > buffer.remaining() / 5 || selectedId < VehicleStore.NONE || selectedId >= count ||
+			engineId < VehicleStore.NONE || engineId >= count)
+		{
+			throw new IllegalArgumentException("The snapshot does not describe a game");
+		}
+		int[] kinds = new int[count];
+		buffer.asIntBuffer().get(kinds);
+		buffer.position(buffer.position() + 4 * count);
+
+		// the vehicles are made in the order of their ids, and then their properties are read over them
+		long seed = store.getRandom().nextLong();
+		store = new VehicleStore(count);
+		store.getRandom().setSeed(seed);
+		for(int id = 0; id < count; id++)
+		{
+			if(kinds[id] == ENGINE_KIND)
+			{
+				new TrainEngine(store, 0, 0);
+			}
+			else
+			{
+				new RailCar(store, 0, 0, kinds[id]);
+			}
+		}
+		store.read(buffer);
+		byte[] loads = new byte[count];
+		buffer.get(loads);
+		store.setGrid(grid);
+		store.setDirtyRegion(dirtyRegion);
+		Vehicle[] ordered = new Vehicle[count];
+		for(int id = 0; id < count; id++)
+		{
+			Vehicle v = store.getView(id);
+			int trailer = store.getTrailer(id);
+			int puller = store.getPuller(id);
+			if(v.getIndex() < 0 || v.getIndex() >= count || ordered[v.getIndex()] != null ||
+				trailer < VehicleStore.NONE || trailer >= count || puller < VehicleStore.NONE || puller >= count ||
+				store.hasFlag(id, VehicleStore.HAS_TRAILER) != (trailer != VehicleStore.NONE) ||
+				store.hasFlag(id, VehicleStore.IS_TRAILER) != (puller != VehicleStore.NONE) ||
+				store.hasFlag(id, VehicleStore.LOADED) != (loads[id] != 0))
+			{
+				throw new IllegalArgumentException("The snapshot does not describe a game");
+			}
+			ordered[v.getIndex()] = v;
+			if(loads[id] != 0)
+			{
+				Block block = new Block(0, 0, letterOf(loads[id]));
+				store.setLoad(id, block);
+				block.setCarrier(v);
+				block.setDirtyRegion(dirtyRegion);
+				loadedBlocks.add(block);
+			}
+			// the vehicles are added to the spatial index later, a few at a time, so that the game can be used right away
+			store.setFlag(id, VehicleStore.INDEXED, false);
+		}
+		// each link must be the other end of the link that points back at it, so the chains share no vehicles
+		for(int id = 0; id < count; id++)
+		{
+			int trailer = store.getTrailer(id);
+			int puller = store.getPuller(id);
+			if(trailer != VehicleStore.NONE && store.getPuller(trailer) != id ||
+				puller != VehicleStore.NONE && store.getTrailer(puller) != id)
+			{
+				throw new IllegalArgumentException("The snapshot does not describe a game");
+			}
+		}
+		indexTo = count;
+		vehicles = new ArrayList<Vehicle>(Arrays.asList(ordered));
+		int linked = 0;
+		for(int id = 0; id < count; id++)
+		{
+			Vehicle v = store.getView(id);
+			if(!v.isTrailer())
+			{
+				v.getTrain().rebuild(count - linked);
+				linked += v.getTrain().getLength();
+			}
+		}
+		// a loop of links has no head, so its vehicles are not in any chain
+		if(linked != count)
+		{
+			throw new IllegalArgumentException("The snapshot does not describe a game");
+		}
+		selectedVehicle = store.getView(selectedId);
+		activeEngine = store.getView(engineId);
+
+		int stackCount = buffer.getInt();
+		for(int i = 0; i < stackCount; i++)
+		{
+			BlockStack stack = new BlockStack(buffer.getInt(), buffer.getInt());
+			int size = buffer.getInt();
+			for(int j = 0; j < size; j++)
+			{
+				Block block = new Block(stack.getX(), stack.getNextY(), letterOf(buffer.get()));
+				stack.push(block);
+				block.setDirtyRegion(dirtyRegion);
+			}
+			stacks.add(stack);
+		}
+		activeStack = stackIndex >= 0 && stackIndex < stacks.size() ? stacks.get(stackIndex) : null;
+		dirtyRegion.addAll();
+	}
+
+	/**
+	 * A method that adds some of the vehicles of a loaded snapshot to the spatial index; until they all have been added,
+	 * picking and coupling scan every vehicle instead
+	 * @param limit the most vehicles to add
+	 * @return true if there are still vehicles to add, false once the spatial index is complete
+	 */
+	public boolean indexPending(int limit)
+	{
+		int end = indexFrom + Math.min(limit, indexTo - indexFrom);
+		if(indexFrom < end)
+		{
+			// the vehicles are indexed where the store has them, so every trailer has to be where its head is
+			store.settleTrains();
+		}
+		for(; indexFrom < end; indexFrom++)
+		{
+			Vehicle v = store.getView(indexFrom);
+			grid.insert(v);
+			v.setGrid(grid);
+		}
+		return indexFrom < indexTo;
+	}
+
+	/**
+	 * A method that checks if picking and coupling can use the spatial index
+	 * @return true if the spatial index is used and has every vehicle in it, false otherwise
+	 */
+	private boolean isIndexReady()
+	{
+		return useSpatialIndex && indexFrom == indexTo;
+	}
+
+	/**
+	 * A method that returns the letter of a block from the byte that a snapshot keeps it as
+	 * @param letter the byte value of the letter
+	 * @return the String letter, shared by every block with that letter when it is one of the letters of a new stack
+	 */
+	private static String letterOf(byte letter)
+	{
+		int i = letter - 'A';
+		if(i >= 0 && i < LETTERS.length)
+		{
+			return LETTERS[i];
+		}
+		return String.valueOf((char) letter);
+	}
+
+	/**
+	 * A method that adds a vehicle to the game and to the spatial index
+	 * @param v the Vehicle to be added, which must have been created in the game's store
+	 * @throws IllegalArgumentException if the vehicle belongs to another store
+	 */
+	public void addVehicle(Vehicle v)
+	{
+		store.idOf(v);
+		// a trailer is indexed where the store has it, which is only exact once its chain has been settled
+		v.getTrain().settle();
+		v.setIndex(vehicles.size());
+		vehicles.add(v);
+		grid.insert(v);
+		v.setGrid(grid);
+		v.setDirtyRegion(dirtyRegion);
+		v.markDirty();
+	}
+	
+	/**
+	 * A method that finds the first vehicle, in the order they were created, that contains a point,
+	 * preferring vehicles that are not trailers
+	 * @param x the integer value of the x coordinate of the point
+	 * @param y the integer value of the y coordinate of the point
+	 * @return the Vehicle under the point, or null if there is none
+	 */
+	private Vehicle pickVehicle(int x, int y)
+	{
+		Vehicle picked = null;
+		nearby.clear();
+		// the trailers of the trains that have been dragged are moved in the spatial index before it is searched
+		store.settleTrains();
+		grid.query(x, y, nearby);
+		for(int i = 0; i < nearby.size(); i++)
+		{
+			Vehicle v = nearby.get(i);
+			if(v.contains(x, y) && (picked == null ||
+				(picked.isTrailer() && !v.isTrailer()) ||
+				(picked.isTrailer() == v.isTrailer() && v.getIndex() < picked.getIndex())))
+			{
+				picked = v;
+			}
+		}
+		return picked;
+	}
+
+	/**
+	 * A method that finds the first vehicle, in the order they were created, that the selected link can be attached to
+	 * @param selected the Vehicle at the front of the selected link
+	 * @return the Vehicle without a trailer that the selected link overlaps, or null if there is none
+	 */
+	private Vehicle findCoupling(Vehicle selected)
+	{
+		Vehicle found = null;
+		nearby.clear();
+		store.settleTrains();
+		// the selected link can only overlap vehicles near its first two vehicles
+		grid.query(selected.getX(), selected.getY(), selected.getWidth(), selected.getHeight(), nearby);
+		if(selected.hasTrailer())
+		{
+			Vehicle trailer = selected.getTrailer();
+			grid.query(trailer.getX(), trailer.getY(), trailer.getWidth(), trailer.getHeight(), nearby);
+		}
+		for(int i = 0; i < nearby.size(); i++)
+		{
+			Vehicle v = nearby.get(i);
+			if(selected.overlaps(v) &&
+				!selected.equals(v) &&
+				!v.isSelected() &&
+				!v.hasTrailer() &&
+				(found == null || v.getIndex() < found.getIndex()))
+			{
+				found = v;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * A method that finds every vehicle that can be seen in an area of the game, along with its loaded block,
+	 * without settling the trains that have been dragged, so that only the part of a big yard in view is drawn
+	 * @param area the Rectangle area of the game that is drawn
+	 * @param result the list that the vehicles that can be seen are added to, each once and in no order
+	 * @return true if the vehicles were found, false if the spatial index is not used or not finished,
+	 * in which case every vehicle has to be drawn
+	 */
+	public boolean findVisible(Rectangle area, ArrayList<Vehicle> result)
+	{
+		if(!isIndexReady())
+		{
+			return false;
+		}
+		// a vehicle just below the area can have its block standing up into it, and the outlines drawn on the edges of
+		// the boxes go a little outside them
+		visibleArea.setBounds(area.x - OUTLINE, area.y - OUTLINE, area.width + 2 * OUTLINE, area.height + Block.HEIGHT + 2 * OUTLINE);
+		// the trailers left behind when vehicles were taken out of a chain or linked on are placed, since the spatial index
+		// has them where they were; their area was already marked for redrawing when they were left
+		ArrayList<Train> unsettled = store.getUnsettledTrains();
+		for(int j = 0; j < unsettled.size(); j++)
+		{
+			unsettled.get(j).placeMoved();
+		}
+		int start = result.size();
+		grid.query(visibleArea, result);
+		int kept = start;
+		for(int i = start; i < result.size(); i++)
+		{
+			Vehicle v = result.get(i);
+			// the spatial index has the trailers of a dragged train where they were, so they are found below
+			if(!(v.isTrailer() && v.getTrain().isShifted()) && isVisible(v, area))
+			{
+				result.set(kept++, v);
+			}
+		}
+		result.subList(kept, result.size()).clear();
+		for(int j = 0; j < unsettled.size(); j++)
+		{
+			Train train = unsettled.get(j);
+			if(!train.isShifted())
+			{
+				continue;
+			}
+			// the trailers are searched for where the spatial index has them, the area moved back by the drag
+			visibleArea.translate(-train.getShiftX(), -train.getShiftY());
+			grid.query(visibleArea, result);
+			visibleArea.translate(train.getShiftX(), train.getShiftY());
+			for(int i = kept; i < result.size(); i++)
+			{
+				Vehicle v = result.get(i);
+				if(v.isTrailer() && v.getTrain() == train && isVisible(v, area))
+				{
+					result.set(kept++, v);
+				}
+			}
+			result.subList(kept, result.size()).clear();
+		}
+		return true;
+	}
+
+	/**
+	 * A method that finds every chain that can be seen in an area of the game, from the box around its head and its tail
+	 * alone, so that a yard too far away for its vehicles to be told apart is drawn without looking at each vehicle.
+	 * The chains are listed from the vehicles again only when a vehicle has been added or the links have changed
+	 * @param area the Rectangle area of the game that is drawn
+	 * @param result the list that the chains that can be seen are added to, each once and in the order of their heads
+	 */
+	public void findVisibleTrains(Rectangle area, ArrayList<Train> result)
+	{
+		if(store != listedStore || store.getLinkCount() != linkCount)
+		{
+			listedStore = store;
+			linkCount = store.getLinkCount();
+			trains.clear();
+			for(int i = 0; i < vehicles.size(); i++)
+			{
+				if(!vehicles.get(i).isTrailer())
+				{
+					trains.add(vehicles.get(i).getTrain());
+				}
+			}
+		}
+		int left = area.x - OUTLINE;
+		int top = area.y - OUTLINE;
+		int right = area.x + area.width + OUTLINE;
+		int bottom = area.y + area.height + OUTLINE;
+		for(int i = 0; i < trains.size(); i++)
+		{
+			Train train = trains.get(i);
+			// the head and the tail are always where the chain has them, and every vehicle between is inside their box
+			Vehicle head = train.getHead();
+			Vehicle tail = train.getTail();
+			if(Math.min(head.getX(), tail.getX()) < right && Math.max(head.getX() + head.getWidth(), tail.getX() + tail.getWidth()) > left &&
+				Math.min(head.getY(), tail.getY()) < bottom && Math.max(head.getY() + head.getHeight(), tail.getY() + tail.getHeight()) > top)
+			{
+				result.add(train);
+			}
+		}
+	}
+
+	/**
+	 * A method that checks if a vehicle, or the block loaded on it, can be seen in an area of the game
+	 * @param v the Vehicle to be checked
+	 * @param area the Rectangle area of the game that is drawn
+	 * @return true if the vehicle's bounding box, extended up by the height of a block and around by its outline,
+	 * intersects the area
+	 */
+	private static boolean isVisible(Vehicle v, Rectangle area)
+	{
+		int x = v.getX() - OUTLINE;
+		int y = v.getY() - Block.HEIGHT - OUTLINE;
+		return x < area.x + area.width && x + v.getWidth() + 2 * OUTLINE > area.x &&
+				y < area.y + area.height && y + v.getHeight() + Block.HEIGHT + 2 * OUTLINE > area.y;
+	}
+
+	/**
+	 * A method that returns the selected link's first rail car, if there is an active train to attach it to
+	 * @return the selected Vehicle if it is a rail car at the front of its link, or null otherwise
+	 */
+	private Vehicle getSelectedRailCar()
+	{
+		Vehicle selected = getSelectedVehicle();
+		if(activeEngine != null && selected != null && !(selected instanceof TrainEngine) && !selected.isTrailer())
+		{
+			return selected;
+		}
+		return null;
+	}
+
+	/**
+	 * A method that checks if the train engine and the five rail cars of the first scene have been created
+	 * @return true if the first vehicles have been created, false otherwise
+	 */
+	public boolean isSceneComplete()
+	{
+		return clicks >= 6;
+	}
+
+	/**
+	 * A method that checks if the block stack has been created
+	 * @return true if the block stack has been created, false otherwise
+	 */
+	public boolean isStackBuilt()
+	{
+		return clicks == 7;
+	}
+
+	/**
+	 * A method that returns the train engine of the active train, which is the last one created or selected
+	 * @return the active TrainEngine, or null if none has been created yet
+	 */
+	public Vehicle getEngine()
+	{
+		return activeEngine;
+	}
+
+	/**
+	 * A method that returns the seed that every random choice of the simulation follows from
+	 * @return the seed of the simulation
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * A method that sets the tool that decides what a press does once the first scene has been created
+	 * @param tool SELECT, ADD_ENGINE, ADD_RAIL_CAR or ADD_STACK
+	 */
+	public void setTool(int tool)
+	{
+		this.tool = tool;
+	}
+
+	/**
+	 * A method that returns the tool that decides what a press does once the first scene has been created
+	 * @return SELECT, ADD_ENGINE, ADD_RAIL_CAR or ADD_STACK
+	 */
+	public int getTool()
+	{
+		return tool;
+	}
+
+	/**
+	 * A method that returns the vehicle that was last selected by a press
+	 * @return the selected Vehicle, which may be a trailer in the middle of a link, or null if none is selected
+	 */
+	public Vehicle getSelectedVehicle()
+	{
+		if(selectedVehicle != null && selectedVehicle.isSelected())
+		{
+			return selectedVehicle;
+		}
+		return null;
+	}
+
+	/**
+	 * A method that turns the animation of the trains on or off; while it is on, each tick drives every train engine
+	 * along its own course, with its trailers following it
+	 * @param animating true to animate the trains, false to stop them
+	 */
+	public void setAnimating(boolean animating)
+	{
+		if(animating != (animator != null))
+		{
+			animator = animating ? new TrainAnimator(ForkJoinPool.commonPool()) : null;
+		}
+	}
+
+	/**
+	 * A method that checks if the trains are animated
+	 * @return true if each tick drives the trains, false otherwise
+	 */
+	public boolean isAnimating()
+	{
+		return animator != null;
+	}
+
+	/**
+	 * A method that sets what drives the trains each tick, such as one that runs on a pool of a given size
+	 * @param animator the TrainAnimator that drives the trains, or null to stop them
+	 */
+	public void setAnimator(TrainAnimator animator)
+	{
+		this.animator = animator;
+	}
+
+	/**
+	 * A method that returns what drives the trains each tick
+	 * @return the TrainAnimator that drives the trains, or null if they are not animated
+	 */
+	public TrainAnimator getAnimator()
+	{
+		return animator;
+	}
+
+	/**
+	 * A method that drives every train for one tick if the trains are animated, except the one that is selected,
+	 * so that it stays where it is dragged
+	 */
+	public void tick()
+	{
+		if(animator == null)
+		{
+			return;
+		}
+		Vehicle selected = getSelectedVehicle();
+		if(animator.tick(store, selected != null ? selected.getTrain() : null))
+		{
+			dirtyRegion.addAll();
+		}
+	}
+
+	/**
+	 * A method that sets whether picking and coupling use the spatial index or scan every vehicle
+	 * @param useSpatialIndex true to use the spatial index, false to scan every vehicle
+	 */
+	public void setUseSpatialIndex(boolean useSpatialIndex)
+	{
+		this.useSpatialIndex = useSpatialIndex;
+	}
+
+	/**
+	 * A method that checks if picking and coupling use the spatial index
+	 * @return true if the spatial index is used, false if every vehicle is scanned
+	 */
+	public boolean isUsingSpatialIndex()
+	{
+		return useSpatialIndex;
+	}
+
+	/**
+	 * A method that returns the list of vehicles
+	 * @return the ArrayList of vehicles
+	 */
+	public ArrayList<Vehicle> getVehicles()
+	{
+		return vehicles;
+	}
+
+	/**
+	 * A method that returns the store that holds the properties of all vehicles in the game
+	 * @return the VehicleStore of the game
+	 */
+	public VehicleStore getStore()
+	{
+		return store;
+	}
+
+	/**
+	 * A method that returns the active stack of blocks, which is the last one created or selected
+	 * @return the active BlockStack, or null if no stack has been created yet
+	 */
+	public BlockStack getBlocks()
+	{
+		return activeStack;
+	}
+
+	/**
+	 * A method that returns the list of block stacks
+	 * @return the ArrayList of every BlockStack in the game
+	 */
+	public ArrayList<BlockStack> getStacks()
+	{
+		return stacks;
+	}
+
+	/**
+	 * A method that returns the set of loaded blocks
+	 * @return the BlockRegistry of loaded blocks
+	 */
+	public BlockRegistry getLoadedBlocks()
+	{
+		return loadedBlocks;
+	}
+
+	/**
+	 * A method that returns the number of blocks in the game, in the stacks and loaded on vehicles
+	 * @return the integer number of blocks
+	 */
+	public int getBlockCount()
+	{
+		int count = loadedBlocks == null ? 0 : loadedBlocks.size();
+		for(int i = 0; i < stacks.size(); i++)
+		{
+			count += stacks.get(i).size();
+		}
+		return count;
+	}
+
+	/**
+	 * A method that returns the rectangular base that the active block stack stands on
+	 * @return the Rectangle base of the stack, or null if no stack has been created
+	 */
+	public Rectangle getBlockBase()
+	{
+		if(activeStack == null)
+		{
+			return null;
+		}
+		return activeStack.getBase();
+	}
+	
+	/**
+	 * A method that returns the area of the game that has changed since it was last drawn
+	 * @return the DirtyRegion of the game
+	 */
+	public DirtyRegion getDirtyRegion()
+	{
+		return dirtyRegion;
+	}
+}
@@ -0,0 +1,403 @@
+import java.awt.Graphics2D;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class that represents the thread that changes and draws the game while the panel is shown. The panel's listeners
+ * only queue their inputs, and the thread applies them at a fixed tick, draws the game into an image and hands the
+ * image to the panel with an atomic swap, so a slow change to a huge train never holds up the handling of input or
+ * the painting of the panel. The images go around between the thread and the panel: the one being drawn, the newest
+ * one drawn, the one shown, and one that the panel has stopped showing
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class SimulationThread implements Runnable
+{
+	public static final long TICK = 16L * 1000 * 1000;	// the nanoseconds between two ticks while the game is changing
+	private static final int INDEX_CHUNK = 50000;		// the most vehicles of a loaded game added to the spatial index each tick
+
+	private GamePanel panel;							// the panel whose game is changed and drawn
+	private Thread thread;								// the thread that runs the ticks
+	private volatile boolean running;					// used to check if the thread should keep running
+	private ConcurrentLinkedQueue<Input> inputs;		// the inputs and tasks that have not been applied yet, in order
+	private AtomicReference<Input> drag;				// the last drag of the mouse that has not been queued or applied
+	private AtomicReference<RenderFrame> latest;		// the newest frame drawn, until the panel takes it
+	private AtomicReference<RenderFrame> spare;			// a frame that the panel has stopped showing
+	private RenderFrame back;							// the frame that is drawn next, owned by the thread
+	private RenderFrame previous;						// the last frame handed to the panel, which only the thread draws into
+	private Viewport drawnViewport;						// the view that the last frame was drawn for
+	private boolean drawnSprites;						// used to check if the last frame was drawn from pre-drawn images
+	private boolean redraw;								// used to check if the game must be drawn even if nothing is marked
+	private long firstInput;							// the time of the first input that no frame shows yet, in nanoseconds
+	private int inputCount;								// the number of inputs that no frame shows yet
+
+	/**
+	 * Class that represents an input waiting to be applied, or a task to be run on the thread
+	 */
+	private static class Input
+	{
+		private int type;			// the type of the input, such as EventJournal.PRESS
+		private int a;				// the x coordinate of a mouse input, or the argument of another input
+		private int b;				// the y coordinate of a mouse input
+		private long time;			// the time of the input, in nanoseconds from System.nanoTime
+		private Runnable task;		// the task to be run instead of an input, or null
+	}
+
+	/**
+	 * Constructs a SimulationThread object for a panel, which is not started
+	 * @param panel the GamePanel whose game is changed and drawn
+	 */
+	public SimulationThread(GamePanel panel)
+	{
+		this.panel = panel;
+		inputs = new ConcurrentLinkedQueue<Input>();
+		drag = new AtomicReference<Input>();
+		latest = new AtomicReference<RenderFrame>();
+		spare = new AtomicReference<RenderFrame>();
+		redraw = true;
+	}
+
+	/**
+	 * A method that starts the thread
+	 */
+	public void start()
+	{
+		running = true;
+		thread = new Thread(this, "Simulation");
+		// the program ends when its window is closed, whatever the thread is doing
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * A method that stops the thread, waiting for it to finish its tick; the inputs not applied yet are dropped
+	 */
+	public void stop()
+	{
+		running = false;
+		LockSupport.unpark(thread);
+		boolean interrupted = false;
+		while(thread.isAlive())
+		{
+			try
+			{
+				thread.join();
+			}
+			catch(InterruptedException e)
+			{
+				interrupted = true;
+			}
+		}
+		if(interrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A method that checks if the calling code runs on the thread
+	 * @return true if it is the simulation thread, false otherwise
+	 */
+	public boolean isCurrent()
+	{
+		return Thread.currentThread() == thread;
+	}
+
+	/**
+	 * A method that queues an input, after the last drag of the mouse so that the inputs stay in order
+	 * @param type the type of the input, such as EventJournal.PRESS or EventJournal.POP
+	 * @param a the x coordinate of a mouse input, or the argument of another input, such as the tool of an EventJournal.TOOL input
+	 * @param b the y coordinate of a mouse input
+	 * @param time the time of the input, in nanoseconds from System.nanoTime
+	 */
+	public void post(int type, int a, int b, long time)
+	{
+		Input input = new Input();
+		input.type = type;
+		input.a = a;
+		input.b = b;
+		input.time = time;
+		queue(input);
+	}
+
+	/**
+	 * A method that queues a task to be run on the thread after the inputs queued before it, such as saving the game
+	 * @param task the Runnable to be run
+	 */
+	public void post(Runnable task)
+	{
+		Input input = new Input();
+		input.task = task;
+		queue(input);
+	}
+
+	/**
+	 * A method that queues an input or task behind the last drag of the mouse and wakes the thread
+	 * @param input the Input to be queued
+	 */
+	private void queue(Input input)
+	{
+		Input last = drag.getAndSet(null);
+		if(last != null)
+		{
+			inputs.add(last);
+		}
+		inputs.add(input);
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * A method that sets where the mouse has been dragged to, replacing a drag that has not been applied yet,
+	 * since the selected link only has to be moved once per tick to where the mouse is now
+	 * @param x the x coordinate of the drag in the game
+	 * @param y the y coordinate of the drag in the game
+	 * @param time the time of the drag, in nanoseconds from System.nanoTime
+	 */
+	public void drag(int x, int y, long time)
+	{
+		Input input = new Input();
+		input.type = EventJournal.DRAG;
+		input.a = x;
+		input.b = y;
+		// the latency of a drag is measured from the first of the drags it replaces
+		Input last = drag.getAndSet(input);
+		input.time = last != null ? last.time : time;
+		if(last == null)
+		{
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * A method that wakes the thread to draw the game again, such as when the view has changed
+	 */
+	public void wake()
+	{
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * A method that takes the newest frame drawn, if there is one that has not been taken, in exchange for the frame
+	 * that was shown before it, which the thread can draw into again
+	 * @param shown the RenderFrame that the panel has been showing, or null
+	 * @return the newest RenderFrame, or null if none has been drawn since the last was taken
+	 */
+	public RenderFrame takeFrame(RenderFrame shown)
+	{
+		RenderFrame frame = latest.getAndSet(null);
+		if(frame != null && shown != null)
+		{
+			spare.set(shown);
+		}
+		return frame;
+	}
+
+	/**
+	 * Runs the ticks of the game, a fixed time apart while the game is changing, and waits without ticking
+	 * while nothing changes until an input or a change of view wakes it
+	 */
+	public void run()
+	{
+		long next = System.nanoTime();
+		while(running)
+		{
+			boolean busy = tick();
+			long now = System.nanoTime();
+			if(!busy && inputs.isEmpty() && drag.get() == null)
+			{
+				// the journal is written while the game is idle, so that little is lost if the program ends suddenly
+				EventJournal journal = panel.getJournal();
+				if(journal != null)
+				{
+					journal.flush();
+				}
+				LockSupport.park(this);
+				next = System.nanoTime();
+				continue;
+			}
+			next += TICK;
+			if(next - now > 0)
+			{
+				LockSupport.parkNanos(this, next - now);
+			}
+			else
+			{
+				next = now;
+			}
+		}
+	}
+
+	/**
+	 * A method that applies the queued inputs and the last drag, adds some of a loaded game to the spatial index,
+	 * drives the trains if they are animated, and draws the game if anything has changed.
+	 * An input, task, tick or drawing that fails is reported and skipped, so that the thread keeps ticking
+	 * @return true if the tick did any work, false if the game was idle
+	 */
+	private boolean tick()
+	{
+		boolean busy = false;
+		Input input = inputs.poll();
+		while(input != null)
+		{
+			apply(input);
+			busy = true;
+			input = inputs.poll();
+		}
+		input = drag.getAndSet(null);
+		if(input != null)
+		{
+			apply(input);
+			busy = true;
+		}
+		Simulation simulation = panel.getSimulation();
+		try
+		{
+			if(simulation.indexPending(INDEX_CHUNK))
+			{
+				busy = true;
+			}
+		}
+		catch(RuntimeException e)
+		{
+			report("The spatial index could not be built", e);
+		}
+		// while the trains are animated the game changes every tick, and each tick is recorded like an input
+		if(simulation.isAnimating())
+		{
+			try
+			{
+				panel.apply(EventJournal.TICK, 0, 0);
+			}
+			catch(RuntimeException e)
+			{
+				// a tick that fails would fail again on the next one, so the animation is stopped the way the menu stops it,
+				// which also unchecks the menu item
+				report("The trains could not be animated", e);
+				panel.apply(EventJournal.ANIMATE, 0, 0);
+			}
+			busy = true;
+		}
+		DirtyRegion dirtyRegion = simulation.getDirtyRegion();
+		Viewport viewport = panel.getViewport();
+		boolean sprites = panel.isUsingSprites();
+		if(redraw || !dirtyRegion.isEmpty() || viewport != drawnViewport || sprites != drawnSprites)
+		{
+			try
+			{
+				draw(simulation, viewport, sprites, dirtyRegion);
+			}
+			catch(RuntimeException e)
+			{
+				// the same drawing is not tried again every tick, only once something else changes
+				report("The game could not be drawn", e);
+				drawnViewport = viewport;
+				drawnSprites = sprites;
+				redraw = false;
+			}
+			dirtyRegion.clear();
+			busy = true;
+		}
+		return busy;
+	}
+
+	/**
+	 * A method that applies an input to the game, or runs a task, reporting it if it fails
+	 * @param input the Input to be applied
+	 */
+	private void apply(Input input)
+	{
+		if(input.task != null)
+		{
+			try
+			{
+				input.task.run();
+			}
+			catch(RuntimeException e)
+			{
+				report("A task could not be run", e);
+			}
+			redraw = true;
+			return;
+		}
+		try
+		{
+			panel.apply(input.type, input.a, input.b);
+		}
+		catch(RuntimeException e)
+		{
+			report("An input could not be applied", e);
+		}
+		// only an input that changed something waits for a frame to show it
+		if(!panel.getSimulation().getDirtyRegion().isEmpty())
+		{
+			if(inputCount == 0)
+			{
+				firstInput = input.time;
+			}
+			inputCount++;
+		}
+	}
+
+	/**
+	 * A method that reports an error that a tick has skipped, with where it happened
+	 * @param message the String that says what failed
+	 * @param e the RuntimeException that was thrown
+	 */
+	private void report(String message, RuntimeException e)
+	{
+		System.err.println(message + ": " + e);
+		e.printStackTrace();
+	}
+
+	/**
+	 * A method that draws the game into the back frame and hands it to the panel
+	 * @param simulation the Simulation to be drawn
+	 * @param viewport the Viewport of the panel
+	 * @param sprites true to copy pre-drawn images, false to draw shapes
+	 * @param dirtyRegion the DirtyRegion of the areas of the game that have changed since the last frame
+	 */
+	private void draw(Simulation simulation, Viewport viewport, boolean sprites, DirtyRegion dirtyRegion)
+	{
+		long start = System.nanoTime();
+		int width = (int) Math.ceil(viewport.getWidth() * viewport.getScale());
+		int height = (int) Math.ceil(viewport.getHeight() * viewport.getScale());
+		if(back == null)
+		{
+			back = spare.getAndSet(null);
+		}
+		if(back == null || !back.hasSize(width, height))
+		{
+			back = new RenderFrame(width, height);
+		}
+		Graphics2D g2 = back.getImage().createGraphics();
+		// when only part of the game has changed in the same view, the last frame is copied and only that part is drawn
+		boolean partial = previous != null && previous.getViewport() == viewport && sprites == drawnSprites && !redraw
+							&& !dirtyRegion.isAll() && dirtyRegion.getBounds() != null;
+		if(partial)
+		{
+			g2.drawImage(previous.getImage(), 0, 0, null);
+		}
+		g2.scale(viewport.getScale(), viewport.getScale());
+		if(partial)
+		{
+			g2.clip(viewport.toPanel(dirtyRegion.getBounds()));
+		}
+		if(sprites != drawnSprites)
+		{
+			panel.getSpriteCache().clear();
+		}
+		panel.drawGame(g2, viewport, sprites);
+		g2.dispose();
+		back.drawn(viewport, start, System.nanoTime(), firstInput, inputCount, simulation.getVehicles().size(),
+					simulation.getBlockCount());
+		inputCount = 0;
+		drawnViewport = viewport;
+		drawnSprites = sprites;
+		redraw = false;
+		previous = back;
+		// the frame that the panel never took is drawn into next, or else the one it has stopped showing
+		back = latest.getAndSet(back);
+		panel.repaint();
+	}
+}
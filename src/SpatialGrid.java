@@ -0,0 +1,417 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Class that represents a uniform grid that indexes vehicles by their bounding boxes,
+ * so that picking and coupling only have to look at the vehicles near a location.
+ * The cells are kept in maps keyed by a primitive long, so that looking up a cell does not create a key object
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class SpatialGrid
+{
+	public static final int CELL_SIZE = 128;			// the width and height of a grid cell
+	public static final int STRIPES = 64;				// the number of maps that the rows of cells are shared between
+
+	private CellMap[] stripes;		// the vehicles in each occupied cell, keyed by cell coordinates, in the map of the cell's row
+
+	/**
+	 * Constructs an empty SpatialGrid object
+	 */
+	public SpatialGrid()
+	{
+		stripes = new CellMap[STRIPES];
+		for(int i = 0; i < STRIPES; i++)
+		{
+			stripes[i] = new CellMap();
+		}
+	}
+
+	/**
+	 * A method that adds a vehicle to the grid at its current bounding box
+	 * @param v the Vehicle to be indexed
+	 */
+	public void insert(Vehicle v)
+	{
+		addToCells(v, v.getIndexedX(), v.getIndexedY(), 0, STRIPES);
+	}
+
+	/**
+	 * A method that removes a vehicle from the grid, which must not have moved since the grid last saw it
+	 * @param v the Vehicle to be removed
+	 */
+	public void remove(Vehicle v)
+	{
+		removeFromCells(v, v.getIndexedX(), v.getIndexedY(), 0, STRIPES);
+	}
+
+	/**
+	 * A method that moves a vehicle from the cells covered by its old location to the cells covered by its bounding box
+	 * @param v the Vehicle whose bounding box has moved
+	 * @param oldX the integer value of the upper left x coordinate of the vehicle before it moved
+	 * @param oldY the integer value of the upper left y coordinate of the vehicle before it moved
+	 */
+	public void update(Vehicle v, int oldX, int oldY)
+	{
+		update(v, oldX, oldY, 0, STRIPES);
+	}
+
+	/**
+	 * A method that moves a vehicle from the cells covered by its old location to the cells covered by its bounding box,
+	 * in the rows of cells whose maps are in a range alone, so that several threads can bring the grid up to date
+	 * at once if each has its own range of maps
+	 * @param v the Vehicle whose bounding box has moved
+	 * @param oldX the integer value of the upper left x coordinate of the vehicle before it moved
+	 * @param oldY the integer value of the upper left y coordinate of the vehicle before it moved
+	 * @param from the first map of the range, from 0 to STRIPES
+	 * @param to the map after the last map of the range, from 0 to STRIPES
+	 */
+	public void update(Vehicle v, int oldX, int oldY, int from, int to)
+	{
+		// most moves stay inside the same cells, so there is nothing to do
+		if(sameCells(oldX, oldY, v.getIndexedX(), v.getIndexedY(), v.getWidth(), v.getHeight()))
+		{
+			return;
+		}
+		removeFromCells(v, oldX, oldY, from, to);
+		addToCells(v, v.getIndexedX(), v.getIndexedY(), from, to);
+	}
+
+	/**
+	 * A method that checks if a bounding box covers the same cells at two locations
+	 * @param oldX the integer value of the upper left x coordinate of the first location
+	 * @param oldY the integer value of the upper left y coordinate of the first location
+	 * @param x the integer value of the upper left x coordinate of the second location
+	 * @param y the integer value of the upper left y coordinate of the second location
+	 * @param width the width of the bounding box
+	 * @param height the height of the bounding box
+	 * @return true if the box covers the same cells at both locations, false otherwise
+	 */
+	public static boolean sameCells(int oldX, int oldY, int x, int y, int width, int height)
+	{
+		int right = Math.max(width - 1, 0);
+		int bottom = Math.max(height - 1, 0);
+		return Math.floorDiv(oldX, CELL_SIZE) == Math.floorDiv(x, CELL_SIZE) &&
+				Math.floorDiv(oldY, CELL_SIZE) == Math.floorDiv(y, CELL_SIZE) &&
+				Math.floorDiv(oldX + right, CELL_SIZE) == Math.floorDiv(x + right, CELL_SIZE) &&
+				Math.floorDiv(oldY + bottom, CELL_SIZE) == Math.floorDiv(y + bottom, CELL_SIZE);
+	}
+
+	/**
+	 * A method that finds every indexed vehicle whose cells intersect the specified area
+	 * @param area the Rectangle area to search
+	 * @param result the list that the found vehicles are added to, each at most once
+	 * @return the result list
+	 */
+	public ArrayList<Vehicle> query(Rectangle area, ArrayList<Vehicle> result)
+	{
+		return query(area.x, area.y, area.width, area.height, result);
+	}
+
+	/**
+	 * A method that finds every indexed vehicle whose cells intersect the specified area, given by its corner and size
+	 * @param x the integer value of the upper left x coordinate of the area
+	 * @param y the integer value of the upper left y coordinate of the area
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 * @param result the list that the found vehicles are added to, each at most once
+	 * @return the result list
+	 */
+	public ArrayList<Vehicle> query(int x, int y, int width, int height, ArrayList<Vehicle> result)
+	{
+		int minX = Math.floorDiv(x, CELL_SIZE);
+		int minY = Math.floorDiv(y, CELL_SIZE);
+		int maxX = Math.floorDiv(x + Math.max(width - 1, 0), CELL_SIZE);
+		int maxY = Math.floorDiv(y + Math.max(height - 1, 0), CELL_SIZE);
+		for(int cx = minX; cx <= maxX; cx++)
+		{
+			for(int cy = minY; cy <= maxY; cy++)
+			{
+				ArrayList<Vehicle> cell = stripeOf(cy).get(key(cx, cy));
+				if(cell == null)
+				{
+					continue;
+				}
+				for(int i = 0; i < cell.size(); i++)
+				{
+					Vehicle v = cell.get(i);
+					// a vehicle spanning several cells is only reported from the first cell it shares with the area,
+					// found from where the grid has it, which is behind the vehicle if its train has been dragged
+					if(cx == Math.max(Math.floorDiv(v.getIndexedX(), CELL_SIZE), minX) && 
+						cy == Math.max(Math.floorDiv(v.getIndexedY(), CELL_SIZE), minY))
+					{
+						result.add(v);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * A method that finds every indexed vehicle in the cell containing the specified point
+	 * @param x the integer value of the x coordinate of the point
+	 * @param y the integer value of the y coordinate of the point
+	 * @param result the list that the found vehicles are added to
+	 * @return the result list
+	 */
+	public ArrayList<Vehicle> query(int x, int y, ArrayList<Vehicle> result)
+	{
+		int cy = Math.floorDiv(y, CELL_SIZE);
+		ArrayList<Vehicle> cell = stripeOf(cy).get(key(Math.floorDiv(x, CELL_SIZE), cy));
+		// the vehicles are added one at a time, since adding the whole list would copy it into a new array first
+		for(int i = 0; cell != null && i < cell.size(); i++)
+		{
+			result.add(cell.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * A method that removes every vehicle from the grid
+	 */
+	public void clear()
+	{
+		for(int i = 0; i < STRIPES; i++)
+		{
+			stripes[i].clear();
+		}
+	}
+
+	/**
+	 * A method that adds a vehicle to every cell covered by its bounding box at a location whose row's map is in a range of maps
+	 * @param v the Vehicle to be added
+	 * @param x the integer value of the upper left x coordinate of the vehicle's bounding box
+	 * @param y the integer value of the upper left y coordinate of the vehicle's bounding box
+	 * @param from the first map of the range of maps
+	 * @param to the map after the last map of the range of maps
+	 */
+	private void addToCells(Vehicle v, int x, int y, int from, int to)
+	{
+		int maxX = Math.floorDiv(x + Math.max(v.getWidth() - 1, 0), CELL_SIZE);
+		int maxY = Math.floorDiv(y + Math.max(v.getHeight() - 1, 0), CELL_SIZE);
+		for(int cy = Math.floorDiv(y, CELL_SIZE); cy <= maxY; cy++)
+		{
+			int stripe = Math.floorMod(cy, STRIPES);
+			if(stripe < from || stripe >= to)
+			{
+				continue;
+			}
+			CellMap cells = stripes[stripe];
+			for(int cx = Math.floorDiv(x, CELL_SIZE); cx <= maxX; cx++)
+			{
+				long k = key(cx, cy);
+				ArrayList<Vehicle> cell = cells.get(k);
+				if(cell == null)
+				{
+					cell = new ArrayList<Vehicle>(4);
+					cells.put(k, cell);
+				}
+				cell.add(v);
+			}
+		}
+	}
+
+	/**
+	 * A method that removes a vehicle from every cell covered by its bounding box at a location whose row's map is in a range of maps
+	 * @param v the Vehicle to be removed
+	 * @param x the integer value of the upper left x coordinate of the vehicle's bounding box
+	 * @param y the integer value of the upper left y coordinate of the vehicle's bounding box
+	 * @param from the first map of the range of maps
+	 * @param to the map after the last map of the range of maps
+	 */
+	private void removeFromCells(Vehicle v, int x, int y, int from, int to)
+	{
+		int maxX = Math.floorDiv(x + Math.max(v.getWidth() - 1, 0), CELL_SIZE);
+		int maxY = Math.floorDiv(y + Math.max(v.getHeight() - 1, 0), CELL_SIZE);
+		for(int cy = Math.floorDiv(y, CELL_SIZE); cy <= maxY; cy++)
+		{
+			int stripe = Math.floorMod(cy, STRIPES);
+			if(stripe < from || stripe >= to)
+			{
+				continue;
+			}
+			CellMap cells = stripes[stripe];
+			for(int cx = Math.floorDiv(x, CELL_SIZE); cx <= maxX; cx++)
+			{
+				long k = key(cx, cy);
+				ArrayList<Vehicle> cell = cells.get(k);
+				if(cell == null)
+				{
+					continue;
+				}
+				for(int i = 0; i < cell.size(); i++)
+				{
+					if(cell.get(i) == v)
+					{
+						// order inside a cell does not matter, so the last vehicle fills the gap
+						cell.set(i, cell.get(cell.size() - 1));
+						cell.remove(cell.size() - 1);
+						break;
+					}
+				}
+				if(cell.isEmpty())
+				{
+					cells.remove(k);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A method that returns the map that holds the cells of a row
+	 * @param cy the integer value of the row's y coordinate
+	 * @return the CellMap of the row's cells
+	 */
+	private CellMap stripeOf(int cy)
+	{
+		return stripes[Math.floorMod(cy, STRIPES)];
+	}
+
+	/**
+	 * A method that packs a pair of cell coordinates into a single key
+	 * @param cx the integer value of the cell's x coordinate
+	 * @param cy the integer value of the cell's y coordinate
+	 * @return the long key of the cell
+	 */
+	private static long key(int cx, int cy)
+	{
+		return ((long) cx << 32) | (cy & 0xffffffffL);
+	}
+
+	/**
+	 * Class that represents a map from the keys of cells to the vehicles in them, kept in open addressing tables of
+	 * primitive keys, so that a lookup neither creates a key object nor follows a chain of entries. A key's slot is found
+	 * from its bits multiplied by an odd number, which spreads the cells of a large yard over the whole table, and the
+	 * slots after it are tried in turn; a removed entry is filled by moving up the entries after it that belong before it
+	 */
+	private static class CellMap
+	{
+		private static final int INITIAL_CAPACITY = 16;	// the number of slots of an empty map, a power of two
+
+		private long[] keys;				// the key in each slot
+		private ArrayList<?>[] cells;		// the vehicles of the cell in each slot, or null if the slot is free
+		private int size;					// the number of slots in use
+		private int mask;					// the number of slots less one, which wraps a slot's position around the table
+
+		/**
+		 * Constructs an empty CellMap object
+		 */
+		CellMap()
+		{
+			keys = new long[INITIAL_CAPACITY];
+			cells = new ArrayList<?>[INITIAL_CAPACITY];
+			mask = INITIAL_CAPACITY - 1;
+		}
+
+		/**
+		 * A method that returns the vehicles of a cell
+		 * @param key the long key of the cell
+		 * @return the ArrayList of the vehicles in the cell, or null if the map does not have the cell
+		 */
+		@SuppressWarnings("unchecked")
+		ArrayList<Vehicle> get(long key)
+		{
+			for(int i = slot(key); cells[i] != null; i = (i + 1) & mask)
+			{
+				if(keys[i] == key)
+				{
+					return (ArrayList<Vehicle>) cells[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * A method that adds a cell that the map does not have yet, growing the table when it is three quarters full
+		 * @param key the long key of the cell
+		 * @param cell the ArrayList of the vehicles in the cell
+		 */
+		void put(long key, ArrayList<Vehicle> cell)
+		{
+			if(4 * (size + 1) > 3 * keys.length)
+			{
+				long[] oldKeys = keys;
+				ArrayList<?>[] oldCells = cells;
+				keys = new long[2 * oldKeys.length];
+				cells = new ArrayList<?>[2 * oldKeys.length];
+				mask = keys.length - 1;
+				for(int i = 0; i < oldKeys.length; i++)
+				{
+					if(oldCells[i] != null)
+					{
+						insert(oldKeys[i], oldCells[i]);
+					}
+				}
+			}
+			insert(key, cell);
+			size++;
+		}
+
+		/**
+		 * A method that removes a cell, moving up the entries after it that would no longer be found
+		 * @param key the long key of the cell
+		 */
+		void remove(long key)
+		{
+			int i = slot(key);
+			while(cells[i] != null && keys[i] != key)
+			{
+				i = (i + 1) & mask;
+			}
+			if(cells[i] == null)
+			{
+				return;
+			}
+			size--;
+			// an entry after the gap can fill it if its own slot is not between the gap and it, going around the table
+			for(int j = (i + 1) & mask; cells[j] != null; j = (j + 1) & mask)
+			{
+				int home = slot(keys[j]);
+				if(((j - home) & mask) >= ((j - i) & mask))
+				{
+					keys[i] = keys[j];
+					cells[i] = cells[j];
+					i = j;
+				}
+			}
+			cells[i] = null;
+		}
+
+		/**
+		 * A method that removes every cell, keeping the table's size
+		 */
+		void clear()
+		{
+			Arrays.fill(cells, null);
+			size = 0;
+		}
+
+		/**
+		 * A method that puts a cell in the first free slot from its own
+		 * @param key the long key of the cell
+		 * @param cell the ArrayList of the vehicles in the cell
+		 */
+		private void insert(long key, ArrayList<?> cell)
+		{
+			int i = slot(key);
+			while(cells[i] != null)
+			{
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			cells[i] = cell;
+		}
+
+		/**
+		 * A method that returns the slot that a key is looked for from
+		 * @param key the long key of a cell
+		 * @return the integer position of the key's own slot
+		 */
+		private int slot(long key)
+		{
+			return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+		}
+	}
+}
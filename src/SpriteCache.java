@@ -0,0 +1,374 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class that represents a cache of pre-drawn images of the vehicles and blocks, so that each look of a vehicle
+ * or block is only drawn from its shapes once and is copied to the screen after that
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class SpriteCache
+{
+	public static final long DEFAULT_BUDGET = 16L * 1024 * 1024;	// the default number of bytes that the images may use
+	private static final int PADDING = 2;					// the extra space around each image, for outlines drawn on its edges
+	private static final long ENGINE = 1L << 40;			// the key of a train engine's image
+	private static final long RAIL_CAR = 2L << 40;			// added to a rail car's number in the key of its image
+	private static final long SELECTED = 1L << 39;			// added to the key of a selected vehicle's image
+
+	private LinkedHashMap<Object, BufferedImage> sprites;	// the images, from the least to the most recently used
+	private long budget;									// the number of bytes that the images may use
+	private long used;										// the number of bytes that the images use
+	private double scale;									// the scale of the screen that the images were drawn for
+	private Graphics2D target;								// the graphics context currently being drawn on
+	private Key probe;										// the key reused to look up vehicle images without creating objects
+	private HashMap<BlockStack, Layer> layers;				// the image of the visible part of each block stack
+
+	/**
+	 * Constructs an empty SpriteCache object with the default memory budget
+	 */
+	public SpriteCache()
+	{
+		sprites = new LinkedHashMap<Object, BufferedImage>(64, 0.75f, true);
+		budget = DEFAULT_BUDGET;
+		scale = 1;
+		probe = new Key();
+		layers = new HashMap<BlockStack, Layer>();
+	}
+
+	/**
+	 * A method that prepares the cache for drawing a frame, throwing away every image if the scale of the screen has changed
+	 * @param g2 the graphics context that the frame is drawn on
+	 */
+	public void begin(Graphics2D g2)
+	{
+		target = g2;
+		AffineTransform transform = g2.getTransform();
+		double frameScale = Math.max(Math.abs(transform.getScaleX()), Math.abs(transform.getScaleY()));
+		if(frameScale != scale)
+		{
+			clear();
+			scale = frameScale;
+		}
+	}
+
+	/**
+	 * Draws a single vehicle, without its trailers, from its image
+	 * @param g2 the graphics context
+	 * @param v the Vehicle to be drawn
+	 */
+	public void drawVehicle(Graphics2D g2, Vehicle v)
+	{
+		long key = v instanceof RailCar ? RAIL_CAR + ((RailCar) v).getNumber() : ENGINE;
+		if(v.isSelected())
+		{
+			key += SELECTED;
+		}
+		int x = v.getX();
+		int y = v.getY();
+		int width = v.getWidth();
+		int height = v.getHeight();
+		// a vehicle off the screen is neither drawn into an image nor copied, since copying it would still create objects
+		if(!g2.hitClip(x - PADDING, y - PADDING, width + 2 * PADDING, height + 2 * PADDING))
+		{
+			g2.setColor(Color.BLACK);
+			return;
+		}
+		probe.value = key;
+		BufferedImage sprite = sprites.get(probe);
+		if(sprite == null)
+		{
+			sprite = createSprite(width, height);
+			Graphics2D sg = prepare(sprite, x, y);
+			sg.setColor(Color.BLACK);
+			v.drawVehicle(sg);
+			sg.dispose();
+			Key stored = new Key();
+			stored.value = key;
+			store(stored, sprite);
+		}
+		copy(g2, sprite, x, y, width, height);
+		g2.setColor(Color.BLACK);
+	}
+
+	/**
+	 * Draws a block from its image
+	 * @param g2 the graphics context
+	 * @param block the Block to be drawn
+	 */
+	public void drawBlock(Graphics2D g2, Block block)
+	{
+		if(!g2.hitClip(block.getX() - PADDING, block.getY() - PADDING, Block.WIDTH + 2 * PADDING, Block.HEIGHT + 2 * PADDING))
+		{
+			g2.setColor(Block.LETTER_COLOR);
+			return;
+		}
+		BufferedImage sprite = sprites.get(block.getLetter());
+		if(sprite == null)
+		{
+			sprite = createSprite(Block.WIDTH, Block.HEIGHT);
+			Graphics2D sg = prepare(sprite, block.getX(), block.getY());
+			sg.setColor(Block.LETTER_COLOR);
+			block.drawBlock(sg);
+			sg.dispose();
+			store(block.getLetter(), sprite);
+		}
+		copy(g2, sprite, block.getX(), block.getY(), Block.WIDTH, Block.HEIGHT);
+		g2.setColor(Block.LETTER_COLOR);
+	}
+
+	/**
+	 * Draws the part of a block stack that is within a visible band of the game as a single image, 
+	 * which is only drawn again when a block is pushed or popped or the band changes
+	 * @param g2 the graphics context
+	 * @param blocks the BlockStack to be drawn, whose blocks are placed upward from its bottom block
+	 * @param top the y coordinate of the top of the visible band
+	 * @param bottom the y coordinate of the bottom of the visible band
+	 */
+	public void drawStack(Graphics2D g2, BlockStack blocks, int top, int bottom)
+	{
+		Layer layer = layers.get(blocks);
+		if(layer == null)
+		{
+			layer = new Layer();
+			layers.put(blocks, layer);
+			drawStackLayer(layer, blocks, top, bottom);
+		}
+		else if(blocks.getVersion() != layer.version || top != layer.top || bottom != layer.bottom)
+		{
+			drawStackLayer(layer, blocks, top, bottom);
+		}
+		if(layer.image != null)
+		{
+			copy(g2, layer.image, layer.bounds.x, layer.bounds.y, layer.bounds.width, layer.bounds.height);
+		}
+		g2.setColor(Block.LETTER_COLOR);
+	}
+
+	/**
+	 * A method that draws the blocks of a stack that are within a visible band of the game into the image of the stack
+	 * @param layer the Layer that holds the image of the stack
+	 * @param blocks the BlockStack to be drawn
+	 * @param top the y coordinate of the top of the visible band
+	 * @param bottom the y coordinate of the bottom of the visible band
+	 */
+	private void drawStackLayer(Layer layer, BlockStack blocks, int top, int bottom)
+	{
+		layer.version = blocks.getVersion();
+		layer.top = top;
+		layer.bottom = bottom;
+		layer.image = null;
+		// the blocks go up the screen from the bottom of the stack, so the search stops at the first one above the band
+		int first = -1;
+		int last = -1;
+		for(int i = blocks.getFirstVisible(bottom); i < blocks.size(); i++)
+		{
+			Block block = blocks.get(i);
+			if(block.getY() + Block.HEIGHT + PADDING < top)
+			{
+				break;
+			}
+			if(block.getY() - PADDING <= bottom)
+			{
+				if(first < 0)
+				{
+					first = i;
+				}
+				last = i;
+			}
+		}
+		if(first < 0)
+		{
+			return;
+		}
+		Rectangle bounds = layer.bounds;
+		bounds.setBounds(blocks.get(first).getX(), blocks.get(first).getY(), Block.WIDTH, Block.HEIGHT);
+		for(int i = first + 1; i <= last; i++)
+		{
+			Block block = blocks.get(i);
+			bounds.add(block.getX(), block.getY());
+			bounds.add(block.getX() + Block.WIDTH, block.getY() + Block.HEIGHT);
+		}
+		layer.image = createSprite(bounds.width, bounds.height);
+		Graphics2D sg = prepare(layer.image, bounds.x, bounds.y);
+		sg.setColor(Block.LETTER_COLOR);
+		for(int i = first; i <= last; i++)
+		{
+			blocks.get(i).drawBlock(sg);
+		}
+		sg.dispose();
+	}
+
+	/**
+	 * A method that copies an image onto the screen over a shape of the specified location and size
+	 * @param g2 the graphics context
+	 * @param sprite the BufferedImage to be copied
+	 * @param x the integer value of the upper left x coordinate of the shape
+	 * @param y the integer value of the upper left y coordinate of the shape
+	 * @param width the width of the shape
+	 * @param height the height of the shape
+	 */
+	private void copy(Graphics2D g2, BufferedImage sprite, int x, int y, int width, int height)
+	{
+		// an image drawn at its own size is copied directly, while shrinking it to the logical size creates objects
+		if(!g2.hitClip(x - PADDING, y - PADDING, width + 2 * PADDING, height + 2 * PADDING))
+		{
+			return;
+		}
+		if(scale == 1)
+		{
+			g2.drawImage(sprite, x - PADDING, y - PADDING, null);
+		}
+		else
+		{
+			g2.drawImage(sprite, x - PADDING, y - PADDING, width + 2 * PADDING, height + 2 * PADDING, null);
+		}
+	}
+
+	/**
+	 * A method that throws away every image
+	 */
+	public void clear()
+	{
+		sprites.clear();
+		used = 0;
+		layers.clear();
+	}
+
+	/**
+	 * A method that sets the number of bytes that the images may use, throwing away the least recently used images if needed
+	 * @param budget the number of bytes that the images may use
+	 */
+	public void setBudget(long budget)
+	{
+		this.budget = budget;
+		evict();
+	}
+
+	/**
+	 * A method that returns the number of bytes that the images use
+	 * @return the number of bytes used
+	 */
+	public long getUsed()
+	{
+		return used;
+	}
+
+	/**
+	 * A method that returns the number of images in the cache
+	 * @return the integer number of images
+	 */
+	public int size()
+	{
+		return sprites.size();
+	}
+
+	/**
+	 * A method that creates an empty image big enough for a shape of the specified size at the screen's scale
+	 * @param width the width of the shape
+	 * @param height the height of the shape
+	 * @return the transparent BufferedImage
+	 */
+	private BufferedImage createSprite(int width, int height)
+	{
+		int w = (int) Math.ceil((width + 2 * PADDING) * scale);
+		int h = (int) Math.ceil((height + 2 * PADDING) * scale);
+		if(target != null && target.getDeviceConfiguration() != null)
+		{
+			return target.getDeviceConfiguration().createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+		}
+		return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	/**
+	 * A method that returns a graphics context that draws a shape located at (x, y) into the top left of an image
+	 * @param sprite the BufferedImage to be drawn on
+	 * @param x the integer value of the upper left x coordinate of the shape
+	 * @param y the integer value of the upper left y coordinate of the shape
+	 * @return the Graphics2D of the image
+	 */
+	private Graphics2D prepare(BufferedImage sprite, int x, int y)
+	{
+		Graphics2D sg = sprite.createGraphics();
+		if(target != null)
+		{
+			sg.setRenderingHints(target.getRenderingHints());
+			sg.setFont(target.getFont());
+		}
+		sg.scale(scale, scale);
+		sg.translate(PADDING - x, PADDING - y);
+		return sg;
+	}
+
+	/**
+	 * A method that adds an image to the cache, throwing away the least recently used images if it is over budget
+	 * @param key the key of the image
+	 * @param sprite the BufferedImage to be added
+	 */
+	private void store(Object key, BufferedImage sprite)
+	{
+		sprites.put(key, sprite);
+		used += bytes(sprite);
+		evict();
+	}
+
+	/**
+	 * A method that throws away the least recently used images until the cache is within its budget
+	 */
+	private void evict()
+	{
+		Iterator<Map.Entry<Object, BufferedImage>> entries = sprites.entrySet().iterator();
+		while(used > budget && entries.hasNext())
+		{
+			used -= bytes(entries.next().getValue());
+			entries.remove();
+		}
+	}
+
+	/**
+	 * A method that returns the approximate number of bytes used by an image
+	 * @param sprite the BufferedImage
+	 * @return the number of bytes of its pixels
+	 */
+	private static long bytes(BufferedImage sprite)
+	{
+		return 4L * sprite.getWidth() * sprite.getHeight();
+	}
+
+	/**
+	 * Class that represents the key of a vehicle's image, which can be changed so that one key is reused for every lookup
+	 */
+	private static class Key
+	{
+		long value;		// the kind of vehicle, its number and whether it is selected
+
+		public boolean equals(Object other)
+		{
+			return other instanceof Key && ((Key) other).value == value;
+		}
+
+		public int hashCode()
+		{
+			return (int) (value ^ (value >>> 32));
+		}
+	}
+
+	/**
+	 * Class that represents the image of the visible part of a block stack and what it was drawn from
+	 */
+	private static class Layer
+	{
+		BufferedImage image;						// the image of the visible part of the stack, or null
+		Rectangle bounds = new Rectangle();		// the area of the game covered by the image
+		int version;								// the version of the stack when its image was drawn
+		int top;									// the top of the visible band when the image was drawn
+		int bottom;									// the bottom of the visible band when the image was drawn
+	}
+}
@@ -0,0 +1,714 @@
+/**
+ * Class that represents the descriptor of a chain of linked vehicles, such as a train engine and its rail cars,
+ * so that the ends of the chain, its length, and how many of its vehicles are loaded are known without walking it.
+ * The empty and the loaded vehicles of the chain are also kept in two lists, each in the order of the chain,
+ * so that the next vehicle to load or unload a block is found without walking past the others.
+ * When the head is moved, its trailers are not: the chain only remembers how far the head has moved, which is added
+ * to each trailer's position when it is read, until something needs the positions kept in the store to be exact.
+ * A link linked on or taken out right behind the head moves the trailers behind it the same way.
+ * In the same way, when a vehicle is taken out of the chain or another chain is linked on, only the vehicles at the ends
+ * of the change are moved, and the chain remembers the last vehicle that is still exact; the trailers behind it are placed
+ * from it the next time any of them is read, or the vehicles are drawn, searched for or saved.
+ * When the chain is split, the vehicles behind the cut are not told: a stamp from the store makes every vehicle's record
+ * of its chain untrusted but the head's and the tail's, and each one finds its chain again from the nearest trusted vehicle
+ * in front of it when it is next asked, while the length and the lists are worked out again the next time they are needed
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class Train
+{
+	private Vehicle head;		// the first vehicle of the chain
+	private Vehicle tail;		// the last vehicle of the chain
+	private int length;			// the number of vehicles in the chain
+	private int loadedCount;	// the number of vehicles in the chain that have a block loaded on them
+	private Vehicle firstEmpty;	// the first vehicle of the chain without a block loaded on it
+	private Vehicle lastEmpty;	// the last vehicle of the chain without a block loaded on it
+	private Vehicle firstLoaded;	// the first vehicle of the chain with a block loaded on it
+	private Vehicle lastLoaded;	// the last vehicle of the chain with a block loaded on it
+	private int shiftX;			// how far the head has moved right since the trailers' positions were last written
+	private int shiftY;			// how far the head has moved down since the trailers' positions were last written
+	private boolean shifted;	// used to check if the trailers' positions in the store are behind the head's
+	private Vehicle moved;		// the last vehicle whose position in the store is exact, before trailers that may not be, or null
+	private boolean counted;	// used to check if the length, the loaded count and the lists are up to date
+	private long cut;			// the stamp that a vehicle's record of belonging to the chain must be at least to be trusted
+	private boolean listed;		// used to check if the store's list of chains to be settled has the chain
+	private double heading;		// the direction that the head drives in while the trains are animated, in radians
+	private double speed;		// the distance that the head drives each tick, or 0 if the chain has no course yet
+	private double travelX;		// the distance that the head has driven right but not moved yet, less than a unit
+	private double travelY;		// the distance that the head has driven down but not moved yet, less than a unit
+
+    /**
+     * Constructs a Train object for a single vehicle that is not linked to any other
+     * @param vehicle the Vehicle that is both the head and the tail of the chain
+     */
+	public Train(Vehicle vehicle)
+	{
+		head = vehicle;
+		tail = vehicle;
+		length = 1;
+		counted = true;
+		vehicle.setPreviousSlot(null);
+		vehicle.setNextSlot(null);
+		if(vehicle.isLoaded())
+		{
+			loadedCount = 1;
+			firstLoaded = vehicle;
+			lastLoaded = vehicle;
+		}
+		else
+		{
+			firstEmpty = vehicle;
+			lastEmpty = vehicle;
+		}
+	}
+
+    /**
+     * A method that returns the first vehicle of the chain
+     * @return the Vehicle at the front of the chain
+     */
+	public Vehicle getHead()
+	{
+		return head;
+	}
+
+    /**
+     * A method that returns the last vehicle of the chain
+     * @return the Vehicle at the back of the chain
+     */
+	public Vehicle getTail()
+	{
+		return tail;
+	}
+
+    /**
+     * A method that returns the number of vehicles in the chain
+     * @return the integer length of the chain
+     */
+	public int getLength()
+	{
+		count();
+		return length;
+	}
+
+    /**
+     * A method that returns the number of vehicles in the chain that have a block loaded on them
+     * @return the integer number of loaded vehicles
+     */
+	public int getLoadedCount()
+	{
+		count();
+		return loadedCount;
+	}
+
+    /**
+     * A method that returns how far the head has moved right since the trailers' positions were last written
+     * @return the integer distance to add to the x coordinate of each trailer in the store
+     */
+	public int getShiftX()
+	{
+		return shiftX;
+	}
+
+    /**
+     * A method that returns how far the head has moved down since the trailers' positions were last written
+     * @return the integer distance to add to the y coordinate of each trailer in the store
+     */
+	public int getShiftY()
+	{
+		return shiftY;
+	}
+
+    /**
+     * A method that checks if the head has moved since the trailers' positions were last written
+     * @return true if the trailers' positions in the store and in the spatial index are behind the head's, false otherwise
+     */
+	public boolean isShifted()
+	{
+		return shifted;
+	}
+
+    /**
+     * A method that checks if some of the trailers' positions in the store are not behind the vehicles in front of them,
+     * since vehicles were taken out of the chain or linked on
+     * @return true if the trailers behind the last exact vehicle still have to be placed, false otherwise
+     */
+	public boolean isMoved()
+	{
+		return moved != null;
+	}
+
+    /**
+     * A method that checks if the position that the store has for a vehicle of the chain is exact,
+     * apart from how far the head has moved, which is the case for the head, the tail, and every vehicle
+     * up to the last exact one, though only the last exact one, the vehicle in front of it and the head's trailer
+     * are known without a walk
+     * @param vehicle the Vehicle of this chain to be checked
+     * @return true if the vehicle is known to be placed, false if the trailers have to be placed first
+     */
+	public boolean isPlaced(Vehicle vehicle)
+	{
+		return moved == null || vehicle == moved || vehicle == head || vehicle == tail || vehicle.getTrailer() == moved ||
+				(moved != head && vehicle.getPuller() == head);
+	}
+
+    /**
+     * A method that returns the stamp that a vehicle's record of belonging to the chain must be at least to be trusted,
+     * which is raised each time the chain is split
+     * @return the long stamp of the last split, or Long.MAX_VALUE once the chain has been linked into another
+     */
+	public long getCut()
+	{
+		return cut;
+	}
+
+    /**
+     * A method that checks if the chain is in the store's list of chains to be settled
+     * @return true if the chain is listed, false otherwise
+     */
+	public boolean isListed()
+	{
+		return listed;
+	}
+
+    /**
+     * A method that sets if the chain is in the store's list of chains to be settled
+     * @param listed true if the chain has been added to the list, false if it has been taken out of it
+     */
+	public void setListed(boolean listed)
+	{
+		this.listed = listed;
+	}
+
+    /**
+     * A method that checks if the chain has been given a direction and speed to drive in
+     * @return true if the chain has a course, false otherwise
+     */
+	public boolean hasCourse()
+	{
+		return speed > 0;
+	}
+
+    /**
+     * A method that sets the direction and speed that the head drives in while the trains are animated
+     * @param heading the direction in radians, with 0 to the right and PI / 2 down
+     * @param speed the distance that the head drives each tick, more than 0
+     */
+	public void setCourse(double heading, double speed)
+	{
+		this.heading = heading;
+		this.speed = speed;
+	}
+
+    /**
+     * A method that turns the chain's course around across an axis if it points the wrong way along it,
+     * such as when the chain has reached an edge of the yard
+     * @param towardX 1 if the course has to point right, -1 if it has to point left, 0 if either will do
+     * @param towardY 1 if the course has to point down, -1 if it has to point up, 0 if either will do
+     */
+	public void turn(int towardX, int towardY)
+	{
+		double dx = Math.cos(heading);
+		double dy = Math.sin(heading);
+		if(towardX * dx >= 0 && towardY * dy >= 0)
+		{
+			return;
+		}
+		if(towardX * dx < 0)
+		{
+			dx = -dx;
+		}
+		if(towardY * dy < 0)
+		{
+			dy = -dy;
+		}
+		heading = Math.atan2(dy, dx);
+	}
+
+    /**
+     * A method that drives the chain's course for one tick, adding the distance to what the head has to move
+     */
+	public void advance()
+	{
+		travelX += speed * Math.cos(heading);
+		travelY += speed * Math.sin(heading);
+	}
+
+    /**
+     * A method that takes the whole units that the head has driven right, leaving the part of a unit for later ticks
+     * @return the integer distance that the head has to move right
+     */
+	public int takeX()
+	{
+		int dx = (int) travelX;
+		travelX -= dx;
+		return dx;
+	}
+
+    /**
+     * A method that takes the whole units that the head has driven down, leaving the part of a unit for later ticks
+     * @return the integer distance that the head has to move down
+     */
+	public int takeY()
+	{
+		int dy = (int) travelY;
+		travelY -= dy;
+		return dy;
+	}
+
+    /**
+     * A method that records that the trailers have moved, without moving them, such as when the head has moved
+     * or a link has been linked on or taken out right behind it
+     * @param dx the integer distance that the trailers moved right
+     * @param dy the integer distance that the trailers moved down
+     */
+	public void shift(int dx, int dy)
+	{
+		shiftX += dx;
+		shiftY += dy;
+		shifted = true;
+		head.getStore().addUnsettled(this);
+	}
+
+    /**
+     * A method that writes the trailers' positions behind the head, wherever it has moved, to the store
+     * and to the spatial index, so that the positions in the store are exact again
+     */
+	public void settle()
+	{
+		placeMoved();
+		if(!shifted)
+		{
+			return;
+		}
+		int dx = shiftX;
+		int dy = shiftY;
+		shiftX = 0;
+		shiftY = 0;
+		shifted = false;
+		if(dx == 0 && dy == 0)
+		{
+			return;
+		}
+		Vehicle v = head;
+		while(v != tail)
+		{
+			v = v.getTrailer();
+			v.moveStored(dx, dy);
+		}
+	}
+
+    /**
+     * A method that writes the positions of the trailers behind the last exact vehicle to the store and to the spatial index,
+     * each behind the vehicle in front of it, without redrawing them, since their area was marked when they were left behind
+     */
+	public void placeMoved()
+	{
+		if(moved == null)
+		{
+			return;
+		}
+		Vehicle v = moved;
+		moved = null;
+		while(v != tail)
+		{
+			Vehicle next = v.getTrailer();
+			if(next == tail)
+			{
+				break;
+			}
+			placeBehind(next);
+			v = next;
+		}
+	}
+
+    /**
+     * A method that makes the position that the store has for a vehicle of the chain exact, placing it alone if it is
+     * right behind the last exact vehicle, or else placing every trailer that is not exact
+     * @param vehicle the Vehicle of this chain to be placed
+     */
+	public void place(Vehicle vehicle)
+	{
+		if(isPlaced(vehicle))
+		{
+			return;
+		}
+		if(vehicle.getPuller() == moved)
+		{
+			placeBehind(vehicle);
+			moved = vehicle;
+			return;
+		}
+		placeMoved();
+	}
+
+    /**
+     * A method that writes the position of a trailer behind the vehicle in front of it to the store and to the spatial index,
+     * less how far the head has moved, since that is added when the position is read
+     * @param vehicle the Vehicle to be placed, whose puller's position is exact
+     */
+	private void placeBehind(Vehicle vehicle)
+	{
+		Vehicle puller = vehicle.getPuller();
+		vehicle.moveStored(puller.getTrailerX() - shiftX - vehicle.getIndexedX(), 
+							puller.getTrailerY() - shiftY - vehicle.getIndexedY());
+	}
+
+    /**
+     * A method that records that the trailers behind a vehicle, apart from the tail, are to be placed behind each other
+     * later, such as when a link is linked on or taken out behind it
+     * @param last the Vehicle of this chain whose position is exact, as is the position of every vehicle in front of it
+     */
+	public void placeLater(Vehicle last)
+	{
+		moved = last;
+		head.getStore().addUnsettled(this);
+	}
+
+    /**
+     * A method that takes over all of the vehicles of another chain that has been linked into this one. Only the other
+     * chain's ends are told; the rest find this chain from its head, since the other chain's records are no longer trusted.
+     * How far the other chain's trailers had moved is forgotten, so each of its vehicles is either moved to where
+     * this chain has it first or left to be placed later
+     * @param other the Train whose vehicles now belong to this chain
+     * @param after the Vehicle of this chain that the other chain was linked behind
+     */
+	public void absorb(Train other, Vehicle after)
+	{
+		other.cut = Long.MAX_VALUE;
+		other.head.setTrain(this);
+		other.tail.setTrain(this);
+		if(counted && other.counted)
+		{
+			splice(other.firstEmpty, other.lastEmpty, after, other.tail.getTrailer(), false);
+			splice(other.firstLoaded, other.lastLoaded, after, other.tail.getTrailer(), true);
+			length += other.length;
+			loadedCount += other.loadedCount;
+		}
+		else
+		{
+			counted = false;
+		}
+		if(after == tail)
+		{
+			tail = other.tail;
+		}
+		other.moved = null;
+		other.shiftX = 0;
+		other.shiftY = 0;
+		other.shifted = false;
+	}
+
+    /**
+     * A method that accounts for a single vehicle that has been unlinked from the chain; trailers behind it that were
+     * to be placed behind it are placed behind its puller instead
+     * @param vehicle the Vehicle that was removed, which must not be the head of the chain, and whose position was exact
+     * @param puller the Vehicle that pulled the removed vehicle, whose position is exact
+     */
+	public void remove(Vehicle vehicle, Vehicle puller)
+	{
+		if(vehicle == tail)
+		{
+			tail = puller;
+			tail.setTrain(this);
+			moved = null;
+		}
+		else if(moved == vehicle)
+		{
+			moved = puller;
+		}
+		if(counted)
+		{
+			length--;
+			if(vehicle.isLoaded())
+			{
+				loadedCount--;
+			}
+			unlinkSlot(vehicle, vehicle.isLoaded());
+		}
+	}
+
+    /**
+     * A method that moves the vehicles from a specified vehicle to the tail into a chain of their own without walking them:
+     * the vehicles behind the cut keep their record of this chain, which the new stamp makes untrusted, and the length
+     * and the lists of both chains are worked out again when they are next needed
+     * @param first the Vehicle that has been unlinked from this chain and becomes the head of the new chain,
+     * whose position was exact
+     * @param newTail the Vehicle that pulled the first vehicle and is now the tail of this chain, whose position is exact
+     * @return the Train of the new chain
+     */
+	public Train split(Vehicle first, Vehicle newTail)
+	{
+		Train other = new Train(first);
+		other.tail = tail;
+		other.counted = false;
+		counted = false;
+		// the new chain's trailers have moved as far as this chain's, and its head is written where it is
+		if(shifted)
+		{
+			other.shiftX = shiftX;
+			other.shiftY = shiftY;
+			other.shifted = true;
+			head.getStore().addUnsettled(other);
+			first.moveStored(shiftX, shiftY);
+		}
+		if(moved == first && first != tail)
+		{
+			other.moved = first;
+			head.getStore().addUnsettled(other);
+		}
+		moved = null;
+		tail = newTail;
+		cut = head.getStore().nextStamp();
+		head.setTrain(this);
+		tail.setTrain(this);
+		first.setTrain(other);
+		other.tail.setTrain(other);
+		return other;
+	}
+
+    /**
+     * A method that works out the length, the loaded count and the lists again if they are out of date, such as after a split
+     */
+	private void count()
+	{
+		if(!counted)
+		{
+			rebuild(Integer.MAX_VALUE);
+		}
+	}
+
+    /**
+     * A method that works out the rest of the descriptor by walking the chain from its head, 
+     * rebuilding the lists of loaded and empty vehicles, such as after the links have been read from a snapshot
+     * or the chain has been split
+     * @param limit the most vehicles that the chain can have, such as the number of vehicles in the store
+     * @throws IllegalArgumentException if the chain is longer than the limit, such as when its links loop back on themselves
+     */
+	public void rebuild(int limit)
+	{
+		length = 0;
+		loadedCount = 0;
+		setEnds(null, null, false);
+		setEnds(null, null, true);
+		Vehicle v = head;
+		while(true)
+		{
+			if(length == limit)
+			{
+				throw new IllegalArgumentException("The chain has more than " + limit + " vehicles");
+			}
+			v.setTrain(this);
+			length++;
+			boolean loaded = v.isLoaded();
+			if(loaded)
+			{
+				loadedCount++;
+			}
+			Vehicle last = getLast(loaded);
+			v.setPreviousSlot(last);
+			v.setNextSlot(null);
+			if(last == null)
+			{
+				setEnds(v, v, loaded);
+			}
+			else
+			{
+				last.setNextSlot(v);
+				setEnds(getFirst(loaded), v, loaded);
+			}
+			if(!v.hasTrailer())
+			{
+				break;
+			}
+			v = v.getTrailer();
+		}
+		tail = v;
+		counted = true;
+	}
+
+    /**
+     * A method that accounts for a block being loaded on or unloaded from one of the chain's vehicles,
+     * moving the vehicle from the list of empty vehicles to the list of loaded vehicles or back
+     * @param vehicle the Vehicle whose block was just loaded or unloaded
+     */
+	public void loadChanged(Vehicle vehicle)
+	{
+		if(!counted)
+		{
+			return;
+		}
+		boolean loaded = vehicle.isLoaded();
+		if(loaded)
+		{
+			loadedCount++;
+		}
+		else
+		{
+			loadedCount--;
+		}
+		unlinkSlot(vehicle, !loaded);
+		splice(vehicle, vehicle, vehicle.getPuller(), vehicle.getTrailer(), loaded);
+	}
+
+    /**
+     * A method that finds the first vehicle, from a specified vehicle to the tail of the chain, 
+     * that is loaded or empty
+     * @param from the Vehicle of this chain that the search starts at
+     * @param loaded true to find a loaded vehicle, false to find an empty vehicle
+     * @return the first Vehicle found, or null if there is none
+     */
+	public Vehicle find(Vehicle from, boolean loaded)
+	{
+		// the vehicle found is where the lists are followed from, so they have to be up to date
+		count();
+		if(from.isLoaded() == loaded)
+		{
+			return from;
+		}
+		// searches start at the head or right behind it, where the first vehicle of the list is the answer
+		if(from == head || from.getPuller() == head)
+		{
+			Vehicle v = getFirst(loaded);
+			if(v == head && from != head)
+			{
+				v = v.getNextSlot();
+			}
+			return v;
+		}
+		Vehicle v = from;
+		while(v != null && v.isLoaded() != loaded)
+		{
+			v = v.getTrailer();
+		}
+		return v;
+	}
+
+    /**
+     * A method that returns the first vehicle of the list of loaded or empty vehicles
+     * @param loaded true for the list of loaded vehicles, false for the list of empty vehicles
+     * @return the first Vehicle of the list, or null if it is empty
+     */
+	private Vehicle getFirst(boolean loaded)
+	{
+		if(loaded)
+		{
+			return firstLoaded;
+		}
+		return firstEmpty;
+	}
+
+    /**
+     * A method that returns the last vehicle of the list of loaded or empty vehicles
+     * @param loaded true for the list of loaded vehicles, false for the list of empty vehicles
+     * @return the last Vehicle of the list, or null if it is empty
+     */
+	private Vehicle getLast(boolean loaded)
+	{
+		if(loaded)
+		{
+			return lastLoaded;
+		}
+		return lastEmpty;
+	}
+
+    /**
+     * A method that sets the first and last vehicles of the list of loaded or empty vehicles
+     * @param first the first Vehicle of the list, or null if it is empty
+     * @param last the last Vehicle of the list, or null if it is empty
+     * @param loaded true for the list of loaded vehicles, false for the list of empty vehicles
+     */
+	private void setEnds(Vehicle first, Vehicle last, boolean loaded)
+	{
+		if(loaded)
+		{
+			firstLoaded = first;
+			lastLoaded = last;
+		}
+		else
+		{
+			firstEmpty = first;
+			lastEmpty = last;
+		}
+	}
+
+    /**
+     * A method that inserts a run of vehicles, already linked to each other, into the list of loaded or empty vehicles,
+     * in the place that keeps the list in the order of the chain
+     * @param first the first Vehicle of the run, or null if the run is empty
+     * @param last the last Vehicle of the run
+     * @param before the Vehicle of the chain right in front of the run, or null if the run is at the front of the chain
+     * @param behind the Vehicle of the chain right behind the run, or null if the run is at the back of the chain
+     * @param loaded true for the list of loaded vehicles, false for the list of empty vehicles
+     */
+	private void splice(Vehicle first, Vehicle last, Vehicle before, Vehicle behind, boolean loaded)
+	{
+		if(first == null)
+		{
+			return;
+		}
+		// the chain is searched in both directions at once for the closest vehicle already in the list,
+		// so a run near either end of the chain, or next to a vehicle in the list, is placed right away
+		Vehicle previous = null;
+		Vehicle next = null;
+		while(true)
+		{
+			if(before == null)
+			{
+				next = getFirst(loaded);
+				break;
+			}
+			if(before.isLoaded() == loaded)
+			{
+				previous = before;
+				next = before.getNextSlot();
+				break;
+			}
+			if(behind == null)
+			{
+				previous = getLast(loaded);
+				break;
+			}
+			if(behind.isLoaded() == loaded)
+			{
+				previous = behind.getPreviousSlot();
+				next = behind;
+				break;
+			}
+			before = before.getPuller();
+			behind = behind.getTrailer();
+		}
+		if(previous != null)
+		{
+			previous.setNextSlot(first);
+		}
+		first.setPreviousSlot(previous);
+		last.setNextSlot(next);
+		if(next != null)
+		{
+			next.setPreviousSlot(last);
+		}
+		setEnds(previous == null ? first : getFirst(loaded), next == null ? last : getLast(loaded), loaded);
+	}
+
+    /**
+     * A method that removes a single vehicle from the list of loaded or empty vehicles
+     * @param vehicle the Vehicle to be removed
+     * @param loaded true for the list of loaded vehicles, false for the list of empty vehicles
+     */
+	private void unlinkSlot(Vehicle vehicle, boolean loaded)
+	{
+		Vehicle previous = vehicle.getPreviousSlot();
+		Vehicle next = vehicle.getNextSlot();
+		if(previous != null)
+		{
+			previous.setNextSlot(next);
+		}
+		if(next != null)
+		{
+			next.setPreviousSlot(previous);
+		}
+		setEnds(previous == null ? next : getFirst(loaded), next == null ? previous : getLast(loaded), loaded);
+		vehicle.setPreviousSlot(null);
+		vehicle.setNextSlot(null);
+	}
+}
@@ -0,0 +1,314 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class that represents the animation of the trains: each tick, every train engine drives along its own heading and speed,
+ * turning back at the edges of the yard, with each trailer placed behind the one in front of it as Vehicle.setLocation
+ * places them. The chains share no vehicles, so they are driven in parallel on a fork/join pool, by tasks that are split
+ * by the number of vehicles they move rather than by the number of chains, so that a few long trains do not leave the
+ * other threads waiting. The spatial index is shared, so the tasks only gather the vehicles that have moved into other
+ * cells; once they are done, the vehicles are moved in the index by tasks that each own a range of its rows of cells
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class TrainAnimator
+{
+	public static final double MIN_SPEED = 1;		// the slowest that a train drives, in units of the game each tick
+	public static final double MAX_SPEED = 4;		// the fastest that a train drives, in units of the game each tick
+	private static final int SPLIT_VEHICLES = 8192;	// the most vehicles that a task drives without splitting them in two
+
+	private ForkJoinPool pool;				// the threads that drive the chains
+	private VehicleStore store;				// the store whose chains are listed, or null before the first tick
+	private int linkCount;					// the store's count of changes to the links when the chains were listed
+	private ArrayList<Train> trains;		// the chains that are headed by a train engine
+	private long[] ends;					// the number of vehicles in each listed chain and all of the chains before it
+	private Rectangle yard;					// the area that the trains drive in, which holds every vehicle when they are listed
+	private ArrayList<DriveTask> leaves;	// the tasks of the last tick that drove chains rather than splitting them
+
+	/**
+	 * Constructs a TrainAnimator object that drives the chains on a pool of threads
+	 * @param pool the ForkJoinPool that the chains are driven on
+	 */
+	public TrainAnimator(ForkJoinPool pool)
+	{
+		this.pool = pool;
+		trains = new ArrayList<Train>();
+		ends = new long[16];
+		yard = new Rectangle();
+		leaves = new ArrayList<DriveTask>();
+	}
+
+	/**
+	 * A method that drives every train engine, and the trailers behind it, for one tick
+	 * @param store the VehicleStore of the game
+	 * @param held the Train that stays where it is, such as one that is selected to be dragged, or null
+	 * @return true if any vehicle has moved, false otherwise
+	 */
+	public boolean tick(VehicleStore store, Train held)
+	{
+		// the trailers are placed from the exact positions of the vehicles in front of them
+		store.settleTrains();
+		if(store != this.store || store.getLinkCount() != linkCount)
+		{
+			listTrains(store);
+		}
+		if(trains.isEmpty())
+		{
+			return false;
+		}
+		DriveTask root = new DriveTask(0, trains.size(), held);
+		pool.invoke(root);
+		leaves.clear();
+		boolean moved = root.collect(leaves);
+		int crossed = 0;
+		for(int i = 0; i < leaves.size(); i++)
+		{
+			crossed += leaves.get(i).crossedCount / 3;
+		}
+		if(crossed > 0)
+		{
+			pool.invoke(new IndexTask(store.getGrid(), crossed, 0, SpatialGrid.STRIPES));
+		}
+		return moved;
+	}
+
+	/**
+	 * A method that lists the chains headed by a train engine, with the number of vehicles in them, and the area that
+	 * holds every vehicle, giving each chain that has no course yet a random one
+	 * @param store the VehicleStore of the game
+	 */
+	private void listTrains(VehicleStore store)
+	{
+		this.store = store;
+		linkCount = store.getLinkCount();
+		trains.clear();
+		yard.setBounds(0, 0, GameFrame.FRAME_WIDTH, GameFrame.FRAME_HEIGHT);
+		Random random = store.getRandom();
+		long vehicles = 0;
+		for(int id = 0; id < store.size(); id++)
+		{
+			Vehicle v = store.getView(id);
+			yard.add(v.getX(), v.getY());
+			yard.add(v.getX() + v.getWidth(), v.getY() + v.getHeight());
+			if(v.isTrailer() || !(v instanceof TrainEngine))
+			{
+				continue;
+			}
+			Train train = v.getTrain();
+			if(!train.hasCourse())
+			{
+				train.setCourse(random.nextDouble() * 2 * Math.PI, MIN_SPEED + random.nextDouble() * (MAX_SPEED - MIN_SPEED));
+			}
+			if(trains.size() == ends.length)
+			{
+				ends = Arrays.copyOf(ends, 2 * ends.length);
+			}
+			vehicles += train.getLength();
+			ends[trains.size()] = vehicles;
+			trains.add(train);
+		}
+	}
+
+	/**
+	 * A method that returns the number of chains that are driven each tick
+	 * @return the integer number of chains headed by a train engine
+	 */
+	public int getTrainCount()
+	{
+		return trains.size();
+	}
+
+	/**
+	 * Class that represents the driving of a run of the listed chains, which splits itself in two while it has
+	 * more than SPLIT_VEHICLES vehicles to drive and more than one chain
+	 */
+	private class DriveTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;	// the version of the task's form, which is never serialized
+
+		private int from;				// the position in the list of the first chain to be driven
+		private int to;					// the position in the list after the last chain to be driven
+		private Train held;				// the Train that stays where it is, or null
+		private DriveTask first;		// the task that drives the first half of the chains, or null if the task was not split
+		private DriveTask second;		// the task that drives the second half of the chains, or null if the task was not split
+		private int[] crossed;			// the id, old x and old y of each vehicle that has moved into other cells, or null
+		private int crossedCount;		// the number of values in the crossed array
+		private boolean moved;			// used to check if the task has moved any vehicle
+
+		/**
+		 * Constructs a DriveTask object for a run of the listed chains
+		 * @param from the position in the list of the first chain
+		 * @param to the position in the list after the last chain
+		 * @param held the Train that stays where it is, or null
+		 */
+		DriveTask(int from, int to, Train held)
+		{
+			this.from = from;
+			this.to = to;
+			this.held = held;
+		}
+
+		/**
+		 * Drives the chains, or splits them between two tasks at the chain that halves the number of vehicles
+		 */
+		protected void compute()
+		{
+			long before = from == 0 ? 0 : ends[from - 1];
+			long vehicles = ends[to - 1] - before;
+			if(vehicles > SPLIT_VEHICLES && to - from > 1)
+			{
+				int middle = Arrays.binarySearch(ends, from, to, before + vehicles / 2);
+				middle = middle >= 0 ? middle + 1 : -middle - 1;
+				middle = Math.max(from + 1, Math.min(to - 1, middle));
+				first = new DriveTask(from, middle, held);
+				second = new DriveTask(middle, to, held);
+				invokeAll(first, second);
+				return;
+			}
+			for(int i = from; i < to; i++)
+			{
+				if(trains.get(i) != held)
+				{
+					drive(trains.get(i));
+				}
+			}
+		}
+
+		/**
+		 * A method that drives a chain for one tick, turning it back into the yard if it has reached an edge
+		 * @param train the Train to be driven
+		 */
+		private void drive(Train train)
+		{
+			Vehicle head = train.getHead();
+			Vehicle tail = train.getTail();
+			int left = Math.min(head.getX(), tail.getX());
+			int right = Math.max(head.getX() + head.getWidth(), tail.getX() + tail.getWidth());
+			int top = Math.min(head.getY(), tail.getY());
+			int bottom = Math.max(head.getY() + head.getHeight(), tail.getY() + tail.getHeight());
+			train.turn(left < yard.x ? 1 : right > yard.x + yard.width ? -1 : 0,
+						top < yard.y ? 1 : bottom > yard.y + yard.height ? -1 : 0);
+			train.advance();
+			int dx = train.takeX();
+			int dy = train.takeY();
+			if(dx == 0 && dy == 0)
+			{
+				return;
+			}
+			moved = true;
+			int x = head.getX() + dx;
+			int y = head.getY() + dy;
+			Vehicle v = head;
+			while(true)
+			{
+				int oldX = v.getX();
+				int oldY = v.getY();
+				v.placeStored(x, y);
+				if(v.isIndexed() && !SpatialGrid.sameCells(oldX, oldY, x, y, v.getWidth(), v.getHeight()))
+				{
+					addCrossed(v.getId(), oldX, oldY);
+				}
+				if(!v.hasTrailer())
+				{
+					break;
+				}
+				x = v.getTrailerX();
+				y = v.getTrailerY();
+				v = v.getTrailer();
+			}
+		}
+
+		/**
+		 * A method that remembers a vehicle that has moved into other cells of the spatial index
+		 * @param id the integer id of the vehicle
+		 * @param oldX the integer value of the x coordinate of the vehicle before it moved
+		 * @param oldY the integer value of the y coordinate of the vehicle before it moved
+		 */
+		private void addCrossed(int id, int oldX, int oldY)
+		{
+			if(crossed == null)
+			{
+				crossed = new int[48];
+			}
+			else if(crossedCount == crossed.length)
+			{
+				crossed = Arrays.copyOf(crossed, 2 * crossed.length);
+			}
+			crossed[crossedCount++] = id;
+			crossed[crossedCount++] = oldX;
+			crossed[crossedCount++] = oldY;
+		}
+
+		/**
+		 * A method that lists the tasks that drove chains, which the task is or split into, once they are all done
+		 * @param result the list that the tasks are added to
+		 * @return true if the task or the tasks it split into have moved any vehicle, false otherwise
+		 */
+		boolean collect(ArrayList<DriveTask> result)
+		{
+			if(first != null)
+			{
+				boolean firstMoved = first.collect(result);
+				return second.collect(result) || firstMoved;
+			}
+			result.add(this);
+			return moved;
+		}
+	}
+
+	/**
+	 * Class that represents the moving, in the spatial index, of the vehicles that have moved into other cells,
+	 * in a range of the maps that the rows of cells are shared between; it splits itself in two until there is
+	 * about one range for each thread of the pool
+	 */
+	private class IndexTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;	// the version of the task's form, which is never serialized
+
+		private SpatialGrid grid;		// the spatial index of the vehicles
+		private int crossed;			// the number of vehicles that have moved into other cells
+		private int from;				// the first map of the range
+		private int to;					// the map after the last map of the range
+
+		/**
+		 * Constructs an IndexTask object for a range of the maps of the spatial index
+		 * @param grid the SpatialGrid of the game
+		 * @param crossed the number of vehicles that have moved into other cells
+		 * @param from the first map of the range
+		 * @param to the map after the last map of the range
+		 */
+		IndexTask(SpatialGrid grid, int crossed, int from, int to)
+		{
+			this.grid = grid;
+			this.crossed = crossed;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Moves the vehicles in the range of maps, or splits the range between two tasks
+		 */
+		protected void compute()
+		{
+			// every task looks at every vehicle that has moved, so the range is only split while there are threads for it
+			if(to - from > 1 && (to - from) * pool.getParallelism() > SpatialGrid.STRIPES && crossed > SPLIT_VEHICLES)
+			{
+				int middle = (from + to) / 2;
+				invokeAll(new IndexTask(grid, crossed, from, middle), new IndexTask(grid, crossed, middle, to));
+				return;
+			}
+			for(int i = 0; i < leaves.size(); i++)
+			{
+				DriveTask leaf = leaves.get(i);
+				for(int j = 0; j < leaf.crossedCount; j += 3)
+				{
+					grid.update(store.getView(leaf.crossed[j]), leaf.crossed[j + 1], leaf.crossed[j + 2], from, to);
+				}
+			}
+		}
+	}
+}
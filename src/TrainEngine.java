@@ -28,41 +28,49 @@ public class TrainEngine extends Vehicle
     public static final int TOTAL_WIDTH = (int) (U3 + U11);	// the width of the train engine's bounding box
     public static final int TOTAL_HEIGHT = (int) (U4 + UNIT);	// the height of the train engine's bounding box
     
+    /**
+       Shapes of the train engine relative to the upper left corner of its bounding box, 
+       which are shared by every train engine and moved into place with a translation when drawn
+     */
+    private static final Rectangle2D.Double HOOD = new Rectangle2D.Double(0, UNIT, U3, U3) ;
+    private static final Rectangle2D.Double BODY = new Rectangle2D.Double(U3, 0, U10, U4) ;
+    private static final Line2D.Double HITCH = new Line2D.Double(U13, U2_5, U14, U2_5) ;
+    private static final PixelShape[] WHEELS = {
+    	new PixelShape(new Ellipse2D.Double(U_3, U4, UNIT, UNIT), true),
+    	new PixelShape(new Ellipse2D.Double(1.3 * UNIT, U4, UNIT, UNIT), true),
+    	new PixelShape(new Ellipse2D.Double(2.3 * UNIT, 4 * UNIT, UNIT, UNIT), true),
+    	new PixelShape(new Ellipse2D.Double(U10_7, U4, UNIT, UNIT), true),
+    	new PixelShape(new Ellipse2D.Double(U12, U4, UNIT, UNIT), true),
+    	new PixelShape(new Ellipse2D.Double(9.7 * UNIT, U4, UNIT, UNIT), true)
+    } ;
+    
     /**
      * Constructs a TrainEngine object 
+     * @param store the VehicleStore that holds the train engine
      * @param x the integer value of the upper left x coordinate location of the train engine
      * @param y the integer value of the upper left y coordinate location of the train engine
      */
-    public TrainEngine(int x, int y)
+    public TrainEngine(VehicleStore store, int x, int y)
     {
+    	super(store);
     	setBox(x, y, (int) TOTAL_WIDTH, TOTAL_HEIGHT);
     }
     
 	/**
-       Draws the train engine
+       Draws the train engine, without its trailers
        @param g2 the graphics context
      */
-    public void draw(Graphics2D g2)
+    public void drawVehicle(Graphics2D g2)
     {
 		int x1 = getX() ;
 		int y1 = getY() ;
-		Rectangle2D.Double hood = new Rectangle2D.Double(x1, y1 + UNIT, 
-								 U3, U3 ) ;
+		g2.translate(x1, y1) ;
 		g2.setColor(Color.blue) ;
-		g2.fill(hood) ;
+		g2.fill(HOOD) ;
+		g2.fill(BODY) ;
 	
-		Rectangle2D.Double body = new Rectangle2D.Double(x1 + U3,
-								 y1,
-								 U10, U4) ;
-		g2.setColor(Color.blue) ;
-		g2.fill(body) ;
-	
-		Line2D.Double hitch = new Line2D.Double(x1 + U13,
-							y1 + U2_5,
-							x1 + U14, 
-							y1 + U2_5) ;
 		g2.setColor(Color.black) ;
-		g2.draw(hitch) ;
+		g2.draw(HITCH) ;
 	
 		if(isSelected())
 		{
@@ -72,42 +80,11 @@ public class TrainEngine extends Vehicle
 		{
 			g2.setColor(Color.BLACK);
 		}
-		Ellipse2D.Double wheel1 = new Ellipse2D.Double(x1 + U_3, 
-							       y1 + U4, 
-								 UNIT, UNIT) ;
-		g2.fill(wheel1) ;
-	
-		Ellipse2D.Double wheel2 = new Ellipse2D.Double(x1 + 1.3 * UNIT, 
-							       y1 + U4, 
-								 UNIT, UNIT) ;
-		g2.fill(wheel2) ;
-	
-		Ellipse2D.Double wheel3 = new Ellipse2D.Double(x1 + 2.3 * UNIT, 
-							       y1 + 4 * UNIT, 
-								 UNIT, UNIT) ;
-		g2.fill(wheel3) ;
-	
-		Ellipse2D.Double wheel4 = new Ellipse2D.Double(x1 + U10_7, 
-							       y1 + U4, 
-								 UNIT, UNIT) ;
-		g2.fill(wheel4) ;
-	
-		Ellipse2D.Double wheel5 = new Ellipse2D.Double(x1 + U12, 
-							       y1 + U4, 
-								 UNIT, UNIT) ;
-		g2.fill(wheel5) ;
-		
-		Ellipse2D.Double wheel6 = new Ellipse2D.Double(x1 + 9.7 * UNIT, 
-			       y1 + U4, 
-				 UNIT, UNIT) ;
-		g2.fill(wheel6) ;
-		g2.setColor(Color.BLACK);
-	
-		// recursively draws linked vehicles
-		if(hasTrailer())
+		for(int i = 0; i < WHEELS.length; i++)
 		{
-			trailer = (RailCar) trailer;
-			trailer.draw(g2);
+			WHEELS[i].draw(g2) ;
 		}
+		g2.setColor(Color.BLACK);
+		g2.translate(-x1, -y1) ;
     }
 }
\ No newline at end of file
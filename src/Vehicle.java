@@ -1,37 +1,110 @@
+import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.util.Random;
 
 /**
- * Abstract class that represents a generic vehicle
+ * Abstract class that represents a generic vehicle, as a view onto its properties in a VehicleStore
  * @author Alessandro Profenna alessandro.profenna@ryerson.ca
  * @version March 25, 2015
  */
 public abstract class Vehicle
 {
-	public Vehicle trailer;			// the vehicle's trailer that is attached behind it
-	public Rectangle box;			// the bounding box of the vehicle
-	public boolean hasTrailer;		// used to check if there is a trailer behind the vehicle
-	public boolean isTrailer;		// used to check if the vehicle is a trailer
-	private boolean isLoaded;		// used to check if the vehicle has a block on it
-	private boolean selected;		// used to check if the vehicle is currently selected
-	private Block loadedBlock;		// the block that is currently loaded on the vehicle
-	private Random random;			// used to select a random location for popped rail cars
+	private VehicleStore store;		// the store that holds the vehicle's bounding box, links, flags and load
+	private int id;					// the position of the vehicle's properties in its store
+	private Train train;			// the descriptor of the chain of vehicles that this vehicle belongs to
+	private long stamp;				// the store's stamp when the chain was recorded, which is trusted if it is at least the chain's cut
 	
     /**
-     * Draws the block
+     * Constructs a Vehicle object that is not linked to any other vehicle
+     * @param store the VehicleStore that holds the vehicle, and every vehicle it can be linked to
+     */
+	public Vehicle(VehicleStore store)
+	{
+		this.store = store;
+		id = store.add(this);
+		train = new Train(this);
+	}
+	
+    /**
+     * Draws the vehicle on its own, without its trailers
+     * @param g2 the graphics context
+     */
+	public abstract void drawVehicle(Graphics2D g2);
+	
+    /**
+     * Draws the vehicle on its own as a filled box, red if it is selected, for a view too far out to show its shape
      * @param g2 the graphics context
      */
-	public abstract void draw(Graphics2D g2);
+	public void drawBox(Graphics2D g2)
+	{
+		g2.setColor(isSelected() ? Color.RED : Color.BLACK);
+		g2.fillRect(getX(), getY(), getWidth(), getHeight());
+		g2.setColor(Color.BLACK);
+	}
+	
+    /**
+     * Draws the vehicle and all of its linked trailers
+     * @param g2 the graphics context
+     */
+	public void draw(Graphics2D g2)
+	{
+		draw(g2, null);
+	}
+	
+    /**
+     * Draws the vehicle and all of its linked trailers, copying their pre-drawn images if a sprite cache is given
+     * @param g2 the graphics context
+     * @param sprites the SpriteCache of pre-drawn images, or null to draw every vehicle from its shapes
+     */
+	public void draw(Graphics2D g2, SpriteCache sprites)
+	{
+		// the linked vehicles are drawn from the back of the chain forward, so each hitch is drawn over its trailer
+		Vehicle v = getTrain().getTail();
+		while(true)
+		{
+			if(sprites != null)
+			{
+				sprites.drawVehicle(g2, v);
+			}
+			else
+			{
+				v.drawVehicle(g2);
+			}
+			if(v == this)
+			{
+				break;
+			}
+			v = v.getPuller();
+		}
+	}
+	
+    /**
+     * A method that returns the store that holds the vehicle
+     * @return the VehicleStore of the vehicle
+     */
+	public VehicleStore getStore()
+	{
+		return store;
+	}
+	
+    /**
+     * A method that returns the position of the vehicle's properties in its store
+     * @return the integer id of the vehicle
+     */
+	public int getId()
+	{
+		return id;
+	}
 	
     /**
-     * A method that returns the bounding box of the vehicle
-     * @return the Rectangle bounding box of the vehicle
+     * A method that returns a copy of the bounding box of the vehicle
+     * @return a new Rectangle with the bounding box of the vehicle
      */
 	public Rectangle getBox()
 	{
-		return box;
+		return new Rectangle(getX(), getY(), getWidth(), getHeight());
 	}
 	
     /**
@@ -43,7 +116,8 @@ public abstract class Vehicle
      */
 	public void setBox(int x, int y, int width, int height)
 	{
-		box = new Rectangle(x, y, width, height);
+		store.setLocation(id, x, y);
+		store.setSize(id, width, height);
 	}
 	
     /**
@@ -52,7 +126,14 @@ public abstract class Vehicle
      */
 	public int getX()
 	{
-		return (int) box.getX();
+		// a trailer is behind its head by as much as it was when its position was last written
+		if(store.hasFlag(id, VehicleStore.IS_TRAILER))
+		{
+			Train chain = getTrain();
+			chain.place(this);
+			return store.getX(id) + chain.getShiftX();
+		}
+		return store.getX(id);
 	}
 	
     /**
@@ -61,7 +142,51 @@ public abstract class Vehicle
      */
 	public int getY()
 	{
-		return (int) box.getY();
+		if(store.hasFlag(id, VehicleStore.IS_TRAILER))
+		{
+			Train chain = getTrain();
+			chain.place(this);
+			return store.getY(id) + chain.getShiftY();
+		}
+		return store.getY(id);
+	}
+	
+    /**
+     * A method that returns the x coordinate that the store and the spatial index have for the vehicle, which is behind
+     * the vehicle's own for a trailer whose head has moved since its chain was settled, or that has not been placed
+     * since vehicles in front of it were taken out or linked on
+     * @return the integer value of the stored upper left x coordinate of the vehicle's bounding box
+     */
+	public int getIndexedX()
+	{
+		return store.getX(id);
+	}
+	
+    /**
+     * A method that returns the y coordinate that the store and the spatial index have for the vehicle
+     * @return the integer value of the stored upper left y coordinate of the vehicle's bounding box
+     */
+	public int getIndexedY()
+	{
+		return store.getY(id);
+	}
+	
+    /**
+     * A method that returns the width of the vehicle's bounding box
+     * @return the integer width of the vehicle's bounding box
+     */
+	public int getWidth()
+	{
+		return store.getWidth(id);
+	}
+	
+    /**
+     * A method that returns the height of the vehicle's bounding box
+     * @return the integer height of the vehicle's bounding box
+     */
+	public int getHeight()
+	{
+		return store.getHeight(id);
 	}
 	
     /**
@@ -71,21 +196,151 @@ public abstract class Vehicle
      */
 	public void setLocation(int x, int y)
 	{
-		box.setLocation(x, y);
-		// if the vehicle has linked trailers, their locations will be set recursively
-		if(hasTrailer)
+		// a head with trailers moves alone, and the chain remembers how far it went, so dragging a long train
+		// does not touch every rail car; their area is marked for redrawing as a whole
+		if(!isTrailer() && hasTrailer())
+		{
+			int dx = x - getX();
+			int dy = y - getY();
+			if(dx == 0 && dy == 0)
+			{
+				return;
+			}
+			Train chain = getTrain();
+			markBehindDirty(chain.getTail());
+			moveTo(x, y);
+			chain.shift(dx, dy);
+			markBehindDirty(chain.getTail());
+			return;
+		}
+		getTrain().settle();
+		moveTo(x, y);
+		// if the vehicle has linked trailers, each one is placed behind the one in front of it
+		Vehicle v = this;
+		while(v.hasTrailer())
 		{
-			if(this instanceof TrainEngine)
-	    	{
-	    		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY() + 17);
-	    	}
-	    	else
-	    	{
-	    		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY());
-	    	}
+			Vehicle next = v.getTrailer();
+			next.moveTo(v.getTrailerX(), v.getTrailerY());
+			v = next;
 		}
 	}
 	
+    /**
+     * A method that moves only this vehicle, leaving its trailers where they are
+     * @param x the integer value of the new x coordinate location of the vehicle
+     * @param y the integer value of the new y coordinate location of the vehicle
+     */
+	private void moveTo(int x, int y)
+	{
+		int oldX = getX();
+		int oldY = getY();
+		if(oldX == x && oldY == y)
+		{
+			return;
+		}
+		markDirty();
+		store.setLocation(id, x, y);
+		markDirty();
+		if(store.hasFlag(id, VehicleStore.INDEXED))
+		{
+			store.getGrid().update(this, oldX, oldY);
+		}
+		Block loadedBlock = store.getLoad(id);
+		if(loadedBlock != null)
+		{
+			loadedBlock.followCarrier();
+		}
+	}
+	
+    /**
+     * A method that moves the vehicle's position in the store and in the spatial index, without redrawing it, 
+     * such as when its chain is settled after its head has moved or it is linked into another chain
+     * @param dx the integer distance to move right
+     * @param dy the integer distance to move down
+     */
+	public void moveStored(int dx, int dy)
+	{
+		int oldX = store.getX(id);
+		int oldY = store.getY(id);
+		store.setLocation(id, oldX + dx, oldY + dy);
+		if(store.hasFlag(id, VehicleStore.INDEXED))
+		{
+			store.getGrid().update(this, oldX, oldY);
+		}
+	}
+	
+    /**
+     * A method that writes a new position of the vehicle to the store alone, leaving the spatial index and the area to be
+     * redrawn for the caller to bring up to date, so that chains that share no vehicles can be moved on several threads at once
+     * @param x the integer value of the new x coordinate location of the vehicle
+     * @param y the integer value of the new y coordinate location of the vehicle
+     */
+	public void placeStored(int x, int y)
+	{
+		store.setLocation(id, x, y);
+	}
+	
+    /**
+     * A method that checks if the vehicle is in the spatial index
+     * @return true if the spatial index has the vehicle, false otherwise
+     */
+	public boolean isIndexed()
+	{
+		return store.hasFlag(id, VehicleStore.INDEXED);
+	}
+	
+    /**
+     * A method that adds the area where the trailers behind the vehicle up to one of them, and the blocks loaded on them,
+     * are drawn to the area that needs to be redrawn; the trailers all follow each other at the same height, so the area
+     * spans from where the vehicle's trailer is attached to the back of the last one, whose positions are both exact
+     * even when the trailers between them have not been placed
+     * @param last the Vehicle of the chain behind this one that the area ends at
+     */
+	private void markBehindDirty(Vehicle last)
+	{
+		if(!store.hasFlag(id, VehicleStore.DRAWN))
+		{
+			return;
+		}
+		int left = getTrailerX();
+		int top = Math.min(getTrailerY(), last.getY()) - Block.HEIGHT;
+		int bottom = Math.max(getTrailerY(), last.getY()) + last.getHeight();
+		store.getDirtyRegion().add(left, top, last.getX() + last.getWidth() - left, bottom - top);
+	}
+	
+    /**
+     * A method that adds the area where the vehicle, and any block loaded on it, is drawn to the area that needs to be redrawn
+     */
+	public void markDirty()
+	{
+		if(store.hasFlag(id, VehicleStore.DRAWN))
+		{
+			store.getDirtyRegion().add(getX(), getY() - Block.HEIGHT, getWidth(), getHeight() + Block.HEIGHT);
+		}
+	}
+	
+    /**
+     * A method that returns the x coordinate location where the vehicle's trailer is attached
+     * @return the integer value of the x coordinate location of the vehicle's trailer
+     */
+	public int getTrailerX()
+	{
+		return getX() + getWidth();
+	}
+	
+    /**
+     * A method that returns the y coordinate location where the vehicle's trailer is attached
+     * @return the integer value of the y coordinate location of the vehicle's trailer
+     */
+	public int getTrailerY()
+	{
+		if(this instanceof TrainEngine)
+		{
+			return getY() + 17;
+		}
+		return getY();
+	}
+	
     /**
      * A method that checks if the selected vehicle overlaps with another
      * @param v the Vehicle to check for the overlapping of this one
@@ -93,16 +348,27 @@ public abstract class Vehicle
      */
     public boolean overlaps(Vehicle v)
     {
-    	if(this.box.intersects(v.box))
+    	if(intersects(v))
     	{
     		return true;
     	}
     	else if(hasTrailer())
     	{
-    		return trailer.box.intersects(v.box);
+    		return getTrailer().intersects(v);
     	}
     	return false;
     }
+    
+    /**
+     * A method that checks if the vehicle's bounding box intersects another vehicle's
+     * @param v the other Vehicle
+     * @return true if the bounding boxes intersect, false otherwise
+     */
+    private boolean intersects(Vehicle v)
+    {
+    	return getX() < v.getX() + v.getWidth() && v.getX() < getX() + getWidth() &&
+    			getY() < v.getY() + v.getHeight() && v.getY() < getY() + getHeight();
+    }
 
     /**
      * A method that checks if the vehicle's bounding box contains a specified point
@@ -111,13 +377,24 @@ public abstract class Vehicle
      */
     public boolean contains(Point p)
     {
-    	if(box.contains(p))
+    	if(contains(p.x, p.y))
     	{
     		return true;
     	}
     	return false;
     }
     
+    /**
+     * A method that checks if the vehicle's bounding box contains a specified point
+     * @param x the integer value of the x coordinate of the point
+     * @param y the integer value of the y coordinate of the point
+     * @return true if the vehicle's bounding box contains the point, false otherwise
+     */
+    public boolean contains(int x, int y)
+    {
+    	return x >= getX() && y >= getY() && x < getX() + getWidth() && y < getY() + getHeight();
+    }
+    
     /**
      * A method that checks if the vehicle's position equals that of another vehicle's
      * @param other the other vehicle that is behind checked for a matching location
@@ -138,7 +415,7 @@ public abstract class Vehicle
      */
     public boolean isSelected()
     {
-    	return selected;
+    	return store.hasFlag(id, VehicleStore.SELECTED);
     }
     
     /**
@@ -146,12 +423,8 @@ public abstract class Vehicle
      */
     public void select()
     {
-    	selected = true;
-    	// if the vehicle has trailers, they are all selected recursively
-    	if(hasTrailer())
-    	{
-    		trailer.select();
-    	}
+    	// if the vehicle has trailers, they are all selected as well
+    	setSelected(true);
     }
     
     /**
@@ -159,11 +432,30 @@ public abstract class Vehicle
      */
     public void deselect()
     {
-    	selected = false;
-    	// if the vehicle has trailers, they are all deselected recursively
-    	if(hasTrailer())
+    	// if the vehicle has trailers, they are all deselected as well
+    	setSelected(false);
+    }
+    
+    /**
+     * A method that selects or deselects the vehicle and its trailers, walking from the back of the chain to the vehicle
+     * @param selected true to select the vehicles, false to deselect them
+     */
+    private void setSelected(boolean selected)
+    {
+    	Vehicle v = getTrain().getTail();
+    	while(true)
     	{
-    		trailer.deselect();
+    		// only the vehicles whose color changes need to be redrawn
+    		if(v.isSelected() != selected)
+    		{
+    			store.setFlag(v.id, VehicleStore.SELECTED, selected);
+    			v.markDirty();
+    		}
+    		if(v == this)
+    		{
+    			break;
+    		}
+    		v = v.getPuller();
     	}
     }
     
@@ -173,7 +465,7 @@ public abstract class Vehicle
      */
     public boolean isTrailer()
     {
-    	return isTrailer;
+    	return store.hasFlag(id, VehicleStore.IS_TRAILER);
     }
     
     /**
@@ -182,7 +474,16 @@ public abstract class Vehicle
      */
     public boolean hasTrailer()
     {
-    	return hasTrailer;
+    	return store.hasFlag(id, VehicleStore.HAS_TRAILER);
+    }
+    
+    /**
+     * A method that returns the vehicle's trailer that is attached behind it
+     * @return the Vehicle that is this vehicle's trailer, or null if it has none
+     */
+    public Vehicle getTrailer()
+    {
+    	return store.getView(store.getTrailer(id));
     }
     
     /**
@@ -191,16 +492,7 @@ public abstract class Vehicle
      */
     public boolean hasEmptyTrailer()
     {
-    	// recursively checks all of the vehicle's trailers, if it has more than one
-    	if(isLoaded() && hasTrailer())
-    	{
-    		return trailer.hasEmptyTrailer();
-    	}
-    	if(!isLoaded())
-    	{
-    		return true;
-    	}
-    	return false;
+    	return getTrain().find(this, false) != null;
     }
     
     /**
@@ -209,7 +501,7 @@ public abstract class Vehicle
      */
     public boolean isLoaded()
     {
-    	return isLoaded;
+    	return store.hasFlag(id, VehicleStore.LOADED);
     }
     
     /**
@@ -219,16 +511,14 @@ public abstract class Vehicle
     public void load(Block load)
     {
     	// loads the block on the vehicle's next empty trailer, if it has one 
-    	if(isLoaded() && hasTrailer())
-    	{
-    		trailer.load(load);
-    		return;
-    	}
-    	if(!isLoaded())
+    	Train chain = getTrain();
+    	Vehicle v = chain.find(this, false);
+    	if(v != null)
     	{	
-    		isLoaded = true;
-    		loadedBlock = load;
-    		load.setCarrier(this);
+    		store.setFlag(v.id, VehicleStore.LOADED, true);
+    		store.setLoad(v.id, load);
+    		load.setCarrier(v);
+    		chain.loadChanged(v);
     	}
     }
     
@@ -239,14 +529,15 @@ public abstract class Vehicle
     public void unload(Block load)
     {
     	// unloads the block from the vehicle's next loaded trailer, if it doesn't have one 
-    	if(!isLoaded() && hasTrailer())
+    	Train chain = getTrain();
+    	Vehicle v = chain.find(this, true);
+    	if(v != null)
     	{
-    		trailer.unload(load);
-    		return;
+    		store.setFlag(v.id, VehicleStore.LOADED, false);
+    		store.setLoad(v.id, null);
+    		chain.loadChanged(v);
     	}
-    	isLoaded = false;
     	load.setCarrier(null);
-    	loadedBlock = null;
     }
     
     /**
@@ -256,11 +547,93 @@ public abstract class Vehicle
     public Block getLoad()
     {
     	// returns the block from the vehicle's next loaded trailer, if it doesn't have one 
-    	if(!isLoaded && hasTrailer)
+    	Vehicle v = getTrain().find(this, true);
+    	if(v == null)
     	{
-    		return trailer.getLoad();
+    		return null;
     	}
-    	return loadedBlock;
+    	return store.getLoad(v.id);
+    }
+    
+    /**
+     * A method that returns the descriptor of the chain of vehicles that this vehicle belongs to
+     * @return the Train that holds the head, tail, length and loaded count of the vehicle's chain
+     */
+    public Train getTrain()
+    {
+    	if(stamp < train.getCut())
+    	{
+    		findTrain();
+    	}
+    	return train;
+    }
+    
+    /**
+     * A method that sets the descriptor of the chain of vehicles that this vehicle belongs to
+     * @param train the Train of the vehicle's chain
+     */
+    public void setTrain(Train train)
+    {
+    	this.train = train;
+    	stamp = store.getStamp();
+    }
+    
+    /**
+     * A method that finds the chain of a vehicle whose record of it is no longer trusted, since the chain was split or
+     * linked into another, from the nearest vehicle in front of it whose record is, which at the furthest is the head,
+     * recording the chain in every vehicle on the way back
+     */
+    private void findTrain()
+    {
+    	Vehicle v = getPuller();
+    	while(v.stamp < v.train.getCut())
+    	{
+    		v = v.getPuller();
+    	}
+    	Train found = v.train;
+    	long now = store.getStamp();
+    	while(v != this)
+    	{
+    		v = v.getTrailer();
+    		v.train = found;
+    		v.stamp = now;
+    	}
+    }
+    
+    /**
+     * A method that returns the vehicle in front of this one in its train that is loaded, or empty, the same way
+     * @return the previous Vehicle of the train's list of loaded or empty vehicles, or null if this one is the first
+     */
+    public Vehicle getPreviousSlot()
+    {
+    	return store.getView(store.getPreviousSlot(id));
+    }
+    
+    /**
+     * A method that sets the vehicle in front of this one in its train that is loaded, or empty, the same way
+     * @param previousSlot the previous Vehicle of the train's list of loaded or empty vehicles
+     */
+    public void setPreviousSlot(Vehicle previousSlot)
+    {
+    	store.setPreviousSlot(id, store.idOf(previousSlot));
+    }
+    
+    /**
+     * A method that returns the vehicle behind this one in its train that is loaded, or empty, the same way
+     * @return the next Vehicle of the train's list of loaded or empty vehicles, or null if this one is the last
+     */
+    public Vehicle getNextSlot()
+    {
+    	return store.getView(store.getNextSlot(id));
+    }
+    
+    /**
+     * A method that sets the vehicle behind this one in its train that is loaded, or empty, the same way
+     * @param nextSlot the next Vehicle of the train's list of loaded or empty vehicles
+     */
+    public void setNextSlot(Vehicle nextSlot)
+    {
+    	store.setNextSlot(id, store.idOf(nextSlot));
     }
     
     /**
@@ -269,22 +642,41 @@ public abstract class Vehicle
      */
     public void addLast(Vehicle otherTrailer)
     {
-    	if(hasTrailer())
+    	Train chain = getTrain();
+    	Train other = otherTrailer.getTrain();
+    	// a chain can not be attached to itself
+    	if(other == chain)
     	{
-    		this.trailer.addLast(otherTrailer);
     		return;
     	}
-    	this.trailer = otherTrailer;
-    	trailer.isTrailer = true;
-    	hasTrailer = true;
-    	if(this instanceof TrainEngine)
+    	// only vehicles of the same store can be linked, since links are ids in the store
+    	store.idOf(otherTrailer);
+    	// the new trailer is attached behind the last of the vehicle's trailers; only the ends of the attached link
+    	// are moved now, to where this chain has them less how far its trailers have moved, 
+    	// and the vehicles between them are placed behind each other later
+    	Vehicle last = chain.getTail();
+    	Vehicle otherTail = other.getTail();
+    	int dx = last.getTrailerX() - otherTrailer.getX();
+    	int dy = last.getTrailerY() - otherTrailer.getY();
+    	int otherShiftX = other.getShiftX();
+    	int otherShiftY = other.getShiftY();
+    	otherTrailer.markDirty();
+    	if(otherTail != otherTrailer)
     	{
-    		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY() + 17);
+    		otherTrailer.markBehindDirty(otherTail);
     	}
-    	else
+    	link(last, otherTrailer);
+    	chain.absorb(other, last);
+    	otherTrailer.moveStored(dx - chain.getShiftX(), dy - chain.getShiftY());
+    	if(otherTail != otherTrailer)
     	{
-    		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY());
+    		otherTail.moveStored(dx + otherShiftX - chain.getShiftX(), dy + otherShiftY - chain.getShiftY());
+    		if(!chain.isMoved())
+    		{
+    			chain.placeLater(otherTrailer);
+    		}
     	}
+    	last.markBehindDirty(otherTail);
     }
     
     /**
@@ -294,45 +686,98 @@ public abstract class Vehicle
     {
     	if(hasTrailer())
     	{
-    		if(trailer.hasTrailer())
-	    	{
-	    		trailer.removeLast();
-	    		return;
-	    	}
-	    	random = new Random();
-	    	trailer.setLocation(random.nextInt(GameFrame.FRAME_WIDTH - RailCar.TOTAL_WIDTH), 
-	    						random.nextInt(GameFrame.FRAME_HEIGHT - RailCar.TOTAL_HEIGHT));
-	    	trailer.isTrailer = false;
-	    	hasTrailer = false;
-	    	trailer.deselect();
-	    	trailer = null;
+    		getTrain().getTail().removeFromTrain();
     	}
     }
     
     /**
-     * A method that removes the first trailer of a vehicle, and places it in a random location
+     * A method that removes the first trailer of a vehicle, places it in a random location, 
+     * and moves the remaining trailers up behind the vehicle
      */
     public void removeFirst()
     {
-    	if(hasTrailer)
+    	if(hasTrailer())
     	{
-    		if(trailer.hasTrailer)
+    		getTrailer().removeFromTrain();
+    	}
+    }
+    
+    /**
+     * A method that removes the vehicle from wherever it is in its chain, places it in a random location,
+     * and moves the trailers that were behind it up behind its puller
+     */
+    public void removeFromTrain()
+    {
+    	// only a trailer can be removed from a chain
+    	if(!isTrailer())
+    	{
+    		return;
+    	}
+    	Train chain = getTrain();
+    	Vehicle front = getPuller();
+    	Vehicle rest = getTrailer();
+    	chain.place(front);
+    	chain.place(this);
+    	// the trailers behind move up by the vehicle's length: behind the head they are all moved at once by the chain,
+    	// and elsewhere only the tail is moved now, and the ones between are placed behind each other later
+    	int dx = front.getTrailerX() - getTrailerX();
+    	int dy = front.getTrailerY() - getTrailerY();
+    	front.markBehindDirty(chain.getTail());
+    	unlink(front);
+    	if(rest != null)
+    	{
+    		unlink(this);
+    		link(front, rest);
+    	}
+    	chain.remove(this, front);
+    	// the vehicle is written where it is, now that it is a head
+    	moveStored(chain.getShiftX(), chain.getShiftY());
+    	if(rest != null)
+    	{
+    		if(front == chain.getHead())
     		{
-    	    	this.trailer.isTrailer = false;
-    	    	this.trailer.hasTrailer = false;
-    	    	trailer = this.trailer.trailer;
+    			chain.shift(dx, dy);
     		}
     		else
     		{
-    			random = new Random();
-    	    	trailer.isTrailer = false;
-    	    	hasTrailer = false;
-    	    	trailer.setLocation(random.nextInt(GameFrame.FRAME_WIDTH - RailCar.TOTAL_WIDTH), 
-									random.nextInt(GameFrame.FRAME_HEIGHT - RailCar.TOTAL_HEIGHT));
-    			trailer.deselect();
-    			trailer = null;
+    			chain.getTail().moveStored(dx, dy);
+    			chain.placeLater(front);
     		}
+    		front.markBehindDirty(chain.getTail());
+    	}
+    	setTrain(new Train(this));
+    	Random random = store.getRandom();
+    	setLocation(random.nextInt(GameFrame.FRAME_WIDTH - RailCar.TOTAL_WIDTH), 
+    				random.nextInt(GameFrame.FRAME_HEIGHT - RailCar.TOTAL_HEIGHT));
+    	deselect();
+    }
+    
+    /**
+     * A method that splits the vehicle's chain in front of the vehicle, so that the vehicle and its trailers 
+     * become a chain of their own and stay where they are
+     */
+    public void split()
+    {
+    	// only a trailer can be split from a chain
+    	if(!isTrailer())
+    	{
+    		return;
     	}
+    	Train chain = getTrain();
+    	Vehicle front = getPuller();
+    	chain.place(front);
+    	chain.place(this);
+    	unlink(front);
+    	chain.split(this, front);
+    }
+    
+    /**
+     * A method that returns the vehicle that this vehicle is attached behind
+     * @return the Vehicle that pulls this vehicle, or null if the vehicle is not a trailer
+     */
+    public Vehicle getPuller()
+    {
+    	return store.getView(store.getPuller(id));
     }
     
     /**
@@ -341,57 +786,100 @@ public abstract class Vehicle
      */
     public void addFirst(Vehicle otherTrailer)
     {
-    	if(hasTrailer)
+    	Train chain = getTrain();
+    	Train other = otherTrailer.getTrain();
+    	// a chain can not be inserted into itself
+    	if(other == chain)
     	{
-    		if(otherTrailer.hasTrailer)
-    		{
-        		findLast(otherTrailer).hasTrailer = true;
-        		findLast(otherTrailer).trailer= this.trailer;
-        		this.trailer = otherTrailer;
-        		trailer.isTrailer = true;
-        		this.trailer.hasTrailer = true;
-        		if(this instanceof TrainEngine)
-            	{
-            		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY() + 17);
-            	}
-            	else
-            	{
-            		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY());
-            	}
-        		trailer.deselect();
-    		}
-    		else
+    		return;
+    	}
+    	// only vehicles of the same store can be linked, since links are ids in the store
+    	store.idOf(otherTrailer);
+    	// behind the last vehicle, the chain is inserted the same way as it is attached
+    	if(!hasTrailer())
+    	{
+    		addLast(otherTrailer);
+    		otherTrailer.deselect();
+    		return;
+    	}
+    	// the inserted chain is deselected while it is on its own, so that only its vehicles are walked
+    	otherTrailer.deselect();
+    	chain.place(this);
+    	Vehicle previousFirst = getTrailer();
+    	Vehicle otherTail = other.getTail();
+    	// the inserted chain moves behind this vehicle, and the trailers that were behind it move back by its length
+    	int dx = getTrailerX() - otherTrailer.getX();
+    	int dy = getTrailerY() - otherTrailer.getY();
+    	int lengthX = otherTail.getTrailerX() - otherTrailer.getX();
+    	int lengthY = otherTail.getTrailerY() - otherTrailer.getY();
+    	markBehindDirty(chain.getTail());
+    	otherTrailer.markDirty();
+    	if(otherTail != otherTrailer)
+    	{
+    		otherTrailer.markBehindDirty(otherTail);
+    	}
+    	boolean front = this == chain.getHead();
+    	if(front)
+    	{
+    		// the inserted chain's own positions are made exact, so that they can be moved with the rest
+    		other.settle();
+    	}
+    	// the previous first trailer is attached behind the last vehicle of the inserted chain
+    	unlink(this);
+    	link(otherTail, previousFirst);
+    	link(this, otherTrailer);
+    	chain.absorb(other, this);
+    	if(front)
+    	{
+    		// behind the head, the trailers are all moved back at once by the chain, and the inserted vehicles
+    		// are written where the chain has them
+    		chain.shift(lengthX, lengthY);
+    		Vehicle v = otherTrailer;
+    		while(true)
     		{
-    			otherTrailer.trailer = this.trailer;
-    			this.trailer = otherTrailer;
-    			trailer.isTrailer = true;
-    			this.trailer.hasTrailer = true;
-    			if(this instanceof TrainEngine)
-    	    	{
-    	    		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY() + 17);
-    	    	}
-    	    	else
-    	    	{
-    	    		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY());
-    	    	}
-    			trailer.deselect();
+    			v.moveStored(dx - chain.getShiftX(), dy - chain.getShiftY());
+    			if(v == otherTail)
+    			{
+    				break;
+    			}
+    			v = v.getTrailer();
     		}
     	}
     	else
     	{
-    		this.trailer = otherTrailer;
-        	trailer.isTrailer = true;
-        	hasTrailer = true;
-        	if(this instanceof TrainEngine)
-        	{
-        		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY() + 17);
-        	}
-        	else
-        	{
-        		trailer.setLocation((int) (box.getX() + box.getWidth()), (int) box.getY());
-        	}
-        	trailer.deselect();
+    		// elsewhere, only the tail is moved now, and the vehicles behind this one are placed behind each other later
+    		chain.getTail().moveStored(lengthX, lengthY);
+    		chain.placeLater(this);
     	}
+    	markBehindDirty(chain.getTail());
+    }
+    
+    /**
+     * A method that links a vehicle, and its trailers, directly behind another vehicle
+     * @param puller the Vehicle that will pull the other vehicle
+     * @param otherTrailer the Vehicle that becomes the puller's trailer
+     */
+    private static void link(Vehicle puller, Vehicle otherTrailer)
+    {
+    	VehicleStore store = puller.store;
+    	store.setTrailer(puller.id, otherTrailer.id);
+    	store.setFlag(puller.id, VehicleStore.HAS_TRAILER, true);
+    	store.setPuller(otherTrailer.id, puller.id);
+    	store.setFlag(otherTrailer.id, VehicleStore.IS_TRAILER, true);
+    }
+    
+    /**
+     * A method that unlinks a vehicle's trailer from it
+     * @param puller the Vehicle whose trailer is unlinked
+     */
+    private static void unlink(Vehicle puller)
+    {
+    	VehicleStore store = puller.store;
+    	int trailerId = store.getTrailer(puller.id);
+    	store.setPuller(trailerId, VehicleStore.NONE);
+    	store.setFlag(trailerId, VehicleStore.IS_TRAILER, false);
+    	store.setTrailer(puller.id, VehicleStore.NONE);
+    	store.setFlag(puller.id, VehicleStore.HAS_TRAILER, false);
     }
     
     /**
@@ -401,14 +889,52 @@ public abstract class Vehicle
      */
     public Vehicle findLast(Vehicle first)
     {
-    	if(first.trailer == null)
+    	return first.getTrain().getTail();
+    }
+
+    /**
+     * A method that sets the spatial index that the vehicle updates whenever it moves, which is shared by its whole store
+     * @param grid the SpatialGrid that indexes the vehicle, or null if it is not indexed
+     */
+    public void setGrid(SpatialGrid grid)
+    {
+    	if(grid != null)
     	{
-    		return first;
+    		store.setGrid(grid);
     	}
-    	else
+    	store.setFlag(id, VehicleStore.INDEXED, grid != null);
+    }
+    
+    /**
+     * A method that sets the area of the game that is marked for redrawing whenever the vehicle changes, 
+     * which is shared by its whole store
+     * @param dirtyRegion the DirtyRegion of the game, or null if the vehicle is not drawn
+     */
+    public void setDirtyRegion(DirtyRegion dirtyRegion)
+    {
+    	if(dirtyRegion != null)
     	{
-    		return first.findLast(first.trailer);
+    		store.setDirtyRegion(dirtyRegion);
     	}
+    	store.setFlag(id, VehicleStore.DRAWN, dirtyRegion != null);
+    }
+    
+    /**
+     * A method that returns the position of the vehicle in the game's list of vehicles
+     * @return the integer index of the vehicle
+     */
+    public int getIndex()
+    {
+    	return store.getIndex(id);
+    }
+    
+    /**
+     * A method that sets the position of the vehicle in the game's list of vehicles
+     * @param index the integer index of the vehicle
+     */
+    public void setIndex(int index)
+    {
+    	store.setIndex(id, index);
     }
 
     /**
@@ -0,0 +1,575 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Class that represents the storage of a group of vehicles that can be linked to each other, kept as one array
+ * per property rather than as one object per vehicle, so that a yard of a million rail cars takes little memory.
+ * Each vehicle is known by its id, the position of its properties in the arrays, and a Vehicle object
+ * is only a small view onto those properties
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class VehicleStore
+{
+	public static final int NONE = -1;					// the id used when there is no vehicle
+	public static final int HAS_TRAILER = 1;			// the flag of a vehicle that has a trailer behind it
+	public static final int IS_TRAILER = 1 << 1;		// the flag of a vehicle that is attached behind another
+	public static final int LOADED = 1 << 2;			// the flag of a vehicle that has a block loaded on it
+	public static final int SELECTED = 1 << 3;			// the flag of a vehicle that is selected
+	public static final int INDEXED = 1 << 4;			// the flag of a vehicle that is in the spatial index
+	public static final int DRAWN = 1 << 5;				// the flag of a vehicle whose changes mark the game for redrawing
+	private static final int INITIAL_CAPACITY = 16;	// the number of vehicles that an empty store has room for
+
+	private int size;					// the number of vehicles in the store
+	private int[] x;					// the upper left x coordinate of each vehicle's bounding box
+	private int[] y;					// the upper left y coordinate of each vehicle's bounding box
+	private int[] width;				// the width of each vehicle's bounding box
+	private int[] height;				// the height of each vehicle's bounding box
+	private int[] trailer;				// the id of each vehicle's trailer, or NONE
+	private int[] puller;				// the id of the vehicle that each vehicle is attached behind, or NONE
+	private int[] previousSlot;			// the id of the vehicle in front of each vehicle in its train's list of loaded or empty vehicles
+	private int[] nextSlot;				// the id of the vehicle behind each vehicle in its train's list of loaded or empty vehicles
+	private int[] index;				// the position of each vehicle in the game's list of vehicles
+	private byte[] flags;				// the flags of each vehicle
+	private Block[] load;				// the block loaded on each vehicle, or null
+	private Vehicle[] views;			// the Vehicle object of each vehicle
+	private SpatialGrid grid;			// the spatial index that the indexed vehicles keep up to date when they move
+	private DirtyRegion dirtyRegion;	// the area of the game that the drawn vehicles mark when they change
+	private Random random;				// used to select a random location for removed rail cars
+	private ArrayList<Train> unsettledTrains;	// the chains whose trailers' positions in the store may not be exact
+	private int pruneSize;					// the length of the list of unsettled chains at which the settled ones are taken out
+	private long stamp;						// the number of times a chain has been split, which vehicles record with their chain
+	private int linkCount;					// the number of times a vehicle has been added or its links have changed
+
+	/**
+	 * Constructs an empty VehicleStore object
+	 */
+	public VehicleStore()
+	{
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty VehicleStore object with room for a number of vehicles
+	 * @param capacity the number of vehicles to make room for
+	 */
+	public VehicleStore(int capacity)
+	{
+		capacity = Math.max(capacity, 1);
+		x = new int[capacity];
+		y = new int[capacity];
+		width = new int[capacity];
+		height = new int[capacity];
+		trailer = new int[capacity];
+		puller = new int[capacity];
+		previousSlot = new int[capacity];
+		nextSlot = new int[capacity];
+		index = new int[capacity];
+		flags = new byte[capacity];
+		load = new Block[capacity];
+		views = new Vehicle[capacity];
+		random = new Random();
+		unsettledTrains = new ArrayList<Train>();
+		pruneSize = INITIAL_CAPACITY;
+	}
+
+	/**
+	 * A method that adds a vehicle, that is not linked to any other, to the store
+	 * @param view the Vehicle object of the new vehicle
+	 * @return the integer id of the new vehicle
+	 */
+	public int add(Vehicle view)
+	{
+		if(size == views.length)
+		{
+			grow();
+		}
+		int id = size++;
+		trailer[id] = NONE;
+		puller[id] = NONE;
+		previousSlot[id] = NONE;
+		nextSlot[id] = NONE;
+		views[id] = view;
+		linkCount++;
+		return id;
+	}
+
+	/**
+	 * A method that doubles the room in every array
+	 */
+	private void grow()
+	{
+		int capacity = 2 * views.length;
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		trailer = Arrays.copyOf(trailer, capacity);
+		puller = Arrays.copyOf(puller, capacity);
+		previousSlot = Arrays.copyOf(previousSlot, capacity);
+		nextSlot = Arrays.copyOf(nextSlot, capacity);
+		index = Arrays.copyOf(index, capacity);
+		flags = Arrays.copyOf(flags, capacity);
+		load = Arrays.copyOf(load, capacity);
+		views = Arrays.copyOf(views, capacity);
+	}
+
+	/**
+	 * A method that returns the number of vehicles in the store
+	 * @return the integer number of vehicles
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * A method that returns the Vehicle object of a vehicle
+	 * @param id the integer id of the vehicle, or NONE
+	 * @return the Vehicle with that id, or null if the id is NONE
+	 */
+	public Vehicle getView(int id)
+	{
+		if(id == NONE)
+		{
+			return null;
+		}
+		return views[id];
+	}
+
+	/**
+	 * A method that returns the id of a vehicle, checking that it belongs to this store
+	 * @param v the Vehicle, or null
+	 * @return the integer id of the vehicle, or NONE if it is null
+	 * @throws IllegalArgumentException if the vehicle belongs to another store
+	 */
+	public int idOf(Vehicle v)
+	{
+		if(v == null)
+		{
+			return NONE;
+		}
+		if(v.getStore() != this)
+		{
+			throw new IllegalArgumentException("Vehicles of different stores can not be linked");
+		}
+		return v.getId();
+	}
+
+	/**
+	 * A method that returns the upper left x coordinate of a vehicle's bounding box
+	 * @param id the integer id of the vehicle
+	 * @return the integer x coordinate
+	 */
+	public int getX(int id)
+	{
+		return x[id];
+	}
+
+	/**
+	 * A method that returns the upper left y coordinate of a vehicle's bounding box
+	 * @param id the integer id of the vehicle
+	 * @return the integer y coordinate
+	 */
+	public int getY(int id)
+	{
+		return y[id];
+	}
+
+	/**
+	 * A method that returns the width of a vehicle's bounding box
+	 * @param id the integer id of the vehicle
+	 * @return the integer width
+	 */
+	public int getWidth(int id)
+	{
+		return width[id];
+	}
+
+	/**
+	 * A method that returns the height of a vehicle's bounding box
+	 * @param id the integer id of the vehicle
+	 * @return the integer height
+	 */
+	public int getHeight(int id)
+	{
+		return height[id];
+	}
+
+	/**
+	 * A method that sets the location of a vehicle's bounding box
+	 * @param id the integer id of the vehicle
+	 * @param newX the integer value of the new upper left x coordinate
+	 * @param newY the integer value of the new upper left y coordinate
+	 */
+	public void setLocation(int id, int newX, int newY)
+	{
+		x[id] = newX;
+		y[id] = newY;
+	}
+
+	/**
+	 * A method that sets the size of a vehicle's bounding box
+	 * @param id the integer id of the vehicle
+	 * @param newWidth the width of the bounding box
+	 * @param newHeight the height of the bounding box
+	 */
+	public void setSize(int id, int newWidth, int newHeight)
+	{
+		width[id] = newWidth;
+		height[id] = newHeight;
+	}
+
+	/**
+	 * A method that returns the id of a vehicle's trailer
+	 * @param id the integer id of the vehicle
+	 * @return the integer id of the trailer, or NONE
+	 */
+	public int getTrailer(int id)
+	{
+		return trailer[id];
+	}
+
+	/**
+	 * A method that sets the id of a vehicle's trailer
+	 * @param id the integer id of the vehicle
+	 * @param trailerId the integer id of the trailer, or NONE
+	 */
+	public void setTrailer(int id, int trailerId)
+	{
+		trailer[id] = trailerId;
+		linkCount++;
+	}
+
+	/**
+	 * A method that returns the id of the vehicle that a vehicle is attached behind
+	 * @param id the integer id of the vehicle
+	 * @return the integer id of the puller, or NONE
+	 */
+	public int getPuller(int id)
+	{
+		return puller[id];
+	}
+
+	/**
+	 * A method that sets the id of the vehicle that a vehicle is attached behind
+	 * @param id the integer id of the vehicle
+	 * @param pullerId the integer id of the puller, or NONE
+	 */
+	public void setPuller(int id, int pullerId)
+	{
+		puller[id] = pullerId;
+		linkCount++;
+	}
+
+	/**
+	 * A method that returns the id of the vehicle in front of a vehicle in its train's list of loaded or empty vehicles
+	 * @param id the integer id of the vehicle
+	 * @return the integer id of the previous vehicle of the list, or NONE
+	 */
+	public int getPreviousSlot(int id)
+	{
+		return previousSlot[id];
+	}
+
+	/**
+	 * A method that sets the id of the vehicle in front of a vehicle in its train's list of loaded or empty vehicles
+	 * @param id the integer id of the vehicle
+	 * @param slotId the integer id of the previous vehicle of the list, or NONE
+	 */
+	public void setPreviousSlot(int id, int slotId)
+	{
+		previousSlot[id] = slotId;
+	}
+
+	/**
+	 * A method that returns the id of the vehicle behind a vehicle in its train's list of loaded or empty vehicles
+	 * @param id the integer id of the vehicle
+	 * @return the integer id of the next vehicle of the list, or NONE
+	 */
+	public int getNextSlot(int id)
+	{
+		return nextSlot[id];
+	}
+
+	/**
+	 * A method that sets the id of the vehicle behind a vehicle in its train's list of loaded or empty vehicles
+	 * @param id the integer id of the vehicle
+	 * @param slotId the integer id of the next vehicle of the list, or NONE
+	 */
+	public void setNextSlot(int id, int slotId)
+	{
+		nextSlot[id] = slotId;
+	}
+
+	/**
+	 * A method that returns the position of a vehicle in the game's list of vehicles
+	 * @param id the integer id of the vehicle
+	 * @return the integer position of the vehicle
+	 */
+	public int getIndex(int id)
+	{
+		return index[id];
+	}
+
+	/**
+	 * A method that sets the position of a vehicle in the game's list of vehicles
+	 * @param id the integer id of the vehicle
+	 * @param newIndex the integer position of the vehicle
+	 */
+	public void setIndex(int id, int newIndex)
+	{
+		index[id] = newIndex;
+	}
+
+	/**
+	 * A method that checks if a vehicle has a flag
+	 * @param id the integer id of the vehicle
+	 * @param flag the flag, such as HAS_TRAILER or LOADED
+	 * @return true if the vehicle has the flag, false otherwise
+	 */
+	public boolean hasFlag(int id, int flag)
+	{
+		return (flags[id] & flag) != 0;
+	}
+
+	/**
+	 * A method that sets or clears a flag of a vehicle
+	 * @param id the integer id of the vehicle
+	 * @param flag the flag, such as HAS_TRAILER or LOADED
+	 * @param on true to set the flag, false to clear it
+	 */
+	public void setFlag(int id, int flag, boolean on)
+	{
+		if(on)
+		{
+			flags[id] |= flag;
+		}
+		else
+		{
+			flags[id] &= ~flag;
+		}
+	}
+
+	/**
+	 * A method that returns the block loaded on a vehicle
+	 * @param id the integer id of the vehicle
+	 * @return the Block loaded on the vehicle, or null
+	 */
+	public Block getLoad(int id)
+	{
+		return load[id];
+	}
+
+	/**
+	 * A method that sets the block loaded on a vehicle
+	 * @param id the integer id of the vehicle
+	 * @param block the Block loaded on the vehicle, or null
+	 */
+	public void setLoad(int id, Block block)
+	{
+		load[id] = block;
+	}
+
+	/**
+	 * A method that returns the spatial index that the indexed vehicles keep up to date
+	 * @return the SpatialGrid of the store, or null
+	 */
+	public SpatialGrid getGrid()
+	{
+		return grid;
+	}
+
+	/**
+	 * A method that sets the spatial index that the indexed vehicles keep up to date
+	 * @param grid the SpatialGrid of the store, or null
+	 */
+	public void setGrid(SpatialGrid grid)
+	{
+		this.grid = grid;
+	}
+
+	/**
+	 * A method that returns the area of the game that the drawn vehicles mark when they change
+	 * @return the DirtyRegion of the store, or null
+	 */
+	public DirtyRegion getDirtyRegion()
+	{
+		return dirtyRegion;
+	}
+
+	/**
+	 * A method that sets the area of the game that the drawn vehicles mark when they change
+	 * @param dirtyRegion the DirtyRegion of the store, or null
+	 */
+	public void setDirtyRegion(DirtyRegion dirtyRegion)
+	{
+		this.dirtyRegion = dirtyRegion;
+	}
+
+	/**
+	 * A method that writes the bounding box, links, position and flags of every vehicle to a buffer, one array after another,
+	 * leaving out the lists of loaded and empty vehicles, which are rebuilt from the links when they are read
+	 * @param buffer the ByteBuffer to write to, with room for snapshotSize bytes
+	 */
+	public void write(ByteBuffer buffer)
+	{
+		putInts(buffer, x);
+		putInts(buffer, y);
+		putInts(buffer, width);
+		putInts(buffer, height);
+		putInts(buffer, trailer);
+		putInts(buffer, puller);
+		putInts(buffer, index);
+		buffer.put(flags, 0, size);
+	}
+
+	/**
+	 * A method that reads the arrays written by write over those of the vehicles already in the store, 
+	 * which must be the same number of vehicles created in the same order
+	 * @param buffer the ByteBuffer to read from
+	 */
+	public void read(ByteBuffer buffer)
+	{
+		getInts(buffer, x);
+		getInts(buffer, y);
+		getInts(buffer, width);
+		getInts(buffer, height);
+		getInts(buffer, trailer);
+		getInts(buffer, puller);
+		getInts(buffer, index);
+		buffer.get(flags, 0, size);
+		linkCount++;
+	}
+
+	/**
+	 * A method that returns the number of bytes that write takes for a number of vehicles
+	 * @param count the integer number of vehicles
+	 * @return the number of bytes
+	 */
+	public static long snapshotSize(int count)
+	{
+		return (7L * 4 + 1) * count;
+	}
+
+	/**
+	 * A method that writes the value of every vehicle in an array to a buffer all at once
+	 * @param buffer the ByteBuffer to write to
+	 * @param values the array of values, one for each vehicle
+	 */
+	private void putInts(ByteBuffer buffer, int[] values)
+	{
+		buffer.asIntBuffer().put(values, 0, size);
+		buffer.position(buffer.position() + 4 * size);
+	}
+
+	/**
+	 * A method that reads the value of every vehicle in an array from a buffer all at once
+	 * @param buffer the ByteBuffer to read from
+	 * @param values the array of values, one for each vehicle
+	 */
+	private void getInts(ByteBuffer buffer, int[] values)
+	{
+		buffer.asIntBuffer().get(values, 0, size);
+		buffer.position(buffer.position() + 4 * size);
+	}
+
+	/**
+	 * A method that remembers a chain whose head has moved without its trailers, or whose trailers have been left to be
+	 * placed, so that it is settled later; a chain that is already in the list is not added again
+	 * @param train the Train that has been shifted or whose trailers have moved
+	 */
+	public void addUnsettled(Train train)
+	{
+		if(train.isListed())
+		{
+			return;
+		}
+		// chains that were settled on their own, or linked into others, are taken out once the list has doubled,
+		// so that a long run of changes without a redraw does not keep growing it
+		if(unsettledTrains.size() >= pruneSize)
+		{
+			int kept = 0;
+			for(int i = 0; i < unsettledTrains.size(); i++)
+			{
+				Train listed = unsettledTrains.get(i);
+				if(listed.isShifted() || listed.isMoved())
+				{
+					unsettledTrains.set(kept++, listed);
+				}
+				else
+				{
+					listed.setListed(false);
+				}
+			}
+			unsettledTrains.subList(kept, unsettledTrains.size()).clear();
+			pruneSize = Math.max(INITIAL_CAPACITY, 2 * kept);
+		}
+		train.setListed(true);
+		unsettledTrains.add(train);
+	}
+
+	/**
+	 * A method that returns the chains whose heads have moved without their trailers, or whose trailers have been left
+	 * to be placed, since they were last all settled, some of which may have been settled on their own since
+	 * @return the ArrayList of the unsettled trains
+	 */
+	public ArrayList<Train> getUnsettledTrains()
+	{
+		return unsettledTrains;
+	}
+
+	/**
+	 * A method that returns the stamp of the last split of a chain, which a vehicle records along with its chain
+	 * @return the long stamp, which only grows
+	 */
+	public long getStamp()
+	{
+		return stamp;
+	}
+
+	/**
+	 * A method that starts a new stamp for a chain that is split, so that the vehicles' records of it from before are not trusted
+	 * @return the long new stamp
+	 */
+	public long nextStamp()
+	{
+		return ++stamp;
+	}
+
+	/**
+	 * A method that returns how many times a vehicle has been added or its links have changed, so that a list of the
+	 * chains can tell when it has to be made again
+	 * @return the integer count of the changes, which only grows
+	 */
+	public int getLinkCount()
+	{
+		return linkCount;
+	}
+
+	/**
+	 * A method that writes the positions of the trailers of every chain whose head has moved, or whose trailers have
+	 * been left to be placed, to the store and to the spatial index, which is done before the spatial index is searched
+	 * or the positions are saved
+	 */
+	public void settleTrains()
+	{
+		for(int i = 0; i < unsettledTrains.size(); i++)
+		{
+			unsettledTrains.get(i).settle();
+			unsettledTrains.get(i).setListed(false);
+		}
+		unsettledTrains.clear();
+	}
+
+	/**
+	 * A method that returns the random number generator used to place removed rail cars
+	 * @return the Random of the store
+	 */
+	public Random getRandom()
+	{
+		return random;
+	}
+}
@@ -0,0 +1,168 @@
+import java.awt.Rectangle;
+
+/**
+ * Class that represents the part of the game that the panel shows: the point of the game at the panel's upper left
+ * corner, how far the view is zoomed, and how big the panel is. A viewport is never changed once it is made, so that
+ * the thread that draws the game always draws a whole view while the panel is given the next one
+ * @author Alessandro Profenna alessandro.profenna@ryerson.ca
+ * @version October 18, 2026
+ */
+public class Viewport
+{
+	public static final double MIN_ZOOM = 1 / 16.0;	// the smallest zoom, which shows sixteen times the game across
+	public static final double MAX_ZOOM = 8;		// the largest zoom
+
+	private final double x;			// the x coordinate of the game at the upper left corner of the panel
+	private final double y;			// the y coordinate of the game at the upper left corner of the panel
+	private final double zoom;		// the number of pixels of the panel that each unit of the game is drawn across
+	private final int width;		// the width of the panel
+	private final int height;		// the height of the panel
+	private final double scale;		// the number of pixels of the screen that each pixel of the panel covers
+
+	/**
+	 * Constructs a Viewport object
+	 * @param x the x coordinate of the game at the upper left corner of the panel
+	 * @param y the y coordinate of the game at the upper left corner of the panel
+	 * @param zoom the number of pixels of the panel that each unit of the game is drawn across
+	 * @param width the width of the panel
+	 * @param height the height of the panel
+	 * @param scale the number of pixels of the screen that each pixel of the panel covers
+	 */
+	public Viewport(double x, double y, double zoom, int width, int height, double scale)
+	{
+		this.x = x;
+		this.y = y;
+		this.zoom = zoom;
+		this.width = width;
+		this.height = height;
+		this.scale = scale;
+	}
+
+	/**
+	 * A method that returns the x coordinate of the game at the upper left corner of the panel
+	 * @return the x coordinate in the game
+	 */
+	public double getX()
+	{
+		return x;
+	}
+
+	/**
+	 * A method that returns the y coordinate of the game at the upper left corner of the panel
+	 * @return the y coordinate in the game
+	 */
+	public double getY()
+	{
+		return y;
+	}
+
+	/**
+	 * A method that returns the number of pixels of the panel that each unit of the game is drawn across
+	 * @return the zoom of the view, 1 at the game's actual size
+	 */
+	public double getZoom()
+	{
+		return zoom;
+	}
+
+	/**
+	 * A method that returns the width of the panel
+	 * @return the integer width in pixels of the panel
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/**
+	 * A method that returns the height of the panel
+	 * @return the integer height in pixels of the panel
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * A method that returns the number of pixels of the screen that each pixel of the panel covers
+	 * @return the scale of the screen, 1 on a screen that is not scaled
+	 */
+	public double getScale()
+	{
+		return scale;
+	}
+
+	/**
+	 * A method that returns the x coordinate of the game under a point of the panel
+	 * @param px the integer value of the x coordinate on the panel
+	 * @return the integer value of the x coordinate in the game
+	 */
+	public int toGameX(int px)
+	{
+		return (int) Math.floor(x + px / zoom);
+	}
+
+	/**
+	 * A method that returns the y coordinate of the game under a point of the panel
+	 * @param py the integer value of the y coordinate on the panel
+	 * @return the integer value of the y coordinate in the game
+	 */
+	public int toGameY(int py)
+	{
+		return (int) Math.floor(y + py / zoom);
+	}
+
+	/**
+	 * A method that returns the area of the panel that an area of the game is drawn in
+	 * @param area the Rectangle area of the game
+	 * @return the Rectangle area of the panel
+	 */
+	public Rectangle toPanel(Rectangle area)
+	{
+		int left = (int) Math.floor((area.x - x) * zoom);
+		int top = (int) Math.floor((area.y - y) * zoom);
+		int right = (int) Math.ceil((area.x + area.width - x) * zoom);
+		int bottom = (int) Math.ceil((area.y + area.height - y) * zoom);
+		return new Rectangle(left, top, right - left, bottom - top);
+	}
+
+	/**
+	 * A method that returns the view moved across the game
+	 * @param dx the distance in the game to move the view right
+	 * @param dy the distance in the game to move the view down
+	 * @return the moved Viewport
+	 */
+	public Viewport scrolledBy(double dx, double dy)
+	{
+		return new Viewport(x + dx, y + dy, zoom, width, height, scale);
+	}
+
+	/**
+	 * A method that returns the view zoomed, keeping the point of the game under a point of the panel where it is
+	 * @param px the integer value of the x coordinate on the panel to zoom about
+	 * @param py the integer value of the y coordinate on the panel to zoom about
+	 * @param factor the number that the zoom is multiplied by, kept between the smallest and largest zoom
+	 * @return the zoomed Viewport
+	 */
+	public Viewport zoomedAbout(int px, int py, double factor)
+	{
+		double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+		return new Viewport(x + px / zoom - px / newZoom, y + py / zoom - py / newZoom, newZoom, width, height, scale);
+	}
+
+	/**
+	 * A method that returns the view for a panel of another size or on another screen
+	 * @param newWidth the width of the panel
+	 * @param newHeight the height of the panel
+	 * @param newScale the number of pixels of the screen that each pixel of the panel covers
+	 * @return the same Viewport if nothing has changed, or the resized Viewport
+	 */
+	public Viewport resized(int newWidth, int newHeight, double newScale)
+	{
+		if(newWidth == width && newHeight == height && newScale == scale)
+		{
+			return this;
+		}
+		return new Viewport(x, y, zoom, newWidth, newHeight, newScale);
+	}
+}